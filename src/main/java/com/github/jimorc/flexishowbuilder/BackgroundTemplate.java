@@ -0,0 +1,107 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import javax.imageio.ImageIO;
+
+/**
+ * BackgroundTemplate is an image, such as a club logo or a branded backdrop, that title and
+ * person slides are drawn on instead of a plain black background. The template is decoded
+ * once when it is loaded, and is scaled once for each slide resolution by getPixels. Each
+ * slide then starts from a copy of the scaled pixels, so a slide with a template costs about
+ * the same to render as a black slide.
+ *
+ * The template is scaled to cover the whole slide, keeping its aspect ratio. If its aspect
+ * ratio differs from the slide's, it is centred and the overhanging edges are cropped.
+ * Transparent areas of the template are black.
+ */
+final class BackgroundTemplate {
+    // the number of hex digits of the content hash that identify a template.
+    private static final int ID_LENGTH = 16;
+    private final Path file;
+    private final BufferedImage image;
+    private final String id;
+
+    private BackgroundTemplate(Path imageFile, BufferedImage decoded, String contentId) {
+        file = imageFile;
+        image = decoded;
+        id = contentId;
+    }
+
+    /**
+     * Loads and decodes a template.
+     * @param imageFile the image file. It may be in any format that ImageIO can read, such
+     * as JPEG or PNG.
+     * @return the template.
+     * @throws IOException if the file cannot be read or is not an image.
+     */
+    static BackgroundTemplate load(Path imageFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(imageFile);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(bytes));
+        if (decoded == null) {
+            throw new IOException("Background image " + imageFile + " is not in a supported image format");
+        }
+        return new BackgroundTemplate(imageFile, decoded, hash(bytes));
+    }
+
+    /**
+     * Returns the file that the template was loaded from.
+     * @return the file.
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns an identifier of the template's content. Templates with the same content have
+     * the same identifier wherever they are loaded from, so it can be part of a renderer's
+     * style.
+     * @return the identifier, a hexadecimal string.
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Scales the template to a slide resolution.
+     * @param width the width of the slide in pixels.
+     * @param height the height of the slide in pixels.
+     * @return the pixels of the scaled template, in the layout of a BufferedImage.TYPE_3BYTE_BGR
+     * image of the given size.
+     */
+    byte[] getPixels(int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        double scale = Math.max((double) width / image.getWidth(), (double) height / image.getHeight());
+        int scaledWidth = (int) Math.ceil(image.getWidth() * scale);
+        int scaledHeight = (int) Math.ceil(image.getHeight() * scale);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, (width - scaledWidth) / 2, (height - scaledHeight) / 2, scaledWidth,
+                scaledHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return ((DataBufferByte) scaled.getRaster().getDataBuffer()).getData();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest).substring(0, ID_LENGTH);
+        } catch (NoSuchAlgorithmException nsae) {
+            // every Java platform is required to support SHA-256.
+            throw new IllegalStateException(nsae);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.tinylog.Logger;
+
+/**
+ * BatchBuilder builds the slide shows listed in a manifest file in one run. Each line of the
+ * manifest holds the command line arguments of one show, as they would be passed to
+ * CommandLineBuilder. Arguments are separated by spaces; an argument that contains spaces is
+ * enclosed in double quotes, and \" is a double quote within an argument. Blank lines and lines
+ * that start with # are ignored, and relative paths are resolved against the manifest's folder.
+ *
+ * ```
+ * # club shows for 2025
+ * --title "Spring Show" --sort most-entries-first spring/entries.csv
+ * --title "Autumn Show" --profile all --background logo.png autumn/entries.csv
+ * ```
+ *
+ * All of the lines are checked before any show is built. The shows are then built on a fixed
+ * number of threads, and share one ShowResources object, so the fonts, renderers, background
+ * images, slide cache, JPEG writers and slide worker threads are set up once for the whole
+ * batch. A show that fails does not stop the others. When all of the shows have been built, a
+ * summary of the results is printed.
+ */
+final class BatchBuilder {
+    /** The option that selects a batch build. It must be the first argument. */
+    static final String OPTION = "--batch";
+    /** The option that sets the number of shows that are built at once. */
+    static final String JOBS_OPTION = "--jobs";
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * A show in the manifest.
+     * @param line the line number of the show in the manifest, starting at 1.
+     * @param options the parsed arguments of the show.
+     */
+    record Show(int line, CommandLineBuilder.Options options) {}
+
+    /**
+     * The result of building a show.
+     * @param line the line number of the show in the manifest.
+     * @param csvFile the show's CSV file.
+     * @param ok true if the show was built and saved.
+     * @param message the reason the show failed, or an empty string.
+     * @param millis the time taken to build the show, in milliseconds.
+     * @param saved the saved XLS files.
+     */
+    record Result(int line, File csvFile, boolean ok, String message, long millis, List<Path> saved) {}
+
+    private BatchBuilder() {}
+
+    /**
+     * Builds the shows in a manifest as specified by command line arguments.
+     * @param args the arguments: --batch, the manifest file, and optionally --jobs and a count.
+     * @param out the stream to print the summary to.
+     * @param err the stream to report errors to.
+     * @return CommandLineBuilder.EXIT_OK if every show was built, EXIT_FAILED if any show
+     * failed, or EXIT_USAGE if the arguments or the manifest are invalid.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        List<Show> shows;
+        int jobs;
+        try {
+            jobs = parseJobs(args);
+            shows = readManifest(Path.of(args[1]));
+        } catch (IllegalArgumentException | IOException e) {
+            err.println("flexishowbuilder: " + e.getMessage());
+            err.println("Run flexishowbuilder --help for usage.");
+            return CommandLineBuilder.EXIT_USAGE;
+        }
+        long start = System.nanoTime();
+        List<Result> results = build(shows, jobs);
+        long millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        int built = printSummary(results, millis, out);
+        Logger.debug(BuilderGUI.buildLogMessage("Batch of ", Integer.toString(results.size()), " shows built on ",
+            Integer.toString(jobs), " threads in ", Long.toString(millis), " ms"));
+        return built == results.size() ? CommandLineBuilder.EXIT_OK : CommandLineBuilder.EXIT_FAILED;
+    }
+
+    /**
+     * Reads and checks a manifest.
+     * @param manifest the manifest file.
+     * @return the shows in the manifest, in order.
+     * @throws IOException if the manifest cannot be read.
+     * @throws IllegalArgumentException if a line of the manifest is invalid, or two shows
+     * would be written to the same folder.
+     */
+    static List<Show> readManifest(Path manifest) throws IOException {
+        Path baseDir = manifest.toAbsolutePath().getParent();
+        List<String> lines = Files.readAllLines(manifest);
+        List<Show> shows = new ArrayList<>();
+        Map<String, Integer> folders = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String where = manifest + ":" + (i + 1) + ": ";
+            CommandLineBuilder.Options options;
+            try {
+                options = CommandLineBuilder.parse(tokenize(line).toArray(new String[0]), baseDir);
+            } catch (IllegalArgumentException iae) {
+                throw new IllegalArgumentException(where + iae.getMessage(), iae);
+            }
+            if (options == null) {
+                throw new IllegalArgumentException(where + "--help is not allowed in a manifest");
+            }
+            Integer earlier = folders.putIfAbsent(options.csvFile().getParent(), i + 1);
+            if (earlier != null) {
+                throw new IllegalArgumentException(where + "the show is in the same folder as the show on line "
+                    + earlier);
+            }
+            shows.add(new Show(i + 1, options));
+        }
+        if (shows.isEmpty()) {
+            throw new IllegalArgumentException("No shows in " + manifest);
+        }
+        return shows;
+    }
+
+    /**
+     * Splits a manifest line into arguments.
+     * @param line the line.
+     * @return the arguments.
+     * @throws IllegalArgumentException if a quoted argument is not closed.
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean inToken = false;
+        boolean quoted = false;
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c == '\\' && line.startsWith("\"", i)) {
+                token.append('"');
+                inToken = true;
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Missing closing quote");
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the default number of shows to build at once. Half of the processors are used
+     * for shows, leaving the rest to the shared slide workers.
+     * @return the number of shows.
+     */
+    static int getDefaultJobs() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * Parses the value of the --jobs option.
+     * @param value the value.
+     * @return the number of shows to build at once.
+     * @throws IllegalArgumentException if the value is not a positive number.
+     */
+    static int parseJobs(String value) {
+        int jobs;
+        try {
+            jobs = Integer.parseInt(value);
+        } catch (NumberFormatException nfe) {
+            jobs = 0;
+        }
+        if (jobs < 1) {
+            throw new IllegalArgumentException("Invalid number of jobs: " + value);
+        }
+        return jobs;
+    }
+
+    // Returns the number of shows to build at once.
+    private static int parseJobs(String[] args) {
+        final int jobsArgs = 4;
+        if (args.length == 2) {
+            return getDefaultJobs();
+        }
+        if (args.length != jobsArgs || !args[2].equals(JOBS_OPTION)) {
+            throw new IllegalArgumentException("Usage: flexishowbuilder --batch <manifest> [--jobs <n>]");
+        }
+        return parseJobs(args[jobsArgs - 1]);
+    }
+
+    // Builds the shows on a fixed number of threads, with shared resources. Returns the
+    // results in manifest order.
+    private static List<Result> build(List<Show> shows, int jobs) {
+        ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        List<Result> results = new ArrayList<>();
+        try (ShowResources resources = ShowResources.openDefault()) {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Show show : shows) {
+                futures.add(pool.submit(() -> build(show, resources)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(getResult(shows.get(i), futures.get(i)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    private static Result build(Show show, ShowResources resources) {
+        long start = System.nanoTime();
+        File csvFile = show.options().csvFile();
+        try {
+            List<Path> saved = CommandLineBuilder.build(show.options(), resources);
+            return new Result(show.line(), csvFile, true, "", (System.nanoTime() - start) / NANOS_PER_MILLI, saved);
+        } catch (CSVException | IOException e) {
+            Logger.error("Exception thrown building slide show in batch: ", e);
+            return new Result(show.line(), csvFile, false, String.valueOf(e.getMessage()),
+                (System.nanoTime() - start) / NANOS_PER_MILLI, List.of());
+        }
+    }
+
+    private static Result getResult(Show show, Future<Result> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return new Result(show.line(), show.options().csvFile(), false, "Interrupted", 0, List.of());
+        } catch (ExecutionException ee) {
+            Logger.error("Exception thrown building slide show in batch: ", ee.getCause());
+            return new Result(show.line(), show.options().csvFile(), false, String.valueOf(ee.getCause()), 0,
+                List.of());
+        }
+    }
+
+    // Prints a line for each show, followed by its saved files, and a total. Returns the number
+    // of shows that were built.
+    private static int printSummary(List<Result> results, long millis, PrintStream out) {
+        int built = 0;
+        for (Result result : results) {
+            String time = String.format("%6.2f s", result.millis() / MILLIS_PER_SECOND);
+            if (result.ok()) {
+                built++;
+                out.println("OK      " + time + "  " + result.csvFile());
+                for (Path saved : result.saved()) {
+                    out.println("                    Saved " + saved);
+                }
+            } else {
+                out.println("FAILED  " + time + "  " + result.csvFile() + " (line " + result.line() + "): "
+                    + result.message());
+            }
+        }
+        out.println("Built " + built + " of " + results.size() + " shows in "
+            + String.format("%.2f", millis / MILLIS_PER_SECOND) + " s");
+        return built;
+    }
+}
@@ -1,7 +1,10 @@
 package com.github.jimorc.flexishowbuilder;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javafx.application.Application;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
@@ -17,21 +20,29 @@ public class BuilderGUI extends Application {
         System.setProperty("LOG_LEVEL", "trace");
         Logger.trace("flexishowbuilder starting.");
         StartStage startStage = new StartStage();
+        startStage.setOnShown(_ -> logTimeToFirstWindow());
 
         startStage.showAndWait();
         Logger.trace("Have returned from StartStage.");
         InputCSV iCSV = startStage.getInputCSV();
-        TitleAndSortStage tsStage = new TitleAndSortStage();
+        TitleAndSortStage tsStage = new TitleAndSortStage(iCSV);
         tsStage.showAndWait();
         TitleAndSortData data = tsStage.getData();
         Logger.debug(BuilderGUI.buildLogMessage(
             "TitleAndSortData after return from TitleAndSortStage: ", data.toString()));
 
-        OutputCSV out = generateOutputCSV(iCSV, data);
-        Logger.debug(BuilderGUI.buildLogMessage(
-            "OutputCSV after creation:\n", out.toString()));
-        Logger.trace("Creating outCSVStage");
-        OutputCSVStage outCSVStage = new OutputCSVStage(out, iCSV.getFileDir());
+        OutputCSVStage outCSVStage;
+        if (data.getProfiles().size() == 1) {
+            OutputCSV out = generateOutputCSV(iCSV, data);
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "OutputCSV created with ", Integer.toString(out.length()), " lines"));
+            Logger.trace("Creating outCSVStage");
+            outCSVStage = new OutputCSVStage(out, iCSV.getFileDir());
+        } else {
+            Map<String, OutputCSV> saves = generateProfileOutputCSVs(iCSV, data);
+            Logger.trace("Creating outCSVStage for profiles");
+            outCSVStage = new OutputCSVStage(saves.values().iterator().next(), saves);
+        }
         outCSVStage.showAndWait();
         Logger.trace("Back from OutputCSVStage");
         System.exit(0);
@@ -84,36 +95,19 @@ public class BuilderGUI extends Application {
         System.exit(1);
     }
 
+    // Logs the time from the start of the JVM to the first window being shown. Apache POI,
+    // ImageIO and the slide renderers are loaded later, when they are first used.
+    private static void logTimeToFirstWindow() {
+        ProcessHandle.current().info().startInstant().ifPresent(started -> Logger.debug(
+            BuilderGUI.buildLogMessage("First window shown ",
+                Long.toString(Duration.between(started, Instant.now()).toMillis()), " ms after launch")));
+    }
+
     private OutputCSV generateOutputCSV(InputCSV csv, TitleAndSortData data) {
         Logger.trace("In BuilderGUI.generateOutputCSV");
         OutputCSV out = new OutputCSV();
         try {
-            out.appendLine(csv.getLine(0));
-            String dir = csv.getFileDir();
-            String titleFileName = dir + "/title.jpg";
-            TitleImage.generateTitleImage(data.getTitle(), titleFileName);
-            out.appendLine(new TitleImageLine("title.jpg"));
-
-            csv.sortNames(data.getOrder());
-            ArrayList<String> fullNames = csv.getSortedFullNames();
-            for (String name : fullNames) {
-                Person person = csv.getPerson(name);
-                String fName = name.replaceAll(" ", "_");
-                String fileName = dir + "/" + fName + ".jpg";
-                String title = "";
-                if (data.isLastNameAsInitial()) {
-                    title = person.getFirstPlusInitial();
-                } else {
-                    title = person.getFullName();
-                }
-                TitleImage.generateTitleImage(title, fileName);
-                out.appendLine(new TitleImageLine(fName + ".jpg"));
-                ImageAndPersonLine[] lines = csv.getImageLines(name);
-                for (ImageAndPersonLine line: lines) {
-                    out.appendLine(line);
-                }
-            }
-            out.appendLine(new TitleImageLine("title.jpg"));
+            ShowBuilder.build(csv, data, out);
         } catch (CSVException e) {
             Logger.error("CSVException thrown in generateOutputCSV: ", e);
             handlePersonException(e);
@@ -124,6 +118,24 @@ public class BuilderGUI extends Application {
         return out;
     }
 
+    // Builds the show for each profile, keyed by the name of the profile's XLS file.
+    private Map<String, OutputCSV> generateProfileOutputCSVs(InputCSV csv, TitleAndSortData data) {
+        Logger.trace("In BuilderGUI.generateProfileOutputCSVs");
+        Map<String, OutputCSV> saves = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<OutputProfile, OutputCSV> show : ShowBuilder.buildProfiles(csv, data).entrySet()) {
+                saves.put(ShowBuilder.getProfileDir(csv, show.getKey()) + "/" + XLSWorkbook.FILE_NAME, show.getValue());
+            }
+        } catch (CSVException e) {
+            Logger.error("CSVException thrown in generateProfileOutputCSVs: ", e);
+            handlePersonException(e);
+        } catch (IOException ioe) {
+            Logger.error("IOException thrown in generateProfileOutputCSVs: ", ioe);
+            handleIOException(ioe, csv);
+        }
+        return saves;
+    }
+
     /**
      * buildLogMessage combines various String objects into a single string.
      * @param parts the Strings to combine into a single String object.
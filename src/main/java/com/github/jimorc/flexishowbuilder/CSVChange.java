@@ -0,0 +1,22 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * CSVChange defines the possible results of reloading an InputCSV object.
+ */
+public enum CSVChange {
+    /**
+     * None denotes that the CSV file has not changed, or that the records appended to it are
+     * not yet complete.
+     */
+    None,
+    /**
+     * Appended denotes that records were appended to the CSV file, and only those records were
+     * parsed.
+     */
+    Appended,
+    /**
+     * Reloaded denotes that earlier content in the CSV file changed, so the whole file was
+     * parsed again.
+     */
+    Reloaded
+}
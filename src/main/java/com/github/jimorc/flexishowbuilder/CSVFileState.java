@@ -0,0 +1,239 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * CSVFileState records how much of a CSV file has been loaded, so that a later change to the
+ * file can be classified as an append or as a change to the loaded content.
+ *
+ * The loaded content is identified by its length, the file's last modified time, and a CRC32
+ * of the whole of the loaded content. Records appended to the file leave all three unchanged
+ * for the loaded part of the file, and any other edit, even one that keeps the length the
+ * same, almost certainly changes the CRC. The state is built by a Recorder from the bytes the
+ * parser consumes, so it describes exactly the content that was loaded even if the file grows
+ * while it is being parsed. When records are appended, the CRC is checked against the loaded
+ * content and then extended over just the appended bytes.
+ */
+final class CSVFileState {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final byte LF = '\n';
+
+    private final long length;
+    private final long lastModified;
+    private final long fingerprint;
+    private final boolean endsWithLineBreak;
+
+    private CSVFileState(long loadedLength, long modified, long crc, boolean lineBreak) {
+        length = loadedLength;
+        lastModified = modified;
+        fingerprint = crc;
+        endsWithLineBreak = lineBreak;
+    }
+
+    /**
+     * Returns the number of bytes of the file that have been loaded.
+     * @return the loaded length.
+     */
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * Determines whether the file is the same size and has the same modification time as when
+     * it was loaded.
+     * @param path the CSV file.
+     * @return true if the file appears to be unchanged.
+     * @throws IOException if the file attributes cannot be read.
+     */
+    boolean isUnchanged(Path path) throws IOException {
+        return Files.size(path) == length && Files.getLastModifiedTime(path).toMillis() == lastModified;
+    }
+
+    /**
+     * Parses the complete records appended to the file since it was loaded. A trailing record
+     * that has not yet been terminated by a line break is left for the next call. The file is
+     * only treated as appended to if the loaded content ended with a complete record and is
+     * unchanged.
+     * @param path the CSV file.
+     * @param recordsBefore the number of records in the loaded content.
+     * @return the appended records and the state of the file once they are loaded, or null if
+     * the file has not just been appended to.
+     * @throws IOException if the file cannot be read.
+     */
+    AppendedRecords readAppendedRecords(Path path, int recordsBefore) throws IOException {
+        if (!endsWithLineBreak) {
+            return null;
+        }
+        Recorder recorder = new Recorder(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long available = channel.size() - length;
+            if (available <= 0 || !recorder.matches(channel, this)) {
+                return null;
+            }
+            ByteBuffer appended = readFully(channel, length, (int) Math.min(available, Integer.MAX_VALUE));
+            int end = appended.limit();
+            while (end > 0 && appended.get(end - 1) != LF) {
+                end--;
+            }
+            List<String[]> records = parseRecords(appended.slice(0, end), recordsBefore);
+            if (records.isEmpty()) {
+                end = 0;
+            }
+            recorder.update(appended.slice(0, end));
+            return new AppendedRecords(records, recorder.finish());
+        }
+    }
+
+    // Parses complete records. Returns no records if the last line break is inside a quoted
+    // field that has not been completed yet.
+    private static List<String[]> parseRecords(ByteBuffer bytes, int recordsBefore) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        if (!bytes.hasRemaining()) {
+            return records;
+        }
+        CharBuffer chars = StandardCharsets.UTF_8.newDecoder().decode(bytes);
+        CSVReader reader = new CSVReader(
+            new CharArrayReader(chars.array(), chars.arrayOffset(), chars.limit()), recordsBefore);
+        try {
+            String[] fields = reader.readRecord();
+            while (fields != null) {
+                records.add(fields);
+                fields = reader.readRecord();
+            }
+        } catch (CSVException csve) {
+            return new ArrayList<>();
+        }
+        return records;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * The complete records appended to a CSV file.
+     * @param records the fields of each appended record.
+     * @param state the state of the file content once the records are loaded.
+     */
+    record AppendedRecords(List<String[]> records, CSVFileState state) {}
+
+    /**
+     * Recorder builds a CSVFileState from the bytes of a file as they are parsed. The file's
+     * modification time is read when the Recorder is created, before any bytes are read, so a
+     * change made while the file is being parsed is seen by the next reload.
+     */
+    static final class Recorder {
+        private final long modified;
+        private final CRC32 crc = new CRC32();
+        private long length;
+        private boolean lineBreak;
+
+        /**
+         * Constructor - creates a Recorder for the specified file.
+         * @param path the CSV file.
+         * @throws IOException if the file attributes cannot be read.
+         */
+        Recorder(Path path) throws IOException {
+            modified = Files.getLastModifiedTime(path).toMillis();
+        }
+
+        /**
+         * Records the remaining bytes in the buffer, which follow the bytes already recorded.
+         * @param bytes the bytes to record. The buffer's position is moved to its limit.
+         */
+        void update(ByteBuffer bytes) {
+            if (bytes.hasRemaining()) {
+                lineBreak = bytes.get(bytes.limit() - 1) == LF;
+                length += bytes.remaining();
+                crc.update(bytes);
+            }
+        }
+
+        /**
+         * Returns a channel that reads at most count bytes from the specified channel, and
+         * records each byte that is read.
+         * @param channel the channel to read.
+         * @param count the maximum number of bytes to read.
+         * @return the limited channel. Closing it closes channel.
+         */
+        ReadableByteChannel limit(ReadableByteChannel channel, long count) {
+            return new LimitedChannel(channel, count);
+        }
+
+        /**
+         * Returns the state of the recorded bytes.
+         * @return the state.
+         */
+        CSVFileState finish() {
+            return new CSVFileState(length, modified, crc.getValue(), lineBreak);
+        }
+
+        // Records the first state.length bytes of the file, and returns true if they are the
+        // content that state describes.
+        private boolean matches(FileChannel channel, CSVFileState state) throws IOException {
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            while (length < state.length) {
+                chunk.clear().limit((int) Math.min(CHUNK_SIZE, state.length - length));
+                if (channel.read(chunk, length) <= 0) {
+                    return false;
+                }
+                update(chunk.flip());
+            }
+            return crc.getValue() == state.fingerprint;
+        }
+
+        private final class LimitedChannel implements ReadableByteChannel {
+            private final ReadableByteChannel channel;
+            private long remaining;
+
+            LimitedChannel(ReadableByteChannel readable, long count) {
+                channel = readable;
+                remaining = count;
+            }
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int start = dst.position();
+                ByteBuffer window = dst.slice(start, (int) Math.min(dst.remaining(), remaining));
+                int read = channel.read(window);
+                if (read > 0) {
+                    update(window.flip());
+                    dst.position(start + read);
+                    remaining -= read;
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        }
+    }
+}
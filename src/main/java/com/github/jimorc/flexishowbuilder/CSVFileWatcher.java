@@ -0,0 +1,92 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import org.tinylog.Logger;
+
+/**
+ * CSVFileWatcher watches a CSV file and runs an action each time the file changes.
+ *
+ * The directory containing the file is watched by a WatchService on a daemon thread. A writer
+ * usually produces several events for a single save, so events are collected until the file
+ * has been quiet for a short time, and the action is then run once.
+ *
+ * The action is run on the watcher thread. GUI code should pass the work to the JavaFX
+ * application thread with Platform.runLater.
+ */
+public final class CSVFileWatcher implements Closeable {
+    private static final long QUIET_MILLIS = 250;
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Constructor - starts watching the specified file.
+     * @param csvFile the file to watch.
+     * @param action the action to run when the file changes.
+     * @throws IOException if the directory containing the file cannot be watched.
+     */
+    public CSVFileWatcher(Path csvFile, Runnable action) throws IOException {
+        file = csvFile.toAbsolutePath();
+        onChange = action;
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::watch, "CSVFileWatcher");
+        thread.setDaemon(true);
+        thread.start();
+        Logger.debug(BuilderGUI.buildLogMessage("Watching ", file.toString(), " for changes"));
+    }
+
+    /**
+     * Stops watching the file.
+     * @throws IOException if the WatchService cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (isFileEvent(watchService.take())) {
+                    waitUntilQuiet();
+                    Logger.debug(BuilderGUI.buildLogMessage(file.toString(), " has changed"));
+                    onChange.run();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            Logger.debug(BuilderGUI.buildLogMessage("Stopped watching ", file.toString()));
+        }
+    }
+
+    private void waitUntilQuiet() throws InterruptedException {
+        WatchKey key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+        while (key != null) {
+            isFileEvent(key);
+            key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Returns true if any of the key's events are for the watched file, and resets the key.
+    private boolean isFileEvent(WatchKey key) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path changed && file.getFileName().equals(changed)) {
+                found = true;
+            }
+        }
+        key.reset();
+        return found;
+    }
+}
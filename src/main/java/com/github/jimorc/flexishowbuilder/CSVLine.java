@@ -4,13 +4,14 @@ package com.github.jimorc.flexishowbuilder;
  * The CSVLine class stores each field of a CSV line.
  */
 public class CSVLine {
+    private static final String[] NO_FIELDS = new String[0];
     private String[] fields;
 
     /**
      * Constructor - creates an empty CSVLine object.
      */
     public CSVLine() {
-        fields = new String[0];
+        fields = NO_FIELDS;
     }
 
     /**
@@ -65,17 +66,32 @@ public class CSVLine {
     }
 
     /**
-     * toString returns a string representation of the CSVLine.
+     * toString returns a string representation of the CSVLine. Fields that contain commas,
+     * double quotes or line breaks are quoted.
      * @return String representing the contents of the CSVLine object.
      */
     public String toString() {
         StringBuffer sb = new StringBuffer();
         for (int i = 0; i < fields.length; i++) {
-            sb.append(fields[i]);
+            sb.append(quote(fields[i]));
             if (i < fields.length - 1) {
                 sb.append(",");
             }
         }
         return sb.toString();
     }
+
+    /**
+     * Quotes a field value if it contains a comma, double quote or line break. Double quotes
+     * within the value are escaped by doubling them.
+     * @param field the field value.
+     * @return the value as it should appear in a CSV line.
+     */
+    protected static String quote(String field) {
+        if (field == null || field.indexOf(',') < 0 && field.indexOf('"') < 0
+                && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
 }
@@ -0,0 +1,15 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * CSVLineSink receives the lines of a slide show as they are generated. OutputCSV collects
+ * the lines so that they can be displayed; XLSWorkbook writes each line straight into a row
+ * of its worksheet.
+ */
+public interface CSVLineSink {
+    /**
+     * Appends a CSVLine from the original InputCSV object or a TitleImageLine for a generated
+     * image file.
+     * @param line the CSVLine to append.
+     */
+    void appendLine(CSVLine line);
+}
@@ -0,0 +1,199 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * CSVReader is a streaming RFC 4180 tokenizer. It reads its input one character at a time
+ * through a fixed size buffer and returns one record at a time, so the whole file is never
+ * held in memory.
+ *
+ * Fields may be enclosed in double quotes. A quoted field may contain commas, line breaks and
+ * escaped double quotes (""). Records may be terminated by LF or CRLF.
+ *
+ * ```java
+ * try (CSVReader reader = new CSVReader(path)) {
+ *     String[] fields;
+ *     while ((fields = reader.readRecord()) != null) {
+ *         ...
+ *     }
+ * }
+ * ```
+ */
+public final class CSVReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int EOF = -1;
+    private static final char QUOTE = '"';
+    private static final char SEPARATOR = ',';
+    private static final char CR = '\r';
+    private static final char LF = '\n';
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int recordNumber;
+    private final StringBuilder field = new StringBuilder();
+    private final ArrayList<String> fields = new ArrayList<>();
+
+    /**
+     * Constructor - creates a CSVReader that reads the UTF-8 encoded file at path.
+     * @param path the file to read.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CSVReader(Path path) throws IOException {
+        this(Channels.newReader(Files.newByteChannel(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Constructor - creates a CSVReader that reads from the specified Reader.
+     * @param in the Reader to read CSV records from.
+     */
+    public CSVReader(Reader in) {
+        this(in, 0);
+    }
+
+    /**
+     * Constructor - creates a CSVReader that reads part of a CSV file from the specified Reader.
+     * @param in the Reader to read CSV records from.
+     * @param recordsBefore the number of records in the file before the first record to be read.
+     * This is used to number the records in error messages.
+     */
+    CSVReader(Reader in, int recordsBefore) {
+        reader = in;
+        recordNumber = recordsBefore;
+    }
+
+    /**
+     * Parses a single CSV record held in a String.
+     * @param line the CSV record to parse.
+     * @return the fields in the record. An empty line returns a single empty field.
+     * @throws CSVException if the line contains an unterminated quoted field.
+     */
+    public static String[] parseLine(String line) throws CSVException {
+        try (CSVReader reader = new CSVReader(new StringReader(line))) {
+            String[] parsed = reader.readRecord();
+            return parsed != null ? parsed : new String[] {""};
+        } catch (IOException ioe) {
+            // a StringReader does not throw IOException.
+            throw new CSVException(ioe.getMessage());
+        }
+    }
+
+    /**
+     * Reads the next record.
+     * @return the fields in the record, or null if the end of the input has been reached.
+     * @throws IOException if the input cannot be read.
+     * @throws CSVException if the record contains an unterminated quoted field.
+     */
+    public String[] readRecord() throws IOException, CSVException {
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+        recordNumber++;
+        fields.clear();
+        int terminator = readField(c);
+        while (terminator == SEPARATOR) {
+            terminator = readField(read());
+        }
+        return fields.toArray(new String[fields.size()]);
+    }
+
+    /**
+     * Returns the number of records read so far.
+     * @return the number of the last record returned by readRecord. The first record is 1.
+     */
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Closes the underlying Reader.
+     * @throws IOException if the Reader cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Reads one field starting with character c, adds it to fields and returns the character
+    // that terminated it: SEPARATOR, LF or EOF.
+    private int readField(int c) throws IOException, CSVException {
+        field.setLength(0);
+        int terminator;
+        if (c == QUOTE) {
+            terminator = readUnquoted(readQuoted());
+        } else {
+            terminator = readUnquoted(c);
+        }
+        fields.add(field.toString());
+        return terminator;
+    }
+
+    // Reads the remainder of a quoted field after the opening quote. Returns the first
+    // character after the closing quote.
+    private int readQuoted() throws IOException, CSVException {
+        int c = read();
+        while (true) {
+            if (c == EOF) {
+                throw new CSVException("Unterminated quoted field in record " + recordNumber);
+            }
+            if (c == QUOTE) {
+                c = read();
+                if (c != QUOTE) {
+                    return c;
+                }
+            }
+            field.append((char) c);
+            c = read();
+        }
+    }
+
+    // Appends characters up to the end of the field. Characters that follow a closing quote
+    // are kept rather than rejected.
+    private int readUnquoted(int c) throws IOException {
+        while (c != SEPARATOR && c != LF && c != CR && c != EOF) {
+            field.append((char) c);
+            c = read();
+        }
+        if (c == CR) {
+            if (peek() == LF) {
+                read();
+            }
+            return LF;
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        while (count == 0) {
+            count = reader.read(buffer, 0, buffer.length);
+        }
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * ColumnarLineStore stores ImageAndPersonLine data as columns rather than as one object per
+ * line.
+ *
+ * The image file names and titles are stored as UTF-8 bytes in a single byte array, and each
+ * row records where its text starts and ends. The full, first and last names are dictionary
+ * encoded: each distinct name is stored once and each row records only the int id of its
+ * names. Rows are never moved once added; the order of the lines is a separate int array of
+ * row ids, so inserting a line only shifts ints, and a store created by newEmptyStore shares
+ * the rows of this store.
+ *
+ * The get method returns a lightweight ImageAndPersonLine view of a row. The view decodes its
+ * fields from the columns each time they are requested.
+ *
+ * Lines with fewer than five fields, such as the TitleImageLine objects that are inserted
+ * when a show is built, have no columns to go in. They are kept as they are in a side list,
+ * and the order array refers to them with negative ids, so get returns the same object that
+ * was inserted.
+ */
+final class ColumnarLineStore implements LineStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private final RowTable table;
+    private int[] order;
+    private int size;
+
+    /**
+     * Constructor - creates an empty store.
+     */
+    ColumnarLineStore() {
+        this(new RowTable());
+    }
+
+    private ColumnarLineStore(RowTable rowTable) {
+        table = rowTable;
+        order = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public CSVLine get(int index) {
+        int row = order[index];
+        return row >= 0 ? new ColumnarLine(table, row) : table.others.get(-row - 1);
+    }
+
+    /**
+     * Inserts a line at the specified index. A line with fewer than five fields is stored as
+     * it is rather than in the columns.
+     * @param index the index to insert the line at, from 0 to size().
+     * @param line the line to insert.
+     */
+    @Override
+    public void insert(int index, CSVLine line) {
+        int row;
+        if (line instanceof ColumnarLine cl && cl.table == table) {
+            row = cl.row;
+        } else if (line.length() < ImageAndPersonLine.FIELD_COUNT) {
+            row = table.addOther(line);
+        } else {
+            row = table.add(line);
+        }
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+        }
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = row;
+        size++;
+    }
+
+    @Override
+    public CSVLine remove(int index) {
+        CSVLine removed = get(index);
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    @Override
+    public LineStore newEmptyStore() {
+        return new ColumnarLineStore(table);
+    }
+
+    /**
+     * Returns the number of distinct names stored in the name dictionary.
+     * @return the number of distinct full, first and last names.
+     */
+    int getDistinctNameCount() {
+        return table.names.size();
+    }
+
+    // The append-only column data shared by a store and the stores created from it.
+    private static final class RowTable {
+        private static final int FILE_START = 0;
+        private static final int TITLE_START = 1;
+        private static final int TITLE_END = 2;
+        private static final int FULL_NAME = 3;
+        private static final int FIRST_NAME = 4;
+        private static final int LAST_NAME = 5;
+        private static final int COLUMNS = 6;
+        private static final int INITIAL_TEXT_CAPACITY = 1024;
+
+        private final int[][] columns = new int[COLUMNS][INITIAL_CAPACITY];
+        private byte[] text = new byte[INITIAL_TEXT_CAPACITY];
+        private int textLength;
+        private int rows;
+        private final HashMap<String, Integer> nameIds = new HashMap<>();
+        private final ArrayList<String> names = new ArrayList<>();
+        // lines with fewer than five fields. Line i has row id -(i + 1).
+        private final ArrayList<CSVLine> others = new ArrayList<>();
+
+        // Adds a row for a line with at least five fields and returns its row id.
+        int add(CSVLine line) {
+            if (rows == columns[0].length) {
+                for (int c = 0; c < COLUMNS; c++) {
+                    columns[c] = Arrays.copyOf(columns[c], rows * 2);
+                }
+            }
+            columns[FILE_START][rows] = textLength;
+            appendText(line.field(ImageAndPersonLine.IMAGE_FILE_POSITION));
+            columns[TITLE_START][rows] = textLength;
+            appendText(line.field(ImageAndPersonLine.IMAGE_TITLE_POSITION));
+            columns[TITLE_END][rows] = textLength;
+            columns[FULL_NAME][rows] = nameId(line.field(ImageAndPersonLine.PERSON_FULL_NAME_POSITION));
+            columns[FIRST_NAME][rows] = nameId(line.field(ImageAndPersonLine.PERSON_FIRST_NAME_POSITION));
+            columns[LAST_NAME][rows] = nameId(line.field(ImageAndPersonLine.PERSON_LAST_NAME_POSITION));
+            return rows++;
+        }
+
+        // Adds a line with fewer than five fields and returns its row id.
+        int addOther(CSVLine line) {
+            others.add(line);
+            return -others.size();
+        }
+
+        String field(int row, int index) {
+            switch (index) {
+                case ImageAndPersonLine.IMAGE_FILE_POSITION:
+                    return text(columns[FILE_START][row], columns[TITLE_START][row]);
+                case ImageAndPersonLine.IMAGE_TITLE_POSITION:
+                    return text(columns[TITLE_START][row], columns[TITLE_END][row]);
+                case ImageAndPersonLine.PERSON_FULL_NAME_POSITION:
+                    return names.get(columns[FULL_NAME][row]);
+                case ImageAndPersonLine.PERSON_FIRST_NAME_POSITION:
+                    return names.get(columns[FIRST_NAME][row]);
+                case ImageAndPersonLine.PERSON_LAST_NAME_POSITION:
+                    return names.get(columns[LAST_NAME][row]);
+                default:
+                    throw new ArrayIndexOutOfBoundsException("Index out of bounds: " + index);
+            }
+        }
+
+        private void appendText(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (textLength + bytes.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + bytes.length));
+            }
+            System.arraycopy(bytes, 0, text, textLength, bytes.length);
+            textLength += bytes.length;
+        }
+
+        private String text(int start, int end) {
+            return new String(text, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        private int nameId(String name) {
+            Integer id = nameIds.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                nameIds.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    // An ImageAndPersonLine whose fields are read from a row of a RowTable.
+    private static final class ColumnarLine extends ImageAndPersonLine {
+        private final RowTable table;
+        private final int row;
+
+        ColumnarLine(RowTable rowTable, int rowId) {
+            table = rowTable;
+            row = rowId;
+        }
+
+        @Override
+        public int length() {
+            return FIELD_COUNT;
+        }
+
+        @Override
+        public String field(int index) {
+            return table.field(row, index);
+        }
+    }
+}
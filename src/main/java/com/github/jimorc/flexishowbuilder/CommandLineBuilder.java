@@ -0,0 +1,322 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.tinylog.Logger;
+
+/**
+ * CommandLineBuilder builds a slide show from command line arguments, without the JavaFX
+ * dialogs. It runs the same build as the GUI: the CSV file is read and checked, the title
+ * and person slides are written next to it, and the show is saved to slideshow.xls. The
+ * JavaFX toolkit is never started and AWT runs headless, so builds can be scripted on a
+ * machine without a display.
+ *
+ * ```
+ * flexishowbuilder --title "Club Show\n2025" --sort "Most Entries First" --full-last-name entries.csv
+ * ```
+ *
+ * With --batch, the shows listed in a manifest file are built by BatchBuilder. With --watch,
+ * WatchBuilder builds each CSV file that is dropped into a folder.
+ */
+final class CommandLineBuilder {
+    /** The exit code of a successful build, or of --help. */
+    static final int EXIT_OK = 0;
+    /** The exit code when the CSV file cannot be read or the show cannot be built. */
+    static final int EXIT_FAILED = 1;
+    /** The exit code when the arguments are invalid. */
+    static final int EXIT_USAGE = 2;
+    private static final String USAGE = """
+        Usage: flexishowbuilder [options] <csv file>
+               flexishowbuilder --batch <manifest> [--jobs <n>]
+               flexishowbuilder --watch <folder> [--quiet <ms>] [--jobs <n>] [options]
+        Builds the title and person slides and slideshow.xls for a CSV file, without the GUI.
+        With no arguments, the GUI is started.
+
+        Options:
+          --title <text>        the text of the title slide (required). \\n starts a new line.
+          --sort <order>        the order of the persons (default: "As Is"). One of:
+        %s
+                                or shuffle:<seed> for a shuffle with another seed.
+          --last-initial        show last names as an initial in person slides (default).
+          --full-last-name      show full last names in person slides.
+          --layout <layout>     Grouped (default), Interleaved or InterleavedWithRoundTitles.
+          --profile <profile>   Standard (default), Widescreen, UltraHD or All. With All, each
+                                profile is written to a subfolder of the CSV file's folder.
+          --background <image>  draw the title and person slides on an image.
+          --help                show this help.
+
+        A manifest lists one show per line, as the options and CSV file for that show.
+        Paths are relative to the manifest's folder. Lines that start with # are ignored.
+        --jobs sets the number of shows that are built at once.
+
+        With --watch, each CSV file that is created or changed in the folder, or in a
+        subfolder, is built with the options when it has not changed for --quiet
+        milliseconds (default: 2000). A result line is printed for each build. The
+        folder is watched until the program is stopped.
+
+        Title slides are cached in ~/.flexishowbuilder/slides, or in the folder set by the
+        flexishowbuilder.cacheDir system property (java -Dflexishowbuilder.cacheDir=<folder>).
+        """;
+    private static final String SHUFFLE_PREFIX = "shuffle:";
+
+    /**
+     * The parsed arguments.
+     * @param csvFile the CSV file, as an absolute path.
+     * @param data the title, sort strategy, layout, last name setting, profiles and background.
+     */
+    record Options(File csvFile, TitleAndSortData data) {}
+
+    // The settings as they are parsed, with the GUI's defaults.
+    private static final class Settings {
+        private String title;
+        private SortStrategy strategy = SortStrategy.getStrategies().get(0);
+        private ShowLayout layout = ShowLayout.Grouped;
+        private boolean lastNameAsInitial = true;
+        private List<OutputProfile> profiles = List.of(OutputProfile.Standard);
+        private Path background;
+        private Path baseDir;
+        private File csvFile;
+        private boolean help;
+    }
+
+    private CommandLineBuilder() {}
+
+    /**
+     * Builds a slide show as specified by command line arguments.
+     * @param args the arguments.
+     * @param out the stream to report the saved files and the help to.
+     * @param err the stream to report errors to.
+     * @return the exit code: EXIT_OK, EXIT_FAILED or EXIT_USAGE.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        if (args.length > 0 && args[0].equals(BatchBuilder.OPTION)) {
+            return BatchBuilder.run(args, out, err);
+        }
+        if (args.length > 0 && args[0].equals(WatchBuilder.OPTION)) {
+            return WatchBuilder.run(args, out, err);
+        }
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException iae) {
+            err.println("flexishowbuilder: " + iae.getMessage());
+            err.println("Run flexishowbuilder --help for usage.");
+            return EXIT_USAGE;
+        }
+        if (options == null) {
+            out.print(getUsage());
+            return EXIT_OK;
+        }
+        try (ShowResources resources = ShowResources.openDefault()) {
+            for (Path saved : build(options, resources)) {
+                out.println("Saved " + saved);
+            }
+            return EXIT_OK;
+        } catch (CSVException | IOException e) {
+            Logger.error("Exception thrown building slide show from command line: ", e);
+            err.println("flexishowbuilder: " + e.getMessage());
+            return EXIT_FAILED;
+        }
+    }
+
+    /**
+     * Parses command line arguments. Relative paths are resolved against the working folder.
+     * @param args the arguments.
+     * @return the options, or null if help was requested.
+     * @throws IllegalArgumentException if the arguments are invalid.
+     */
+    static Options parse(String[] args) {
+        return parse(args, Path.of(""));
+    }
+
+    /**
+     * Parses command line arguments.
+     * @param args the arguments.
+     * @param baseDir the folder that relative paths are resolved against.
+     * @return the options, or null if help was requested.
+     * @throws IllegalArgumentException if the arguments are invalid.
+     */
+    static Options parse(String[] args, Path baseDir) {
+        Settings settings = parseSettings(args, baseDir);
+        if (settings.help) {
+            return null;
+        }
+        if (settings.csvFile == null) {
+            throw new IllegalArgumentException("No CSV file specified");
+        }
+        return new Options(settings.csvFile, getData(settings));
+    }
+
+    /**
+     * Parses the command line options of shows whose CSV files are found later, such as the
+     * shows built by WatchBuilder. Relative paths are resolved against the working folder.
+     * @param args the arguments, which must not include a CSV file.
+     * @return the title, sort strategy, layout, last name setting, profiles and background, or
+     * null if help was requested.
+     * @throws IllegalArgumentException if the arguments are invalid.
+     */
+    static TitleAndSortData parseShowData(String[] args) {
+        Settings settings = parseSettings(args, Path.of(""));
+        if (settings.csvFile != null) {
+            throw new IllegalArgumentException("A CSV file cannot be specified here: " + settings.csvFile);
+        }
+        return settings.help ? null : getData(settings);
+    }
+
+    private static Settings parseSettings(String[] args, Path baseDir) {
+        Settings settings = new Settings();
+        settings.baseDir = baseDir;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                if (settings.csvFile != null) {
+                    throw new IllegalArgumentException("More than one CSV file specified: " + arg);
+                }
+                settings.csvFile = settings.baseDir.resolve(arg).toAbsolutePath().toFile();
+            } else if (!setFlag(settings, arg)) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Option " + arg + " requires a value");
+                }
+                setOption(settings, arg, args[++i]);
+            }
+        }
+        return settings;
+    }
+
+    private static TitleAndSortData getData(Settings settings) {
+        if (settings.title == null) {
+            throw new IllegalArgumentException("No title specified; use --title");
+        }
+        return new TitleAndSortData(settings.title, settings.strategy, settings.layout,
+            settings.lastNameAsInitial, settings.profiles, settings.background);
+    }
+
+    /**
+     * Returns the usage message.
+     * @return the usage message, listing the built-in sort orders.
+     */
+    static String getUsage() {
+        StringBuilder orders = new StringBuilder();
+        for (SortStrategy strategy : SortStrategy.getStrategies()) {
+            orders.append("                                \"").append(strategy.getName()).append("\"\n");
+        }
+        return USAGE.formatted(orders.toString().stripTrailing());
+    }
+
+    // Sets an option that takes no value. Returns false if the argument is not such an option.
+    private static boolean setFlag(Settings settings, String arg) {
+        switch (arg) {
+            case "--help" -> settings.help = true;
+            case "--last-initial" -> settings.lastNameAsInitial = true;
+            case "--full-last-name" -> settings.lastNameAsInitial = false;
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setOption(Settings settings, String option, String value) {
+        switch (option) {
+            case "--title" -> settings.title = value.replace("\\n", "\n");
+            case "--sort" -> settings.strategy = parseStrategy(value);
+            case "--layout" -> settings.layout = parseLayout(value);
+            case "--profile" -> settings.profiles = parseProfiles(value);
+            case "--background" -> settings.background = settings.baseDir.resolve(value).toAbsolutePath();
+            default -> throw new IllegalArgumentException("Unknown option: " + option);
+        }
+    }
+
+    // Matches a built-in strategy's name, ignoring case, spaces and punctuation, so that
+    // "Most Entries First" and most-entries-first are the same order.
+    private static SortStrategy parseStrategy(String value) {
+        if (value.toLowerCase(Locale.ROOT).startsWith(SHUFFLE_PREFIX)) {
+            try {
+                return SortStrategy.shuffle(Long.parseLong(value.substring(SHUFFLE_PREFIX.length())));
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Invalid shuffle seed: " + value);
+            }
+        }
+        String wanted = normalize(value);
+        for (SortStrategy strategy : SortStrategy.getStrategies()) {
+            if (normalize(strategy.getName()).equals(wanted)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort order: " + value);
+    }
+
+    private static ShowLayout parseLayout(String value) {
+        String wanted = normalize(value);
+        for (ShowLayout layout : ShowLayout.values()) {
+            if (normalize(layout.name()).equals(wanted)) {
+                return layout;
+            }
+        }
+        throw new IllegalArgumentException("Unknown layout: " + value);
+    }
+
+    // A profile's name or folder name, or All for every profile.
+    private static List<OutputProfile> parseProfiles(String value) {
+        String wanted = normalize(value);
+        if (wanted.equals("all")) {
+            return List.of(OutputProfile.values());
+        }
+        for (OutputProfile profile : OutputProfile.values()) {
+            if (normalize(profile.name()).equals(wanted) || normalize(profile.getFolderName()).equals(wanted)) {
+                return List.of(profile);
+            }
+        }
+        throw new IllegalArgumentException("Unknown profile: " + value);
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    /**
+     * Builds a show and saves its XLS files.
+     * @param options the parsed arguments of the show.
+     * @param resources the worker threads, encoder, cache and renderers to use.
+     * @return the saved files.
+     * @throws CSVException if the CSV file is invalid, or an image that it lists is missing or
+     * cannot be used.
+     * @throws IOException if the CSV file cannot be read, or a slide or XLS file cannot be written.
+     */
+    static List<Path> build(Options options, ShowResources resources) throws CSVException, IOException {
+        final double nanosPerSecond = 1e9;
+        long start = System.nanoTime();
+        // as in the GUI, the CSV file is not memory mapped: it may be rewritten during the build.
+        InputCSV csv = new InputCSV(options.csvFile(), LineStorage.Objects);
+        // the same checks as the GUI makes when the CSV file is loaded.
+        csv.validateCSVFile();
+        TitleAndSortData data = options.data();
+        List<Path> saved = new ArrayList<>();
+        if (data.getProfiles().size() == 1) {
+            XLSWorkbook workbook = new XLSWorkbook();
+            ShowBuilder.build(csv, data, workbook, resources);
+            Path xls = Path.of(csv.getFileDir(), XLSWorkbook.FILE_NAME);
+            workbook.writeToFile(xls.toString());
+            saved.add(xls);
+        } else {
+            Map<OutputProfile, OutputCSV> shows = ShowBuilder.buildProfiles(csv, data, resources);
+            for (Map.Entry<OutputProfile, OutputCSV> show : shows.entrySet()) {
+                Path xls = ShowBuilder.getProfileDir(csv, show.getKey()).resolve(XLSWorkbook.FILE_NAME);
+                new XLSWorkbook(show.getValue()).writeToFile(xls.toString());
+                saved.add(xls);
+            }
+        }
+        Logger.debug(BuilderGUI.buildLogMessage("Command line build of ", options.csvFile().toString(),
+            " took ", String.format("%.2f", (System.nanoTime() - start) / nanosPerSecond), " s"));
+        return saved;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.util.Arrays;
+
+/**
+ * GapBufferLineStore stores each line as a separate CSVLine object in a gap buffer: an array
+ * with a block of unused slots (the gap) at the position of the last edit.
+ *
+ * Inserting or removing a line moves the gap to the edit position, which only copies the
+ * lines between the old and new positions, and then uses or releases one slot of the gap. A
+ * sequence of edits at or near the same position, including appending line after line, is
+ * therefore amortised O(1) per edit. When the gap is used up, the array grows by doubling.
+ * Indexed access is O(1): indexes at or after the gap are offset by the gap length.
+ */
+final class GapBufferLineStore implements LineStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private CSVLine[] lines;
+    private int gapStart;
+    private int gapEnd;
+
+    /**
+     * Constructor - creates an empty store.
+     */
+    GapBufferLineStore() {
+        lines = new CSVLine[INITIAL_CAPACITY];
+        gapEnd = INITIAL_CAPACITY;
+    }
+
+    /**
+     * Constructor - creates a store containing the specified lines.
+     * @param csvLines the lines to store. The array is not copied.
+     */
+    GapBufferLineStore(CSVLine[] csvLines) {
+        lines = csvLines;
+        gapStart = csvLines.length;
+        gapEnd = csvLines.length;
+    }
+
+    @Override
+    public int size() {
+        return lines.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public CSVLine get(int index) {
+        return index < gapStart ? lines[index] : lines[index + gapEnd - gapStart];
+    }
+
+    @Override
+    public void insert(int index, CSVLine line) {
+        moveGap(index);
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        lines[gapStart++] = line;
+    }
+
+    @Override
+    public CSVLine remove(int index) {
+        moveGap(index);
+        CSVLine removed = lines[gapEnd];
+        lines[gapEnd++] = null;
+        return removed;
+    }
+
+    @Override
+    public LineStore newEmptyStore() {
+        return new GapBufferLineStore();
+    }
+
+    // Moves the gap so that it starts at index. Slots that the moved lines leave inside the
+    // gap are cleared so that the gap never keeps lines reachable.
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            int count = gapStart - index;
+            System.arraycopy(lines, index, lines, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+            Arrays.fill(lines, index, Math.min(index + count, gapEnd), null);
+        } else if (index > gapStart) {
+            int count = index - gapStart;
+            int from = gapEnd;
+            System.arraycopy(lines, gapEnd, lines, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+            Arrays.fill(lines, Math.max(from, gapStart), gapEnd, null);
+        }
+    }
+
+    // Doubles the capacity, keeping the lines after the gap at the end of the new array.
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, lines.length * 2);
+        CSVLine[] grown = new CSVLine[capacity];
+        int after = lines.length - gapEnd;
+        System.arraycopy(lines, 0, grown, 0, gapStart);
+        System.arraycopy(lines, gapEnd, grown, capacity - after, after);
+        gapEnd = capacity - after;
+        lines = grown;
+    }
+}
@@ -1,21 +1,23 @@
 package com.github.jimorc.flexishowbuilder;
 
+import java.util.Arrays;
+
 /**
  * ImageAndPersonLine represents the image and person information for each image to be displayed by
  * flexishow as downloaded into an InputCSV object.
  */
 public class ImageAndPersonLine extends CSVLine {
-    private final int imageFilePosition = 0;
-    private final int imageTitlePosition = 1;
-    private final int personFullNamePosition = 2;
-    private final int personFirstNamePosition = 3;
-    private final int personLastNamePosition = 4;
+    static final int IMAGE_FILE_POSITION = 0;
+    static final int IMAGE_TITLE_POSITION = 1;
+    static final int PERSON_FULL_NAME_POSITION = 2;
+    static final int PERSON_FIRST_NAME_POSITION = 3;
+    static final int PERSON_LAST_NAME_POSITION = 4;
+    static final int FIELD_COUNT = 5;
 
     /**
-     * Constructor - creates an ImageAndPersonLine object from a CSV line. Special
-     * processing is required because the image title may contain commas. In that case,
-     * the title must be enclosed in double quotes, although no checking is done to
-     * ensure that this is the case.
+     * Constructor - creates an ImageAndPersonLine object from a CSV line. The line is parsed
+     * according to RFC 4180, so any field may be enclosed in double quotes, and a quoted
+     * field may contain commas and escaped ("") double quotes.
      * @param line - the CSV input line. The fields must be in the following order:<br>
      *  0. image file name<br>
      *  1. image title<br>
@@ -24,23 +26,29 @@ public class ImageAndPersonLine extends CSVLine {
      *  4. person's last name<br>
      * @throws ArrayIndexOutOfBoundsException if the line does not contain at least
      * five fields.
+     * @throws IllegalArgumentException if the line contains an unterminated quoted field.
      */
     public ImageAndPersonLine(String line) throws ArrayIndexOutOfBoundsException {
+        this(parse(line));
+    }
+
+    /**
+     * Constructor - creates an ImageAndPersonLine object from fields that have already been
+     * parsed, for example by CSVReader. If there are more than five fields, the image title
+     * is assumed to contain unquoted commas, and the extra fields are joined back into the title.
+     * @param fields - the fields in the same order as for the ImageAndPersonLine(String) constructor.
+     * @throws ArrayIndexOutOfBoundsException if there are fewer than five fields.
+     */
+    public ImageAndPersonLine(String[] fields) throws ArrayIndexOutOfBoundsException {
+        super(normalize(fields));
+    }
+
+    /**
+     * Constructor - for subclasses that store their fields elsewhere. Such subclasses
+     * must override CSVLine.field and CSVLine.length.
+     */
+    protected ImageAndPersonLine() {
         super();
-        int first = line.indexOf(',');
-        int fourth = line.lastIndexOf(',');
-        int third = line.lastIndexOf(',', fourth - 1);
-        int second = line.lastIndexOf(',', third - 1);
-        String[] fields = new String[personLastNamePosition + 1];
-        if (!validateFieldCount(first, second, third, fourth)) {
-            throw new ArrayIndexOutOfBoundsException("Line does not contain at least five fields: " + line);
-        }
-        fields[imageFilePosition] = line.substring(0, first);
-        fields[imageTitlePosition] = line.substring(first + 1, second);
-        fields[personFullNamePosition] = line.substring(second + 1, third);
-        fields[personFirstNamePosition] = line.substring(third + 1, fourth);
-        fields[personLastNamePosition] = line.substring(fourth + 1);
-        addFields(fields);
     }
 
     /**
@@ -48,7 +56,7 @@ public class ImageAndPersonLine extends CSVLine {
      * @return the image file name.
      */
     public String getImageFileName() {
-        return field(imageFilePosition);
+        return field(IMAGE_FILE_POSITION);
     }
 
     /**
@@ -56,7 +64,7 @@ public class ImageAndPersonLine extends CSVLine {
      * @return the image title.
      */
     public String getImageTitle() {
-        return field(imageTitlePosition);
+        return field(IMAGE_TITLE_POSITION);
     }
 
     /**
@@ -64,7 +72,7 @@ public class ImageAndPersonLine extends CSVLine {
      * @return the person's full name.
      */
     public String getPersonFullName() {
-        return field(personFullNamePosition);
+        return field(PERSON_FULL_NAME_POSITION);
     }
 
     /**
@@ -72,7 +80,7 @@ public class ImageAndPersonLine extends CSVLine {
      * @return the person's first name.
      */
     public String getPersonFirstName() {
-        return field(personFirstNamePosition);
+        return field(PERSON_FIRST_NAME_POSITION);
     }
 
     /**
@@ -80,25 +88,46 @@ public class ImageAndPersonLine extends CSVLine {
      * @return the person's last name.
      */
     public String getPersonLastName() {
-        return field(personLastNamePosition);
+        return field(PERSON_LAST_NAME_POSITION);
     }
 
     /**
-     * Returns a String representation of the object.
+     * Returns a String representation of the object. Fields that contain commas, double
+     * quotes or line breaks are quoted, so the result can be parsed again.
      * @return a String representation of the object.
      * @throws ArrayIndexOutOfBoundsException if the object does not
      * contain at least five fields.
      */
     @Override
     public String toString() {
-        return getImageFileName() + "," + getImageTitle() + "," + getPersonFullName() + ","
-            + getPersonFirstName() + "," + getPersonLastName();
+        return quote(getImageFileName()) + "," + quote(getImageTitle()) + "," + quote(getPersonFullName()) + ","
+            + quote(getPersonFirstName()) + "," + quote(getPersonLastName());
     }
 
-    private boolean validateFieldCount(int first, int second, int third, int fourth) {
-        if (first == -1 || second == -1 || third == -1 || fourth == -1) {
-            return false;
+    private static String[] parse(String line) {
+        try {
+            return CSVReader.parseLine(line);
+        } catch (CSVException csve) {
+            throw new IllegalArgumentException(csve.getMessage() + ": " + line);
+        }
+    }
+
+    private static String[] normalize(String[] fields) {
+        if (fields.length < FIELD_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Line does not contain at least five fields: "
+                + String.join(",", fields));
+        }
+        if (fields.length == FIELD_COUNT) {
+            return fields;
         }
-        return !(first == second) && !(second == third) && !(third == fourth);
+        int extra = fields.length - FIELD_COUNT;
+        String[] normalized = new String[FIELD_COUNT];
+        normalized[IMAGE_FILE_POSITION] = fields[IMAGE_FILE_POSITION];
+        normalized[IMAGE_TITLE_POSITION] = String.join(",",
+            Arrays.copyOfRange(fields, IMAGE_TITLE_POSITION, IMAGE_TITLE_POSITION + extra + 1));
+        normalized[PERSON_FULL_NAME_POSITION] = fields[PERSON_FULL_NAME_POSITION + extra];
+        normalized[PERSON_FIRST_NAME_POSITION] = fields[PERSON_FIRST_NAME_POSITION + extra];
+        normalized[PERSON_LAST_NAME_POSITION] = fields[PERSON_LAST_NAME_POSITION + extra];
+        return normalized;
     }
 }
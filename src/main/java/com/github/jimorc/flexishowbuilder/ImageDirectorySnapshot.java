@@ -0,0 +1,138 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * ImageDirectorySnapshot holds the names of the regular files in a folder, read with a single
+ * DirectoryStream, so that the image file names in a CSV file can be checked in memory rather
+ * than with one file system call per row. This matters when the folder is on a network share
+ * or a USB stick, where each call can take milliseconds.
+ *
+ * A name that is not in the snapshot exactly, but matches an entry when case and Unicode
+ * normalization are ignored, is checked on disk. That keeps the result the same as a per-file
+ * check on case-insensitive file systems, and on macOS, which stores names in decomposed form.
+ * Names that contain a path separator are also checked on disk.
+ *
+ * Subfolders are left out of the snapshot, so a folder named like an image file is neither
+ * found nor reported as an unreferenced image. On Windows the entry attributes are returned
+ * with the directory listing, so filtering them costs no extra file system calls.
+ */
+final class ImageDirectorySnapshot {
+    /** Lists with at least this many names are checked in parallel. */
+    static final int PARALLEL_THRESHOLD = 10_000;
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of(
+        "bmp", "gif", "jpeg", "jpg", "png", "tif", "tiff");
+    private final Path dir;
+    private final Set<String> names;
+    private final Set<String> foldedNames;
+
+    /**
+     * The result of checking the image file names in a CSV file against the snapshot.
+     * @param missing the names, in CSV order, that do not exist in the folder.
+     * @param duplicates the names, in CSV order, that are referenced more than once. Each
+     * name is listed once.
+     * @param orphans the image files in the folder that are not referenced, sorted by name.
+     */
+    record Check(List<String> missing, List<String> duplicates, List<String> orphans) {}
+
+    private ImageDirectorySnapshot(Path folder, Set<String> entries) {
+        dir = folder;
+        names = entries;
+        foldedNames = new HashSet<>(entries.size() * 2);
+        for (String name : entries) {
+            foldedNames.add(fold(name));
+        }
+    }
+
+    /**
+     * Lists the folder.
+     * @param folder the folder to list.
+     * @return the snapshot.
+     * @throws IOException if the folder cannot be listed.
+     */
+    static ImageDirectorySnapshot read(Path folder) throws IOException {
+        Set<String> entries = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path entry : stream) {
+                if (Files.isRegularFile(entry)) {
+                    entries.add(entry.getFileName().toString());
+                }
+            }
+        }
+        return new ImageDirectorySnapshot(folder, entries);
+    }
+
+    /**
+     * Returns the number of files in the folder.
+     * @return the number of files.
+     */
+    int size() {
+        return names.size();
+    }
+
+    /**
+     * Determines whether an image file exists in the folder.
+     * @param imageFileName the image file name from the CSV file.
+     * @return true if the file exists.
+     */
+    boolean contains(String imageFileName) {
+        if (names.contains(imageFileName)) {
+            return true;
+        }
+        if (imageFileName.indexOf('/') >= 0 || imageFileName.indexOf('\\') >= 0
+                || foldedNames.contains(fold(imageFileName))) {
+            return Files.isRegularFile(dir.resolve(imageFileName));
+        }
+        return false;
+    }
+
+    /**
+     * Checks the image file names in a CSV file against the snapshot.
+     * @param imageFileNames the image file names, in CSV order.
+     * @return the missing and duplicate names, and the unreferenced image files.
+     */
+    Check check(List<String> imageFileNames) {
+        boolean parallel = imageFileNames.size() >= PARALLEL_THRESHOLD;
+        List<String> missing = stream(imageFileNames, parallel)
+            .filter(name -> !contains(name))
+            .toList();
+        Set<String> referenced = new HashSet<>(imageFileNames.size() * 2);
+        Set<String> foldedReferences = new HashSet<>(imageFileNames.size() * 2);
+        Set<String> duplicates = new LinkedHashSet<>();
+        for (String name : imageFileNames) {
+            if (!referenced.add(name)) {
+                duplicates.add(name);
+            }
+            foldedReferences.add(fold(name));
+        }
+        List<String> orphans = stream(new ArrayList<>(names), parallel || names.size() >= PARALLEL_THRESHOLD)
+            .filter(name -> isImageFileName(name) && !foldedReferences.contains(fold(name)))
+            .sorted()
+            .toList();
+        return new Check(missing, List.copyOf(duplicates), orphans);
+    }
+
+    private static Stream<String> stream(List<String> list, boolean parallel) {
+        return parallel ? list.parallelStream() : list.stream();
+    }
+
+    private static boolean isImageFileName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && IMAGE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static String fold(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,362 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ImagePreflight inspects image files without decoding them, so that corrupt, truncated or
+ * misnamed images are reported when the CSV file is validated rather than when the show is
+ * run. Only JPEG and PNG files are inspected. A file in another format, such as GIF, BMP or
+ * TIFF, or whose extension does not match its format, may still be decoded, so it is reported
+ * as a warning rather than an error.
+ *
+ * For a JPEG file, only the segment headers from the SOI marker up to the first SOF marker are
+ * read; the SOF segment holds the pixel dimensions. The contents of other segments, such as
+ * EXIF data, are skipped by position rather than read. For a PNG file, the signature and the
+ * IHDR chunk are read. In both cases the tail of the file is read to check for the EOI marker
+ * or the IEND chunk, whose absence means the file is truncated.
+ *
+ * Files are inspected in parallel, one virtual thread per file, because the work is almost all
+ * waiting for small reads.
+ */
+final class ImagePreflight {
+    private static final int BYTE_MASK = 0xFF;
+    private static final int SHORT_MASK = 0xFFFF;
+    private static final int MARKER = 0xFF;
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+    private static final int TEM = 0x01;
+    private static final int RST0 = 0xD0;
+    private static final int RST7 = 0xD7;
+    private static final int SOF0 = 0xC0;
+    private static final int SOF15 = 0xCF;
+    private static final int DHT = 0xC4;
+    private static final int JPG = 0xC8;
+    private static final int DAC = 0xCC;
+    private static final int SEGMENT_HEADER_SIZE = 4;
+    // precision byte, then height and width.
+    private static final int SOF_DIMENSIONS_SIZE = 5;
+    private static final int SOF_HEIGHT_OFFSET = 1;
+    private static final int SOF_WIDTH_OFFSET = 3;
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    // the length, type and CRC of an IEND chunk, which has no data.
+    private static final byte[] PNG_IEND = {
+        0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82};
+    private static final int PNG_IHDR_OFFSET = 16;
+    private static final int PNG_HEADER_SIZE = PNG_IHDR_OFFSET + 8;
+    // padding that some cameras and editors write after the EOI marker.
+    private static final int MAX_TAIL_PADDING = 64;
+    private static final String CANNOT_READ = "cannot be read: ";
+
+    private ImagePreflight() {}
+
+    /**
+     * The format of an image file, as determined from its contents.
+     */
+    enum Format {
+        /** A JPEG file. */
+        Jpeg,
+        /** A PNG file. */
+        Png,
+        /** A file that is neither JPEG nor PNG, or that cannot be read or is empty. */
+        Unknown
+    }
+
+    /**
+     * How serious the problem with an image file is.
+     */
+    enum Severity {
+        /** The image has no problem. */
+        None,
+        /**
+         * The image may still be used: the file is not a JPEG or PNG file, or its extension
+         * does not match its format.
+         */
+        Warning,
+        /** The image is truncated, corrupt or unreadable, so it may not be used. */
+        Error
+    }
+
+    /**
+     * The result of inspecting an image file.
+     * @param fileName the image file name from the CSV file.
+     * @param format the format of the file contents.
+     * @param width the width of the image in pixels, or 0 if it could not be determined.
+     * @param height the height of the image in pixels, or 0 if it could not be determined.
+     * @param truncated true if the end of the image data is missing.
+     * @param severity how serious the problem with the file is.
+     * @param problem a description of the problem with the file, or null if there is none.
+     */
+    record Result(String fileName, Format format, int width, int height, boolean truncated, Severity severity,
+            String problem) {
+        /**
+         * Determines whether the image is usable in a slide show.
+         * @return true if the image has no problem.
+         */
+        boolean isOk() {
+            return severity == Severity.None;
+        }
+
+        /**
+         * Determines whether the problem with the image, if any, is only a warning.
+         * @return true if the image has a problem that does not stop it being used.
+         */
+        boolean isWarning() {
+            return severity == Severity.Warning;
+        }
+
+        /**
+         * Determines whether the image may be used in a slide show. Truncated, corrupt and
+         * unreadable files may not.
+         * @return true if the image has no problem, or only a warning.
+         */
+        boolean isUsable() {
+            return isOk() || isWarning();
+        }
+    }
+
+    /**
+     * Inspects the image files in parallel.
+     * @param dir the folder containing the image files.
+     * @param imageFileNames the image file names, relative to dir.
+     * @return the result for each image file, in the same order as the names.
+     * @throws CSVException if the inspection is interrupted.
+     */
+    static List<Result> inspect(Path dir, List<String> imageFileNames) throws CSVException {
+        return inspect(dir, imageFileNames, null);
+    }
+
+    /**
+     * Inspects the image files in parallel, using cached results for files whose size and
+     * modification time have not changed. Only the attributes of those files are read.
+     * @param dir the folder containing the image files.
+     * @param imageFileNames the image file names, relative to dir.
+     * @param cache the cache of earlier results, or null. New results are added to the cache.
+     * @return the result for each image file, in the same order as the names. A file whose
+     * inspection fails is reported as a file that cannot be read.
+     * @throws CSVException if the inspection is interrupted.
+     */
+    static List<Result> inspect(Path dir, List<String> imageFileNames, PreflightCache cache)
+            throws CSVException {
+        List<Result> results = new ArrayList<>(imageFileNames.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> futures = new ArrayList<>(imageFileNames.size());
+            for (String name : imageFileNames) {
+                futures.add(executor.submit(() -> inspect(dir.resolve(name), name, cache)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(getResult(futures.get(i), imageFileNames.get(i)));
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CSVException("Image preflight was interrupted");
+        }
+        return results;
+    }
+
+    private static Result getResult(Future<Result> future, String fileName) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ee) {
+            return new Result(fileName, Format.Unknown, 0, 0, false, Severity.Error, CANNOT_READ + ee.getCause());
+        }
+    }
+
+    private static Result inspect(Path file, String fileName, PreflightCache cache) {
+        if (cache == null) {
+            return inspect(file, fileName);
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException ioe) {
+            return inspect(file, fileName);
+        }
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Result result = cache.get(fileName, size, modified);
+        if (result == null) {
+            result = inspect(file, fileName);
+            if (result.isOk() || !result.problem().startsWith(CANNOT_READ)) { // read errors may be transient
+                cache.put(size, modified, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inspects an image file. A JPEG file whose name does not end in .jpg or .jpeg, or a PNG
+     * file whose name does, is reported as a warning.
+     * @param file the image file.
+     * @param fileName the name to use in the result.
+     * @return the result.
+     */
+    static Result inspect(Path file, String fileName) {
+        Result result = inspectContents(file, fileName);
+        String extension = extension(fileName);
+        boolean jpegName = extension.equals("jpg") || extension.equals("jpeg");
+        if (result.isOk() && jpegName != (result.format() == Format.Jpeg)) {
+            return new Result(fileName, result.format(), result.width(), result.height(), false, Severity.Warning,
+                "is a " + result.format().name().toUpperCase(Locale.ROOT) + " file with a ." + extension
+                + " extension");
+        }
+        return result;
+    }
+
+    private static Result inspectContents(Path file, String fileName) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return new Result(fileName, Format.Unknown, 0, 0, true, Severity.Error, "truncated: the file is empty");
+            }
+            ByteBuffer head = read(channel, 0, PNG_HEADER_SIZE, false);
+            if (head.remaining() >= 2 && (head.get(0) & BYTE_MASK) == MARKER
+                    && (head.get(1) & BYTE_MASK) == SOI) {
+                return inspectJpeg(channel, fileName);
+            }
+            if (startsWith(head, PNG_SIGNATURE)) {
+                return inspectPng(channel, head, fileName);
+            }
+            return new Result(fileName, Format.Unknown, 0, 0, false, Severity.Warning, "not a JPEG or PNG file");
+        } catch (IOException ioe) {
+            return new Result(fileName, Format.Unknown, 0, 0, false, Severity.Error, CANNOT_READ + ioe.getMessage());
+        }
+    }
+
+    private static Result inspectJpeg(FileChannel channel, String fileName) throws IOException {
+        boolean truncated = !hasJpegEnd(channel);
+        long position = 2;
+        try {
+            while (true) {
+                ByteBuffer header = read(channel, position, SEGMENT_HEADER_SIZE, true);
+                if ((header.get(0) & BYTE_MASK) != MARKER) {
+                    return jpegProblem(fileName, truncated, "invalid marker at offset " + position);
+                }
+                int marker = header.get(1) & BYTE_MASK;
+                if (isSOF(marker)) {
+                    return readJpegDimensions(channel, position, fileName, truncated);
+                }
+                if (marker == SOS || marker == EOI) {
+                    return jpegProblem(fileName, truncated, "no SOF marker before image data");
+                }
+                position += markerLength(marker, header);
+            }
+        } catch (EOFException eofe) {
+            return new Result(fileName, Format.Jpeg, 0, 0, true, Severity.Error,
+                "truncated: end of file before SOF marker");
+        }
+    }
+
+    private static Result readJpegDimensions(FileChannel channel, long sofPosition, String fileName,
+            boolean truncated) throws IOException {
+        ByteBuffer sof = read(channel, sofPosition + SEGMENT_HEADER_SIZE, SOF_DIMENSIONS_SIZE, true);
+        int height = sof.getShort(SOF_HEIGHT_OFFSET) & SHORT_MASK;
+        int width = sof.getShort(SOF_WIDTH_OFFSET) & SHORT_MASK;
+        if (truncated) {
+            return new Result(fileName, Format.Jpeg, width, height, true, Severity.Error,
+                "truncated: no EOI marker at end of file");
+        }
+        return new Result(fileName, Format.Jpeg, width, height, false, Severity.None, null);
+    }
+
+    // Returns the number of bytes from the start of a marker to the next marker.
+    private static int markerLength(int marker, ByteBuffer header) {
+        if (marker == MARKER) {
+            return 1; // fill byte
+        }
+        if (marker == TEM || (marker >= RST0 && marker <= RST7)) {
+            return 2; // markers without a segment
+        }
+        return 2 + (header.getShort(2) & SHORT_MASK);
+    }
+
+    private static Result jpegProblem(String fileName, boolean truncated, String problem) {
+        return new Result(fileName, Format.Jpeg, 0, 0, truncated, Severity.Error, problem);
+    }
+
+    private static Result inspectPng(FileChannel channel, ByteBuffer head, String fileName) throws IOException {
+        if (head.remaining() < PNG_HEADER_SIZE) {
+            return new Result(fileName, Format.Png, 0, 0, true, Severity.Error,
+                "truncated: end of file before IHDR chunk");
+        }
+        int width = head.getInt(PNG_IHDR_OFFSET);
+        int height = head.getInt(PNG_IHDR_OFFSET + Integer.BYTES);
+        long size = channel.size();
+        ByteBuffer tail = read(channel, Math.max(0, size - PNG_IEND.length), PNG_IEND.length, false);
+        boolean truncated = !startsWith(tail, PNG_IEND);
+        if (truncated) {
+            return new Result(fileName, Format.Png, width, height, true, Severity.Error,
+                "truncated: no IEND chunk at end of file");
+        }
+        return new Result(fileName, Format.Png, width, height, false, Severity.None, null);
+    }
+
+    // Looks for the EOI marker at the end of the file, allowing for a little padding after it.
+    private static boolean hasJpegEnd(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int tailSize = (int) Math.min(size, MAX_TAIL_PADDING + 2);
+        ByteBuffer tail = read(channel, size - tailSize, tailSize, false);
+        int i = tail.limit() - 1;
+        while (i > 0 && tail.get(i) != (byte) EOI) {
+            int b = tail.get(i) & BYTE_MASK;
+            if (b != 0 && b != MARKER) {
+                return false;
+            }
+            i--;
+        }
+        return i > 0 && (tail.get(i - 1) & BYTE_MASK) == MARKER;
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isSOF(int marker) {
+        return marker >= SOF0 && marker <= SOF15 && marker != DHT && marker != JPG && marker != DAC;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+        if (buffer.remaining() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reads up to count bytes at position. If required is true, fewer bytes is an EOFException.
+    private static ByteBuffer read(FileChannel channel, long position, int count, boolean required)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count);
+        long at = position;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, at);
+            if (n < 0) {
+                break;
+            }
+            at += n;
+        }
+        if (required && buffer.hasRemaining()) {
+            throw new EOFException("End of file before offset " + (position + count));
+        }
+        return buffer.flip();
+    }
+}
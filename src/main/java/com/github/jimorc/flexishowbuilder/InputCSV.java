@@ -2,14 +2,22 @@ package com.github.jimorc.flexishowbuilder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.tinylog.Logger;
 
 /**
@@ -20,13 +28,31 @@ import org.tinylog.Logger;
  * File f = new File("<CSV-file-name>")
  * InputCSV csv = new InputCSV(f);
  * ```
+ *
+ * If the CSV file changes after it has been loaded, reload parses just the records that have
+ * been appended to the file, or the whole file if earlier content has changed. A file that is
+ * to be reloaded should not be memory mapped: the mapping stops other programs from rewriting
+ * the file on some systems, and lines that are decoded after the file has been truncated fail.
+ * Load it with LineStorage.Objects or LineStorage.Columnar. Reloads never map the file.
  */
 public final class InputCSV {
     private File csvFile;
-    private CSVLine[] lines = new CSVLine[0];
-    private Map<String, ImageAndPersonLine[]> fullNameMap;
-    private Set<String> fullNameKeys;
+    // the lines in file order. Row ids in persons are indexes into rows.
+    private LineStore rows = new GapBufferLineStore();
+    // the lines in their current order. This is rows until the lines are sorted or edited.
+    private LineStore lines = rows;
+    private PersonIndex persons = new PersonIndex();
     private ArrayList<String> sortedFullNames;
+    private LineStorage lineStorage;
+    // true if the lines are MappedImageAndPersonLine objects, which read the mapped file.
+    private boolean mapped;
+    private CSVFileState loadedState;
+    private int recordCount;
+    private SortStrategy currentStrategy;
+    // each sort strategy that has been requested, as person ids. Cleared when the rows change.
+    private final HashMap<SortStrategy, int[]> sortCache = new HashMap<>();
+    // Files at least this size are memory mapped when the storage is LineStorage.Auto.
+    private static final long MAPPED_THRESHOLD = 1024L * 1024;
 
     /** This constructor parses the specified CSV file and builds an InputCSV
      * object from the file's contents.
@@ -38,6 +64,34 @@ public final class InputCSV {
      * @throws IOException if the file cannot be read.
      */
     public InputCSV(File csvF) throws CSVException, IOException {
+        this(csvF, LineStorage.Auto);
+    }
+
+    /** This constructor parses the specified CSV file and builds an InputCSV
+     * object from the file's contents, storing the lines as specified.
+     * @param csvF is the File containing the CSV data to parse.
+     * @param storage how the lines are to be stored. See the LineStorage enum for possible values.
+     * @throws CSVException if csvF is null.
+     * @throws CSVException if csvF is not a file (i.e directory, link, etc.)
+     * @throws CSVException if csvF contains an invalid header line.
+     * @throws CSVException if csvF contains an invalid line.
+     * @throws IOException if the file cannot be read.
+     */
+    public InputCSV(File csvF, LineStorage storage) throws CSVException, IOException {
+        this(csvF, storage, Long.MAX_VALUE);
+    }
+
+    /** This constructor parses at most the first length bytes of the specified CSV file.
+     * Bytes written to the file after its size has been read are loaded by the next reload.
+     * This constructor is package-private so that tests can simulate a file that grows while
+     * it is being loaded.
+     * @param csvF is the File containing the CSV data to parse.
+     * @param storage how the lines are to be stored.
+     * @param length the maximum number of bytes to parse.
+     * @throws CSVException if csvF is null, is not a file, or contains an invalid line.
+     * @throws IOException if the file cannot be read.
+     */
+    InputCSV(File csvF, LineStorage storage, long length) throws CSVException, IOException {
         Logger.trace("In InputCSV constructor");
         csvFile = csvF;
         if (csvF == null) {
@@ -49,9 +103,124 @@ public final class InputCSV {
             throw new CSVException("Trying to read " + csvF.getAbsolutePath()
                 + " which is not a file.");
         }
-        loadCSVFile();
-        buildFullNameHashMap();
-        fullNameKeys = fullNameMap.keySet();
+        lineStorage = storage;
+        load(storage, length);
+        recordCount = rows.size();
+    }
+
+    /**
+     * Reloads the CSV file if it has changed since it was loaded. If records have only been
+     * appended to the file, just those records are parsed and merged into the existing lines;
+     * otherwise the whole file is parsed again. If the names have been sorted, the same sort
+     * order is then reapplied.
+     * @return the type of change that was found.
+     * @throws IOException if the file cannot be read.
+     * @throws CSVException if the file now contains an invalid record. The InputCSV object is
+     * not changed.
+     */
+    public CSVChange reload() throws IOException, CSVException {
+        Logger.trace("In InputCSV.reload");
+        Path path = csvFile.toPath();
+        if (loadedState.isUnchanged(path)) {
+            return CSVChange.None;
+        }
+        CSVChange change = null;
+        // appended records are not added to mapped lines; the whole file is parsed into objects.
+        if (!mapped) {
+            change = loadAppendedRecords(path);
+        }
+        if (change == null) {
+            reloadCSVFile();
+            change = CSVChange.Reloaded;
+        }
+        if (change != CSVChange.None && currentStrategy != null) {
+            sortNames(currentStrategy);
+        }
+        Logger.debug(BuilderGUI.buildLogMessage(
+            "Reload of ", getFileName(), ": ", change.toString()));
+        return change;
+    }
+
+    // Parses the records appended to the file. Nothing is changed unless all of them are valid.
+    // Returns null if the file has not just been appended to.
+    private CSVChange loadAppendedRecords(Path path) throws IOException, CSVException {
+        CSVFileState.AppendedRecords appended = loadedState.readAppendedRecords(path, recordCount);
+        if (appended == null) {
+            return null;
+        }
+        List<ImageAndPersonLine> newLines = new ArrayList<>();
+        for (String[] fields : appended.records()) {
+            newLines.add(createImageAndPersonLine(fields, recordCount + newLines.size(), getFileName()));
+        }
+        loadedState = appended.state();
+        if (newLines.isEmpty()) {
+            return CSVChange.None;
+        }
+        for (ImageAndPersonLine line : newLines) {
+            addRow(rows, persons, line);
+            if (lines != rows) {
+                lines.append(rows.get(rows.size() - 1));
+            }
+        }
+        recordCount += newLines.size();
+        sortCache.clear();
+        Logger.debug(BuilderGUI.buildLogMessage(
+            "Appended ", Integer.toString(newLines.size()), " lines from ", getFileName()));
+        return CSVChange.Appended;
+    }
+
+    // Parses the whole file into a new InputCSV object, and takes its contents if it is valid.
+    // The file is being watched, so it is never mapped again.
+    private void reloadCSVFile() throws IOException, CSVException {
+        if (lineStorage == LineStorage.Auto || lineStorage == LineStorage.Mapped) {
+            lineStorage = LineStorage.Objects;
+        }
+        InputCSV reloaded = new InputCSV(csvFile, lineStorage);
+        mapped = false;
+        rows = reloaded.rows;
+        lines = reloaded.lines;
+        persons = reloaded.persons;
+        sortedFullNames = reloaded.sortedFullNames;
+        loadedState = reloaded.loadedState;
+        recordCount = reloaded.recordCount;
+        sortCache.clear();
+    }
+
+    // Loads at most length bytes of the file using the storage requested, or the storage best
+    // suited to the file size. The parse stops at the size read when the file is opened, and
+    // loadedState is built from exactly the bytes that were parsed.
+    private void load(LineStorage storage, long length) throws IOException, CSVException {
+        Path path = csvFile.toPath();
+        CSVFileState.Recorder recorder = new CSVFileState.Recorder(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = Math.min(length, channel.size());
+            selectStorage(storage, size);
+            if (ParallelCSVParser.shouldParseInParallel(size) || mapped) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (ParallelCSVParser.shouldParseInParallel(size)) {
+                    loadCSVFileInParallel(buffer, mapped);
+                } else {
+                    loadMappedCSVFile(buffer);
+                }
+                recorder.update(buffer.duplicate());
+            } else {
+                loadCSVFile(recorder.limit(channel, size));
+            }
+        }
+        loadedState = recorder.finish();
+    }
+
+    private void selectStorage(LineStorage storage, long size) {
+        LineStorage actual = storage;
+        if (storage == LineStorage.Auto) {
+            actual = size >= MAPPED_THRESHOLD ? LineStorage.Mapped : LineStorage.Objects;
+        }
+        Logger.debug(BuilderGUI.buildLogMessage(
+            "Loading ", getFileName(), " using ", actual.toString(), " storage"));
+        mapped = actual == LineStorage.Mapped;
+        if (actual == LineStorage.Columnar) {
+            rows = new ColumnarLineStore();
+        }
     }
 
     /**
@@ -84,7 +253,11 @@ public final class InputCSV {
      * @return the HashMap containing the CSV file lines
      */
     protected Map<String, ImageAndPersonLine[]> getHashMap() {
-        return fullNameMap;
+        Map<String, ImageAndPersonLine[]> map = new LinkedHashMap<>();
+        for (String name : persons.names()) {
+            map.put(name, linesFor(name));
+        }
+        return map;
     }
 
     /**
@@ -92,7 +265,7 @@ public final class InputCSV {
      * @return the Set of name keys
      */
     protected Set<String> getFullNameKeys() {
-        return fullNameKeys;
+        return persons.names();
     }
 
     /**
@@ -100,7 +273,11 @@ public final class InputCSV {
      * @return an array of CSVLine objects.
      */
     protected CSVLine[] getLines() {
-        return lines;
+        CSVLine[] lineArray = new CSVLine[lines.size()];
+        for (int i = 0; i < lineArray.length; i++) {
+            lineArray[i] = lines.get(i);
+        }
+        return lineArray;
     }
 
     /**
@@ -108,7 +285,15 @@ public final class InputCSV {
      * @return the number of lines in the CSV.
      */
     protected int getNumberOfLines() {
-        return lines.length;
+        return lines.size();
+    }
+
+    /**
+     * Retrieve the number of different persons in the CSV.
+     * @return the number of full names in the CSV.
+     */
+    public int getNumberOfPersons() {
+        return persons.size();
     }
 
     /**
@@ -119,9 +304,9 @@ public final class InputCSV {
     public Person getPerson(String name) throws CSVException {
         Logger.debug(BuilderGUI.buildLogMessage(
             "Retrieving Person info for ", name));
-        if (fullNameMap.containsKey(name)) {
-            ImageAndPersonLine[] personLines = fullNameMap.get(name);
-            Person p = new Person(personLines[0].getPersonFirstName(), personLines[0].getPersonLastName());
+        if (persons.contains(name)) {
+            ImageAndPersonLine line = (ImageAndPersonLine) rows.get(persons.row(name, 0));
+            Person p = new Person(line.getPersonFirstName(), line.getPersonLastName());
             Logger.debug(BuilderGUI.buildLogMessage(
                 "getPerson returning: ", p.toString()));
             return p;
@@ -139,40 +324,144 @@ public final class InputCSV {
 
     /**
      * Loads the CSV file specified by the fileName field.
-     * The lines field is populated with CSVLine objects.
-     * If there is an error reading the file, an error message is
-     * displayed and the program exits.
+     * The lines field is populated with ImageAndPersonLine objects. The file is read
+     * in a single pass by a CSVReader, so quoted fields may contain commas, line breaks
+     * and escaped double quotes.
      *
      * This file is protected rather than private so that
      * it can called for testing purposes.
+     * @param channel the channel to read the UTF-8 encoded file from.
+     * @throws IOException if the file cannot be read.
+     * @throws CSVException if the header or any other record is invalid.
      */
-    protected void loadCSVFile() throws IOException, CSVException {
+    protected void loadCSVFile(ReadableByteChannel channel) throws IOException, CSVException {
         Logger.trace("In InputCSV.loadCSVFile");
-        String dir = getFileDir();
-        java.nio.file.Path path = java.nio.file.Paths.get(dir, getFileName());
-        List<String> allLines = java.nio.file.Files.readAllLines(path);
+        LineStore loaded = rows.newEmptyStore();
+        PersonIndex index = new PersonIndex();
+        try (CSVReader reader = new CSVReader(Channels.newReader(channel, StandardCharsets.UTF_8))) {
+            String[] fields = readRecord(reader);
+            while (fields != null) {
+                addRow(loaded, index, createImageAndPersonLine(fields, loaded.size(), getFileName()));
+                fields = readRecord(reader);
+            }
+        }
+        setRows(loaded, index);
+    }
+
+    // Appends a line to the rows, and adds it to the index unless it is the header line.
+    private static void addRow(LineStore store, PersonIndex index, ImageAndPersonLine line) {
+        if (store.size() > 0) {
+            index.add(line.getPersonFullName(), store.size());
+        }
+        store.append(line);
+    }
+
+    private void setRows(LineStore loaded, PersonIndex index) {
+        rows = loaded;
+        lines = loaded;
+        persons = index;
         Logger.debug(BuilderGUI.buildLogMessage(
-            "Number of lines in InputCSV file: ", Integer.toString(allLines.size())));
-        for (int i = 0; i < allLines.size(); i++) {
-            Logger.debug(BuilderGUI.buildLogMessage(
-                "Line ", Integer.toString(i), ":", allLines.get(i)));
-        }
-        lines = new CSVLine[allLines.size()];
-        for (int i = 0; i < allLines.size(); i++) {
-            try {
-                lines[i] = new ImageAndPersonLine(allLines.get(i));
-            } catch (ArrayIndexOutOfBoundsException aioobe) {
-                if (i == 0) {
-                    Logger.error(BuilderGUI.buildLogMessage(
-                        "Header line: ", allLines.get(0), " is invalid"));
-                    throw new CSVException("Invalid header found in CSV file " + getFileName());
-                } else {
-                    Logger.error(BuilderGUI.buildLogMessage(
-                        "Line ", Integer.toString(i), " is invalid"));
-                    Logger.error("ArrayIndexOutOfBoundsException: ", aioobe);
-                    throw new CSVException("Invalid line number " + (i + 1) + " found in CSV file " + getFileName()
-                        + "\nLine does not contain at least 5 fields.");
-                }
+            "Number of lines in InputCSV file: ", Integer.toString(rows.size()),
+            ", number of persons: ", Integer.toString(persons.size())));
+    }
+
+    private String[] readRecord(CSVReader reader) throws IOException, CSVException {
+        try {
+            return reader.readRecord();
+        } catch (CSVException csve) {
+            Logger.error(BuilderGUI.buildLogMessage(
+                "Record ", Integer.toString(reader.getRecordNumber()), " is invalid: ", csve.getMessage()));
+            throw new CSVException(csve.getMessage() + " found in CSV file " + getFileName());
+        }
+    }
+
+    /**
+     * Populates the lines field with MappedImageAndPersonLine objects that refer to the memory
+     * mapped CSV file. Only the field offsets are stored; fields are decoded when they are first
+     * used.
+     * @param buffer the mapped file.
+     * @throws CSVException if the header or any other record is invalid.
+     */
+    private void loadMappedCSVFile(ByteBuffer buffer) throws CSVException {
+        Logger.trace("In InputCSV.loadMappedCSVFile");
+        MappedCSVFile mapped = new MappedCSVFile(buffer, 0, buffer.limit(), 0);
+        LineStore loaded = rows.newEmptyStore();
+        PersonIndex index = new PersonIndex();
+        try {
+            int[] bounds = mapped.nextRecord();
+            while (bounds != null) {
+                final int[] fieldBounds = bounds;
+                addRow(loaded, index, createImageAndPersonLine(
+                    () -> new MappedImageAndPersonLine(mapped, fieldBounds), loaded.size(), getFileName()));
+                bounds = mapped.nextRecord();
+            }
+        } catch (CSVException csve) {
+            throw new CSVException(csve.getMessage() + " found in CSV file " + getFileName());
+        }
+        setRows(loaded, index);
+    }
+
+    /**
+     * Loads the CSV file on the common ForkJoinPool, and merges the per-chunk person indexes.
+     * Used for large files.
+     * @param buffer the mapped file.
+     * @param mapped true if the lines are to be MappedImageAndPersonLine objects.
+     * @throws IOException if the file cannot be read.
+     * @throws CSVException if the header or any other record is invalid.
+     */
+    private void loadCSVFileInParallel(ByteBuffer buffer, boolean mapped) throws IOException, CSVException {
+        Logger.trace("In InputCSV.loadCSVFileInParallel");
+        ParallelCSVParser.Result result = ParallelCSVParser.parse(buffer, getFileName(), mapped);
+        LineStore loaded;
+        if (rows instanceof ColumnarLineStore) {
+            // the parsed lines are converted to columns. Row ids are unchanged.
+            loaded = rows.newEmptyStore();
+            for (ImageAndPersonLine line : result.lines()) {
+                loaded.append(line);
+            }
+        } else {
+            loaded = new GapBufferLineStore(result.lines().toArray(new CSVLine[result.lines().size()]));
+        }
+        setRows(loaded, result.persons());
+    }
+
+    /**
+     * Creates the ImageAndPersonLine for a parsed record.
+     * @param fields the fields in the record.
+     * @param i the index of the record in the file. The header line is 0.
+     * @param fileName the CSV file name to use in error messages.
+     * @return the ImageAndPersonLine for the record.
+     * @throws CSVException if the record does not contain at least five fields.
+     */
+    static ImageAndPersonLine createImageAndPersonLine(String[] fields, int i, String fileName)
+            throws CSVException {
+        return createImageAndPersonLine(() -> new ImageAndPersonLine(fields), i, fileName);
+    }
+
+    /**
+     * Creates the ImageAndPersonLine for a record, converting the ArrayIndexOutOfBoundsException
+     * thrown for a record with too few fields into a CSVException.
+     * @param creator creates the ImageAndPersonLine.
+     * @param i the index of the record in the file. The header line is 0.
+     * @param fileName the CSV file name to use in error messages.
+     * @return the ImageAndPersonLine for the record.
+     * @throws CSVException if the record does not contain at least five fields.
+     */
+    static ImageAndPersonLine createImageAndPersonLine(Supplier<ImageAndPersonLine> creator, int i,
+            String fileName) throws CSVException {
+        try {
+            return creator.get();
+        } catch (ArrayIndexOutOfBoundsException aioobe) {
+            if (i == 0) {
+                Logger.error(BuilderGUI.buildLogMessage(
+                    "Header line is invalid: ", aioobe.getMessage()));
+                throw new CSVException("Invalid header found in CSV file " + fileName);
+            } else {
+                Logger.error(BuilderGUI.buildLogMessage(
+                    "Line ", Integer.toString(i), " is invalid"));
+                Logger.error("ArrayIndexOutOfBoundsException: ", aioobe);
+                throw new CSVException("Invalid line number " + (i + 1) + " found in CSV file " + fileName
+                    + "\nLine does not contain at least 5 fields.");
             }
         }
     }
@@ -185,12 +474,7 @@ public final class InputCSV {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (CSVLine line : lines) {
-            for (int i = 0; i < line.length(); i++) {
-                sb.append(line.field(i));
-                if (i < line.length() - 1) {
-                    sb.append(",");
-                }
-            }
+            sb.append(line.toString());
             sb.append("\n");
         }
         return sb.toString();
@@ -204,20 +488,42 @@ public final class InputCSV {
      * greater than the number of lines.
      */
     public void insertAt(int index, CSVLine line) throws ArrayIndexOutOfBoundsException {
-        if (index < 0 || index > lines.length) {
+        if (index < 0 || index > lines.size()) {
             Logger.error(BuilderGUI.buildLogMessage(
                 "Index out of bounds in InputCSV.insertAt: ", Integer.toString(index)));
             throw new ArrayIndexOutOfBoundsException("Index out of bounds: " + index);
         }
-        CSVLine[] newLines = new CSVLine[lines.length + 1];
-        for (int i = 0; i < index; i++) {
-            newLines[i] = lines[i];
+        detachLines();
+        lines.insert(index, line);
+    }
+
+    /**
+     * Removes the CSVLine at the specified index. Together with insertAt, this moves a line
+     * within the CSV object; both are cheap when they are close to the previous edit.
+     * @param index - the index of the line to remove
+     * @return the removed line
+     * @throws ArrayIndexOutOfBoundsException if the index is negative, or
+     * not less than the number of lines.
+     */
+    public CSVLine removeAt(int index) throws ArrayIndexOutOfBoundsException {
+        if (index < 0 || index >= lines.size()) {
+            Logger.error(BuilderGUI.buildLogMessage(
+                "Index out of bounds in InputCSV.removeAt: ", Integer.toString(index)));
+            throw new ArrayIndexOutOfBoundsException("Index out of bounds: " + index);
         }
-        newLines[index] = line;
-        for (int i = index; i < lines.length; i++) {
-            newLines[i + 1] = lines[i];
+        detachLines();
+        return lines.remove(index);
+    }
+
+    // Gives lines its own store before it is edited, so that the row ids in persons remain valid.
+    private void detachLines() {
+        if (lines == rows) {
+            LineStore copy = rows.newEmptyStore();
+            for (CSVLine line : rows) {
+                copy.append(line);
+            }
+            lines = copy;
         }
-        lines = newLines;
     }
 
     /**
@@ -225,7 +531,7 @@ public final class InputCSV {
      * @param line - the line to append
      */
     public void append(CSVLine line) {
-        insertAt(lines.length, line);
+        insertAt(lines.size(), line);
     }
 
     /**
@@ -234,12 +540,12 @@ public final class InputCSV {
      * @return the line specified by index
      */
     public CSVLine getLine(int index) {
-        if (index < 0 || index >= lines.length) {
+        if (index < 0 || index >= lines.size()) {
             Logger.error(BuilderGUI.buildLogMessage(
                 "Invalid index in InputCSV.getLine: ", Integer.toString(index)));
             throw new ArrayIndexOutOfBoundsException("Index out of bounds: " + index);
         }
-        return lines[index];
+        return lines.get(index);
     }
 
     /**
@@ -249,8 +555,8 @@ public final class InputCSV {
      * @throws CSVException when there are no lines for the specified person.
      */
     public ImageAndPersonLine[] getImageLines(String fullName) throws CSVException {
-        if (fullNameMap.containsKey(fullName)) {
-            return fullNameMap.get(fullName);
+        if (persons.contains(fullName)) {
+            return linesFor(fullName);
         } else {
             Logger.error(BuilderGUI.buildLogMessage(
                 "There are no CSVLines for: ", fullName));
@@ -258,31 +564,12 @@ public final class InputCSV {
         }
     }
 
-    private void buildFullNameHashMap() {
-        Logger.trace("In InputCSV.buildFullNameHashMap");
-        fullNameMap = new HashMap<>();
-        boolean firstLine = true;
-        for (CSVLine line : lines) {
-            if (firstLine) {
-                firstLine = false;
-                continue; // skip header line
-            }
-            ImageAndPersonLine ipLine = (ImageAndPersonLine) line;
-            String fullName = ipLine.getPersonFullName();
-            if (!fullNameMap.containsKey(fullName)) {
-                Logger.debug(BuilderGUI.buildLogMessage(
-                    "Adding ", fullName, " to hash map"));
-                fullNameMap.put(fullName, new ImageAndPersonLine[] {ipLine});
-            } else {
-                ImageAndPersonLine[] existingLines = fullNameMap.get(fullName);
-                ImageAndPersonLine[] newLines = new ImageAndPersonLine[existingLines.length + 1];
-                System.arraycopy(existingLines, 0, newLines, 0, existingLines.length);
-                newLines[existingLines.length] = ipLine;
-                fullNameMap.put(fullName, newLines);
-            }
+    private ImageAndPersonLine[] linesFor(String fullName) {
+        ImageAndPersonLine[] personLines = new ImageAndPersonLine[persons.rowCount(fullName)];
+        for (int i = 0; i < personLines.length; i++) {
+            personLines[i] = (ImageAndPersonLine) rows.get(persons.row(fullName, i));
         }
-        Logger.debug(BuilderGUI.buildLogMessage(
-            "fullNameHashMap: ", fullNameMap.toString()));
+        return personLines;
     }
 
     /**
@@ -292,177 +579,121 @@ public final class InputCSV {
      * it can called for testing purposes.
      */
     protected void sortNames(SortOrder order) throws IllegalArgumentException {
+        sortNames(SortStrategy.forOrder(order));
+    }
+
+    /**
+     * Sorts the full names in the CSV object according to the specified strategy. The lines
+     * are then arranged so that the header line is followed by all of the lines for each
+     * person in turn. The names come from the person index, so apart from sorting the names,
+     * this takes time proportional to the number of lines. Each strategy is only sorted once;
+     * see getSortedFullNames(SortStrategy).
+     * @param strategy - the sort strategy. See SortStrategy.getStrategies for the built-in
+     * strategies.
+     */
+    public void sortNames(SortStrategy strategy) {
         Logger.debug(BuilderGUI.buildLogMessage(
-            "Sorting names for ", order.toString()));
-        switch (order) {
-            case AsIs:
-                sortNamesAsIs();
-                break;
-            case AlphabeticalByFullName:
-                sortNamesAlphabeticallyByFullName();
-                break;
-            case AlphabeticalByLastNameThenFirstName:
-                sortNamesAlphabeticallyByLastNamelFirstName();
-                break;
-            case AlphabeticalByFullNameReverse:
-                sortNamesAlphabeticallyByFullNameReverse();
-                break;
-            case AlphabeticalByLastNameThenFirstNameReverse:
-                sortNamesAlphabeticallytByLastNamelFirstNameReverse();
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid sort order: " + order);
-        }
-    }
-
-    private void sortNamesAlphabeticallyByFullName() {
-        final int headerLine = 0;
-        List<ImageAndPersonLine> entries = new ArrayList<ImageAndPersonLine>();
-        entries.add((ImageAndPersonLine) this.lines[headerLine]);
-        String[] fullNames = fullNameKeys.toArray(new String[fullNameMap.size()]);
-        Arrays.sort(fullNames);
-        sortedFullNames = new ArrayList<>(Arrays.asList(fullNames));
-        for (String fName: fullNames) {
-            ImageAndPersonLine[] linesForName = fullNameMap.get(fName);
-            for (ImageAndPersonLine line: linesForName) {
-                entries.add(line);
-            }
-        }
-        this.lines = entries.toArray(new CSVLine[entries.size()]);
+            "Sorting names for ", strategy.toString()));
+        currentStrategy = strategy;
+        arrangeLines(personOrder(strategy));
         Logger.debug(BuilderGUI.buildLogMessage(
-            "Persons sorted alpha by full name: ", sortedFullNames.toString()));
+            "Persons sorted ", strategy.toString(), ": ", sortedFullNames.toString()));
     }
 
-    private void sortNamesAlphabeticallyByFullNameReverse() {
-        final int headerLine = 0;
-        List<ImageAndPersonLine> entries = new ArrayList<ImageAndPersonLine>();
-        entries.add((ImageAndPersonLine) this.lines[headerLine]);
-        String[] fullNames = fullNameKeys.toArray(new String[fullNameMap.size()]);
-        Arrays.sort(fullNames, Collections.reverseOrder());
-        sortedFullNames = new ArrayList<>(Arrays.asList(fullNames));
-        for (String fName: fullNames) {
-            ImageAndPersonLine[] linesForName = fullNameMap.get(fName);
-            for (ImageAndPersonLine line: linesForName) {
-                entries.add(line);
-            }
-        }
-        this.lines = entries.toArray(new CSVLine[entries.size()]);
-        Logger.debug(BuilderGUI.buildLogMessage(
-            "Persons sorted alpha by full name reverse: ", sortedFullNames.toString()));
+    /**
+     * Returns the full names in the specified order, without changing the order of the lines.
+     * @param order the sort order.
+     * @return an unmodifiable list of the full names in the specified order.
+     */
+    public List<String> getSortedFullNames(SortOrder order) {
+        return getSortedFullNames(SortStrategy.forOrder(order));
     }
 
-    private void sortNamesAlphabeticallyByLastNamelFirstName() {
-        final int headerLine = 0;
-        List<ImageAndPersonLine> entries = new ArrayList<ImageAndPersonLine>();
-        entries.add((ImageAndPersonLine) this.lines[headerLine]);
-        String[] fullNames = fullNameKeys.toArray(new String[fullNameMap.size()]);
-        Arrays.sort(fullNames, new Comparator<String>() {
+    /**
+     * Returns the full names in the order given by the strategy, without changing the order
+     * of the lines. Each strategy is sorted the first time that it is requested and is then
+     * cached until the CSV file is reloaded, so switching between strategies does not re-sort
+     * the names.
+     * @param strategy the sort strategy.
+     * @return an unmodifiable list of the full names in the specified order.
+     */
+    public List<String> getSortedFullNames(SortStrategy strategy) {
+        final int[] ids = personOrder(strategy);
+        final PersonIndex index = persons;
+        return new AbstractList<String>() {
             @Override
-            public int compare(String name1, String name2) {
-                String[] parts1 = name1.split(" ");
-                String[] parts2 = name2.split(" ");
-                String lastName1 = parts1[parts1.length - 1];
-                String lastName2 = parts2[parts2.length - 1];
-                int lastNameComparison = lastName1.compareTo(lastName2);
-                if (lastNameComparison != 0) {
-                    return lastNameComparison;
-                } else {
-                    String firstName1 = parts1[0];
-                    String firstName2 = parts2[0];
-                    return firstName1.compareTo(firstName2);
-                }
-            }
-        });
-        sortedFullNames = new ArrayList<>(Arrays.asList(fullNames));
-        for (String fName: fullNames) {
-            ImageAndPersonLine[] linesForName = fullNameMap.get(fName);
-            for (ImageAndPersonLine line: linesForName) {
-                entries.add(line);
+            public String get(int i) {
+                return index.name(ids[i]);
             }
-        }
-        this.lines = entries.toArray(new CSVLine[entries.size()]);
-        Logger.debug(BuilderGUI.buildLogMessage(
-            "Persons sorted alpha lastName, firstName: ", sortedFullNames.toString()));
-    }
 
-    private void sortNamesAlphabeticallytByLastNamelFirstNameReverse() {
-        List<ImageAndPersonLine> entries = new ArrayList<ImageAndPersonLine>();
-        entries.add((ImageAndPersonLine) this.lines[0]);
-        String[] fullNames = fullNameKeys.toArray(new String[fullNameMap.size()]);
-        Arrays.sort(fullNames, new Comparator<String>() {
             @Override
-            public int compare(String name1, String name2) {
-                String[] parts1 = name1.split(" ");
-                String[] parts2 = name2.split(" ");
-                String lastName1 = parts1[parts1.length - 1];
-                String lastName2 = parts2[parts2.length - 1];
-                int lastNameComparison = lastName2.compareTo(lastName1);
-                if (lastNameComparison != 0) {
-                    return lastNameComparison;
-                } else {
-                    String firstName1 = parts1[0];
-                    String firstName2 = parts2[0];
-                    return firstName2.compareTo(firstName1);
-                }
-            }
-        });
-        sortedFullNames = new ArrayList<>(Arrays.asList(fullNames));
-        for (String fName: fullNames) {
-            ImageAndPersonLine[] linesForName = fullNameMap.get(fName);
-            for (ImageAndPersonLine line: linesForName) {
-                entries.add(line);
+            public int size() {
+                return ids.length;
             }
+        };
+    }
+
+    // Returns the person ids in the order given by the strategy. The array must not be modified.
+    private int[] personOrder(SortStrategy strategy) {
+        int[] ids = sortCache.get(strategy);
+        if (ids == null) {
+            ids = new NameSorter().sort(persons, rows, strategy);
+            sortCache.put(strategy, ids);
         }
-        this.lines = entries.toArray(new CSVLine[entries.size()]);
-        Logger.debug(BuilderGUI.buildLogMessage(
-            "Persons sorted alpha by lastName, firstName reversed: ", sortedFullNames.toString()));
+        return ids;
     }
 
-    // This actually sorts the names so that all entries for a given full name are
-    // together, but the order of the names is not changed.
-    private void sortNamesAsIs() {
+    private void arrangeLines(int[] personIds) {
         final int headerLine = 0;
-        List<ImageAndPersonLine> entries = new ArrayList<ImageAndPersonLine>();
-        entries.add((ImageAndPersonLine) this.lines[headerLine]);
-        sortedFullNames = new ArrayList<>();
-        for (int i = 1; i < lines.length; i++) {
-            String fullName = ((ImageAndPersonLine) lines[i]).getPersonFullName();
-            if (sortedFullNames.contains(fullName)) {
-                continue;
-            }
-            sortedFullNames.add(fullName);
-            ImageAndPersonLine[] ipLines = fullNameMap.get(fullName);
-            if (ipLines != null) {
-                for (ImageAndPersonLine ipLine: ipLines) {
-                    entries.add(ipLine);
-                }
+        LineStore entries = rows.newEmptyStore();
+        entries.append(rows.get(headerLine));
+        sortedFullNames = new ArrayList<>(personIds.length);
+        for (int id : personIds) {
+            String fName = persons.name(id);
+            sortedFullNames.add(fName);
+            int count = persons.rowCount(fName);
+            for (int i = 0; i < count; i++) {
+                entries.append(rows.get(persons.row(fName, i)));
             }
         }
-        this.lines = entries.toArray(new CSVLine[entries.size()]);
-        Logger.debug(BuilderGUI.buildLogMessage(
-            "Persons sorted in AsIs order: ", sortedFullNames.toString()));
+        this.lines = entries;
     }
 
     /**
      * Returns a list of image file names that are referenced in the CSV file
-     * but do not exist in the same directory as the CSV file.
+     * but do not exist in the same directory as the CSV file. The directory is listed once and
+     * every row is checked against the listing. Image files that are referenced more than once,
+     * and image files in the directory that are not referenced, are logged.
      * @return a list of missing image file names.
+     * @throws CSVException if the directory cannot be listed.
      */
-    private List<String> getListOfMissingImages() {
-        ArrayList<String> missingImages = new ArrayList<>();
-        String dir = getFileDir();
-        for (int i = 1; i < lines.length; i++) { // skip header line
-            ImageAndPersonLine ipLine = (ImageAndPersonLine) lines[i];
-            String imageFileName = ipLine.getImageFileName();
-            java.nio.file.Path imagePath = java.nio.file.Paths.get(dir, imageFileName);
-            File imageFile = imagePath.toFile();
-            if (!imageFile.isFile()) {
-                missingImages.add(imageFileName);
-            }
+    private List<String> getListOfMissingImages() throws CSVException {
+        List<String> imageFileNames = new ArrayList<>(rows.size());
+        for (int i = 1; i < rows.size(); i++) { // skip header line
+            imageFileNames.add(((ImageAndPersonLine) rows.get(i)).getImageFileName());
+        }
+        ImageDirectorySnapshot snapshot;
+        try {
+            snapshot = ImageDirectorySnapshot.read(Path.of(getFileDir()));
+        } catch (IOException ioe) {
+            throw new CSVException("Unable to list the folder containing CSV file " + getFileName()
+                + ": " + ioe.getMessage());
+        }
+        ImageDirectorySnapshot.Check check = snapshot.check(imageFileNames);
+        Logger.debug(BuilderGUI.buildLogMessage(
+            "Checked ", Integer.toString(imageFileNames.size()), " image files against ",
+            Integer.toString(snapshot.size()), " folder entries"));
+        if (!check.duplicates().isEmpty()) {
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "Image files listed more than once in CSV file: ", check.duplicates().toString()));
+        }
+        if (!check.orphans().isEmpty()) {
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "Image files in CSV file folder that are not listed in CSV file: ", check.orphans().toString()));
         }
         Logger.debug(BuilderGUI.buildLogMessage(
-            "Image files not found in CSV file folder: ", missingImages.toString()));
-        return missingImages;
+            "Image files not found in CSV file folder: ", check.missing().toString()));
+        return check.missing();
     }
 
     /**
@@ -477,11 +708,11 @@ public final class InputCSV {
         final int fullNameLine = 2;
         final int firstNameLine = 3;
         final int lastNameLine = 4;
-        if (lines.length == 0) {
+        if (lines.size() == 0) {
             throw new CSVException("No data found in CSV file " + getFileName());
         }
         // validate header line
-        CSVLine headerLine = lines[0];
+        CSVLine headerLine = lines.get(0);
         if (headerLine.length() != headerLineSize) {
             throw new CSVException("Invalid header found in CSV file " + getFileName());
         }
@@ -502,6 +733,48 @@ public final class InputCSV {
             }
             throw new CSVException(msg);
         }
+        preflightImages();
         return null; // no errors found
     }
+
+    /**
+     * Inspects the headers and tails of the image files, without decoding them, to find images
+     * that are corrupt, truncated, or that have the wrong extension for their format. The
+     * results are cached next to the CSV file, and only images whose size or modification time
+     * has changed are inspected again. Images that are not JPEG or PNG files, or that have the
+     * wrong extension, are logged as warnings.
+     * @throws CSVException if any image is corrupt, truncated or cannot be read, or if the
+     * inspection is interrupted.
+     */
+    private void preflightImages() throws CSVException {
+        Set<String> imageFileNames = new LinkedHashSet<>();
+        for (int i = 1; i < rows.size(); i++) { // skip header line
+            imageFileNames.add(((ImageAndPersonLine) rows.get(i)).getImageFileName());
+        }
+        PreflightCache cache = PreflightCache.load(PreflightCache.forCSVFile(csvFile.toPath()));
+        List<ImagePreflight.Result> results = ImagePreflight.inspect(Path.of(getFileDir()),
+            new ArrayList<>(imageFileNames), cache);
+        try {
+            cache.save();
+        } catch (IOException ioe) {
+            // the folder may be read-only. The images are inspected again next time.
+            Logger.debug(BuilderGUI.buildLogMessage("Unable to save preflight cache: ", ioe.getMessage()));
+        }
+        StringBuilder msg = new StringBuilder();
+        for (ImagePreflight.Result result : results) {
+            Logger.trace(BuilderGUI.buildLogMessage(result.fileName(), ": ", result.format().name(), " ",
+                Integer.toString(result.width()), "x", Integer.toString(result.height()),
+                result.truncated() ? " truncated" : ""));
+            if (result.isWarning()) {
+                Logger.warn(BuilderGUI.buildLogMessage(result.fileName(), ": ", result.problem()));
+            } else if (!result.isUsable()) {
+                msg.append(result.fileName()).append(": ").append(result.problem()).append('\n');
+            }
+        }
+        Logger.debug(BuilderGUI.buildLogMessage(
+            "Preflight checked ", Integer.toString(results.size()), " image files"));
+        if (msg.length() > 0) {
+            throw new CSVException("Some images listed in CSV file " + getFileName() + " cannot be used:\n" + msg);
+        }
+    }
 }
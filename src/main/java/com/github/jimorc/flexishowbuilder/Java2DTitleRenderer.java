@@ -0,0 +1,115 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+/**
+ * Java2DTitleRenderer renders title slides with Graphics2D, without JavaFX. It draws the same
+ * yellow, heavy sans-serif caption on a black background as the JavaFX snapshots that it
+ * replaced: each line is centred horizontally, and the block of lines is centred vertically.
+ * Because it does not need the JavaFX application thread, and each call draws into its own
+ * image, slides can be rendered concurrently on worker threads. The caption is drawn straight
+ * into the raster that is passed to the JPEG encoder; no other image is allocated.
+ *
+ * Slides are rendered at the resolution and font size of an OutputProfile, from a TitleLayout
+ * that may be shared with the renderers of other profiles. If the renderer has a
+ * BackgroundTemplate, the template is scaled to the profile's resolution once, when the
+ * renderer is created, and each slide's raster starts as a copy of the scaled pixels.
+ *
+ * The fonts available to Java2D differ from the JavaFX "System" font, so the output matches
+ * the JavaFX output in layout and colour but not pixel for pixel.
+ */
+final class Java2DTitleRenderer implements TitleRenderer {
+    private static final int BYTES_PER_PIXEL = 3;
+    // the blue, green and red offsets within a TYPE_3BYTE_BGR pixel.
+    private static final int[] BAND_OFFSETS = {2, 1, 0};
+    private static final ColorModel BGR_COLOR_MODEL =
+        new BufferedImage(1, 1, BufferedImage.TYPE_3BYTE_BGR).getColorModel();
+    private final OutputProfile profile;
+    private final Font font;
+    private final BackgroundTemplate background;
+    private final byte[] backgroundPixels;
+
+    /**
+     * Constructor - renders slides for the Standard profile on a black background.
+     */
+    Java2DTitleRenderer() {
+        this(OutputProfile.Standard);
+    }
+
+    /**
+     * Constructor - renders slides on a black background.
+     * @param outputProfile the profile to render slides for.
+     */
+    Java2DTitleRenderer(OutputProfile outputProfile) {
+        this(outputProfile, null);
+    }
+
+    /**
+     * Constructor.
+     * @param outputProfile the profile to render slides for.
+     * @param template the background of the slides, or null for a black background.
+     */
+    Java2DTitleRenderer(OutputProfile outputProfile, BackgroundTemplate template) {
+        profile = outputProfile;
+        font = TitleLayout.FONT.deriveFont((float) profile.getFontSize());
+        background = template;
+        backgroundPixels = template == null ? null : template.getPixels(profile.getWidth(), profile.getHeight());
+    }
+
+    @Override
+    public String getStyle() {
+        return "Java2D SansSerif ULTRABOLD " + profile.getFontSize() + " yellow on "
+            + (background == null ? "black " : "background " + background.getId() + " ") + profile.getWidth()
+            + "x" + profile.getHeight();
+    }
+
+    @Override
+    public BufferedImage render(String caption) {
+        return render(TitleLayout.of(caption));
+    }
+
+    @Override
+    public BufferedImage render(TitleLayout layout) {
+        BufferedImage image = createImage();
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            graphics.setFont(font);
+            graphics.setColor(Color.YELLOW);
+            float size = font.getSize2D();
+            float lineHeight = layout.getLineHeight(size);
+            float y = (profile.getHeight() - layout.getLineCount() * lineHeight) / 2 + layout.getAscent(size);
+            for (int i = 0; i < layout.getLineCount(); i++) {
+                float x = (profile.getWidth() - layout.getWidth(i, size)) / 2;
+                graphics.drawString(layout.getLine(i), x, y);
+                y += lineHeight;
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private BufferedImage createImage() {
+        int width = profile.getWidth();
+        int height = profile.getHeight();
+        if (backgroundPixels == null) {
+            // a new raster is all zeros, which is already the black background.
+            return new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        }
+        // wrapping a copy of the template's pixels is a single array copy, with no drawing.
+        DataBufferByte pixels = new DataBufferByte(backgroundPixels.clone(), backgroundPixels.length);
+        WritableRaster raster = Raster.createInterleavedRaster(pixels, width, height, width * BYTES_PER_PIXEL,
+            BYTES_PER_PIXEL, BAND_OFFSETS, null);
+        return new BufferedImage(BGR_COLOR_MODEL, raster, false, null);
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * JpegEncoder encodes images as JPEG bytes in memory, with an explicit quality and optimized
+ * Huffman tables. ImageWriters are expensive to look up and create, so each one is reused:
+ * a writer is taken from a pool for each image and returned to it afterwards. The pool grows
+ * to the number of threads that encode at the same time.
+ *
+ * Encoding goes to a MemoryCacheImageOutputStream, so ImageIO's disk cache is never used.
+ */
+final class JpegEncoder {
+    /** The default JPEG quality, between 0 (smallest) and 1 (best). */
+    static final float DEFAULT_QUALITY = 0.9f;
+    // a 1400x1050 title slide is mostly black, so is usually much smaller than this.
+    private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+    private final float quality;
+    private final ConcurrentLinkedQueue<ImageWriter> writers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor.
+     * @param jpegQuality the JPEG quality, between 0 (smallest) and 1 (best).
+     * @throws IllegalArgumentException if the quality is outside the range 0 to 1.
+     */
+    JpegEncoder(float jpegQuality) {
+        if (!(jpegQuality >= 0 && jpegQuality <= 1)) {
+            throw new IllegalArgumentException("JPEG quality must be between 0 and 1: " + jpegQuality);
+        }
+        quality = jpegQuality;
+    }
+
+    /**
+     * Returns the settings that affect the encoded bytes. Images encoded with different
+     * settings must not share a TitleSlideCache entry.
+     * @return a description of the encoder settings.
+     */
+    String getSettings() {
+        return "JPEG quality " + quality + " optimized";
+    }
+
+    /**
+     * Encodes an image. This method may be called on several threads at once.
+     * @param image the image to encode.
+     * @return the JPEG bytes.
+     * @throws IOException if there is no JPEG writer or the image cannot be encoded.
+     */
+    byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = takeWriter();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        boolean encoded = false;
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), createParam(writer));
+            encoded = true;
+        } finally {
+            if (encoded) {
+                writer.reset();
+                writers.add(writer);
+            } else {
+                // a writer that failed may be left in an unknown state.
+                writer.dispose();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Disposes of the pooled writers. Encoding may continue afterwards; new writers are
+     * created as needed.
+     */
+    void dispose() {
+        for (ImageWriter writer = writers.poll(); writer != null; writer = writers.poll()) {
+            writer.dispose();
+        }
+    }
+
+    private ImageWriter takeWriter() throws IOException {
+        ImageWriter writer = writers.poll();
+        if (writer != null) {
+            return writer;
+        }
+        Iterator<ImageWriter> available = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!available.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        return available.next();
+    }
+
+    private ImageWriteParam createParam(ImageWriter writer) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        if (param instanceof JPEGImageWriteParam jpegParam) {
+            jpegParam.setOptimizeHuffmanTables(true);
+        }
+        return param;
+    }
+}
@@ -1,12 +1,23 @@
 package com.github.jimorc.flexishowbuilder;
 
 /**
- * Launcher is the application start class.
+ * Launcher is the application start class. With no arguments, it starts the GUI. With
+ * arguments, it builds the slide show from the command line, without starting JavaFX; see
+ * CommandLineBuilder.
+ *
+ * AWT is only used to render slides offscreen, so it always runs headless. Otherwise, the
+ * first use of a font would start AWT's native toolkit and connect to the display.
  */
 public final class Launcher {
     private Launcher() {}
 
     public static void main(String[] args) {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        if (args.length > 0) {
+            System.exit(CommandLineBuilder.run(args, System.out, System.err));
+        }
         BuilderGUI.main(args);
     }
 }
@@ -0,0 +1,27 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * LineStorage defines the possible ways that an InputCSV object can store its lines.
+ */
+public enum LineStorage {
+    /**
+     * Auto denotes choosing Mapped storage for large CSV files and Objects storage for
+     * all others. The GUI and the command line builds do not use Auto: they load CSV files
+     * with Objects storage, because the files may be rewritten while they are in use.
+     */
+    Auto,
+    /**
+     * Objects denotes storing each line as a separate ImageAndPersonLine object.
+     */
+    Objects,
+    /**
+     * Columnar denotes storing the lines as columns, with the full, first and last names
+     * dictionary encoded. This uses far less memory for large CSV files.
+     */
+    Columnar,
+    /**
+     * Mapped denotes memory mapping the CSV file and storing only the offsets of the fields
+     * of each line. Fields are decoded when they are first used.
+     */
+    Mapped
+}
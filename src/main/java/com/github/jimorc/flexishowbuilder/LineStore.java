@@ -0,0 +1,78 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * LineStore holds the lines of an InputCSV object. Implementations decide how the lines are
+ * represented in memory; callers always see CSVLine objects.
+ *
+ * Index checking is the responsibility of the caller.
+ */
+interface LineStore extends Iterable<CSVLine> {
+    /**
+     * Returns the number of lines in the store.
+     * @return the number of lines.
+     */
+    int size();
+
+    /**
+     * Returns the line at the specified index.
+     * @param index the index of the line, from 0 to size() - 1.
+     * @return the line at index.
+     */
+    CSVLine get(int index);
+
+    /**
+     * Inserts a line at the specified index.
+     * @param index the index to insert the line at, from 0 to size().
+     * @param line the line to insert.
+     */
+    void insert(int index, CSVLine line);
+
+    /**
+     * Removes the line at the specified index.
+     * @param index the index of the line to remove, from 0 to size() - 1.
+     * @return the removed line.
+     */
+    CSVLine remove(int index);
+
+    /**
+     * Appends a line to the end of the store.
+     * @param line the line to append.
+     */
+    default void append(CSVLine line) {
+        insert(size(), line);
+    }
+
+    /**
+     * Creates an empty store of the same kind as this one. Lines from this store can be
+     * appended to the new store without being converted.
+     * @return the new store.
+     */
+    LineStore newEmptyStore();
+
+    /**
+     * Returns an iterator over the lines in index order.
+     * @return the iterator.
+     */
+    @Override
+    default Iterator<CSVLine> iterator() {
+        return new Iterator<CSVLine>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public CSVLine next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+}
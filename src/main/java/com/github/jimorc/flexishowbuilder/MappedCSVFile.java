@@ -0,0 +1,148 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * MappedCSVFile tokenizes a memory-mapped CSV file without decoding it. Each record is returned
+ * as the byte offsets of its fields in the mapped buffer, and field values are only decoded to
+ * String when decode is called.
+ *
+ * The tokenizer follows the same rules as CSVReader. Because the separator, quote and line
+ * break characters are all ASCII, they can never be part of a multi-byte UTF-8 sequence, so
+ * scanning bytes gives the same field boundaries as scanning characters.
+ */
+final class MappedCSVFile {
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int INITIAL_FIELDS = 8;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+    private int recordNumber;
+    private int[] starts = new int[INITIAL_FIELDS];
+
+    /**
+     * Constructor - creates a MappedCSVFile that tokenizes part of a mapped buffer.
+     * @param mapped the buffer containing the whole CSV file.
+     * @param start the offset of the first record to tokenize.
+     * @param end the offset just past the last record to tokenize.
+     * @param recordsBefore the number of records in the file before start. This is used to
+     * number the records in error messages.
+     */
+    MappedCSVFile(ByteBuffer mapped, int start, int end, int recordsBefore) {
+        buffer = mapped;
+        position = start;
+        limit = end;
+        recordNumber = recordsBefore;
+    }
+
+    /**
+     * Returns the buffer containing the whole file.
+     * @return the mapped buffer.
+     */
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the number of records read so far.
+     * @return the number of the last record returned by nextRecord. The first record is 1.
+     */
+    int getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Finds the fields of the next record.
+     * @return an array containing the offset of the start of each field, followed by the offset
+     * of the end of the last field. The end of every other field is one before the start of the
+     * next field. Returns null if there are no more records.
+     * @throws CSVException if the record contains an unterminated quoted field.
+     */
+    int[] nextRecord() throws CSVException {
+        if (position >= limit) {
+            return null;
+        }
+        recordNumber++;
+        int count = 0;
+        while (true) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = position;
+            scanField();
+            if (position == limit || buffer.get(position) != SEPARATOR) {
+                break;
+            }
+            position++;
+        }
+        int[] bounds = Arrays.copyOf(starts, count + 1);
+        bounds[count] = position;
+        skipLineBreak();
+        return bounds;
+    }
+
+    /**
+     * Decodes a field, removing any enclosing quotes and escapes. If the range contains
+     * several fields, for example an image title that contains unquoted commas, they are
+     * decoded and joined with commas.
+     * @param start the offset of the start of the field.
+     * @param end the offset of the end of the field.
+     * @return the field value.
+     */
+    String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        String raw = new String(bytes, StandardCharsets.UTF_8);
+        if (raw.indexOf('"') < 0) {
+            return raw;
+        }
+        try {
+            return String.join(",", CSVReader.parseLine(raw));
+        } catch (CSVException csve) {
+            return raw;
+        }
+    }
+
+    // Moves position to the separator or line break that ends the current field.
+    private void scanField() throws CSVException {
+        if (position < limit && buffer.get(position) == QUOTE) {
+            position++;
+            scanQuoted();
+        }
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == SEPARATOR || b == CR || b == LF) {
+                return;
+            }
+            position++;
+        }
+    }
+
+    // Moves position past the closing quote of a quoted field.
+    private void scanQuoted() throws CSVException {
+        while (position < limit) {
+            if (buffer.get(position++) == QUOTE) {
+                if (position == limit || buffer.get(position) != QUOTE) {
+                    return;
+                }
+                position++; // escaped quote
+            }
+        }
+        throw new CSVException("Unterminated quoted field in record " + recordNumber);
+    }
+
+    private void skipLineBreak() {
+        if (position < limit && buffer.get(position) == CR) {
+            position++;
+        }
+        if (position < limit && buffer.get(position) == LF) {
+            position++;
+        }
+    }
+}
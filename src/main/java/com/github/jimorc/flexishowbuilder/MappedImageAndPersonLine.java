@@ -0,0 +1,68 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * MappedImageAndPersonLine is an ImageAndPersonLine that stores only the offsets of its fields
+ * in a memory-mapped CSV file. Each field is decoded to a String the first time it is
+ * requested, so loading and validating a large CSV file does not create Strings for fields,
+ * such as the image title, that are not needed until the output is written.
+ */
+final class MappedImageAndPersonLine extends ImageAndPersonLine {
+    private final MappedCSVFile file;
+    // the start of each of the five fields, followed by the end of the last field.
+    private final int[] bounds;
+    private String[] decoded;
+
+    /**
+     * Constructor - creates a MappedImageAndPersonLine from the field offsets returned by
+     * MappedCSVFile.nextRecord. If there are more than five fields, the image title is assumed
+     * to contain unquoted commas, and the extra fields become part of the title.
+     * @param csvFile the file containing the line.
+     * @param fieldBounds the field offsets.
+     * @throws ArrayIndexOutOfBoundsException if there are fewer than five fields.
+     */
+    MappedImageAndPersonLine(MappedCSVFile csvFile, int[] fieldBounds) throws ArrayIndexOutOfBoundsException {
+        super();
+        file = csvFile;
+        int fields = fieldBounds.length - 1;
+        if (fields < FIELD_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Line does not contain at least five fields: "
+                + csvFile.decode(fieldBounds[0], fieldBounds[fields]));
+        }
+        int extra = fields - FIELD_COUNT;
+        bounds = new int[FIELD_COUNT + 1];
+        bounds[IMAGE_FILE_POSITION] = fieldBounds[IMAGE_FILE_POSITION];
+        bounds[IMAGE_TITLE_POSITION] = fieldBounds[IMAGE_TITLE_POSITION];
+        for (int i = PERSON_FULL_NAME_POSITION; i <= FIELD_COUNT; i++) {
+            bounds[i] = fieldBounds[i + extra];
+        }
+    }
+
+    @Override
+    public int length() {
+        return FIELD_COUNT;
+    }
+
+    /**
+     * Returns the field specified by the argument, decoding it if this is the first request
+     * for the field.
+     * @param index - the index of the field to return
+     * @return the field specified by the index argument
+     * @throws ArrayIndexOutOfBoundsException if the index is negative, or
+     * greater than the number of fields.
+     */
+    @Override
+    public String field(int index) {
+        if (index < 0 || index >= FIELD_COUNT) {
+            throw new ArrayIndexOutOfBoundsException("Index out of bounds: " + index);
+        }
+        if (decoded == null) {
+            decoded = new String[FIELD_COUNT];
+        }
+        if (decoded[index] == null) {
+            // every field except the last is followed by a separator.
+            int end = index == PERSON_LAST_NAME_POSITION ? bounds[index + 1] : bounds[index + 1] - 1;
+            decoded[index] = file.decode(bounds[index], end);
+        }
+        return decoded[index];
+    }
+}
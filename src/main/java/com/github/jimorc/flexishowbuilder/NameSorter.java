@@ -0,0 +1,155 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * NameSorter sorts the persons in a PersonIndex according to a SortStrategy.
+ *
+ * The value of every key in the strategy is computed once for each person before sorting, so
+ * each comparison during the sort only compares precomputed values. Text keys are
+ * CollationKeys for a locale, so that accented and mixed-case names are ordered as a reader
+ * expects rather than by their UTF-16 code units. Large rosters are sorted with
+ * Arrays.parallelSort.
+ */
+final class NameSorter {
+    /** Rosters with at least this many persons are sorted in parallel. */
+    static final int PARALLEL_SORT_THRESHOLD = 8192;
+    private final Collator collator;
+
+    /**
+     * Constructor - creates a NameSorter for the default locale.
+     */
+    NameSorter() {
+        this(Locale.getDefault());
+    }
+
+    /**
+     * Constructor - creates a NameSorter for the specified locale.
+     * @param locale the locale whose collation rules are used.
+     */
+    NameSorter(Locale locale) {
+        collator = Collator.getInstance(locale);
+    }
+
+    /**
+     * Sorts the persons.
+     * @param persons the persons to sort.
+     * @param rows the lines of the CSV file in file order. Row ids in persons index these lines.
+     * @param strategy the sort strategy.
+     * @return the person ids in sorted order.
+     */
+    int[] sort(PersonIndex persons, LineStore rows, SortStrategy strategy) {
+        List<SortStrategy.Criterion> criteria = strategy.getCriteria();
+        PersonKeys[] keys = new PersonKeys[persons.size()];
+        for (int id = 0; id < keys.length; id++) {
+            String fullName = persons.name(id);
+            ImageAndPersonLine line = (ImageAndPersonLine) rows.get(persons.row(fullName, 0));
+            Comparable<?>[] values = new Comparable<?>[criteria.size()];
+            for (int k = 0; k < values.length; k++) {
+                values[k] = keyValue(criteria.get(k).key(), id, persons, line, strategy.getSeed());
+            }
+            keys[id] = new PersonKeys(id, values, criteria);
+        }
+        if (keys.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = keys[i].id();
+        }
+        return sorted;
+    }
+
+    private Comparable<?> keyValue(SortKey key, int id, PersonIndex persons, ImageAndPersonLine line, long seed) {
+        switch (key) {
+            case FileOrder:
+                return id;
+            case FullName:
+                return collator.getCollationKey(line.getPersonFullName());
+            case LastName:
+                return collator.getCollationKey(line.getPersonLastName());
+            case FirstName:
+                return collator.getCollationKey(line.getPersonFirstName());
+            case ImageTitle:
+                return collator.getCollationKey(line.getImageTitle());
+            case ImageFileName:
+                return new NaturalOrderKey(line.getImageFileName());
+            case EntryCount:
+                return persons.rowCount(line.getPersonFullName());
+            case Shuffle:
+                return new SplittableRandom(seed ^ line.getPersonFullName().hashCode()).nextLong();
+            default:
+                throw new IllegalArgumentException("Invalid sort key: " + key);
+        }
+    }
+
+    // A person id and the precomputed values of the strategy's keys. Persons with equal
+    // values are ordered by id, which is file order.
+    private record PersonKeys(int id, Comparable<?>[] values, List<SortStrategy.Criterion> criteria)
+            implements Comparable<PersonKeys> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compareTo(PersonKeys other) {
+            for (int k = 0; k < values.length; k++) {
+                int result = ((Comparable<Object>) values[k]).compareTo(other.values[k]);
+                if (result != 0) {
+                    return criteria.get(k).descending() ? -result : result;
+                }
+            }
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    // A file name split into runs of digits and runs of other characters. Digit runs are
+    // compared as numbers, and other runs are compared ignoring case.
+    static final class NaturalOrderKey implements Comparable<NaturalOrderKey> {
+        private final String[] parts;
+
+        NaturalOrderKey(String value) {
+            parts = value.split("(?<=\\d)(?=\\D)|(?<=\\D)(?=\\d)");
+        }
+
+        @Override
+        public int compareTo(NaturalOrderKey other) {
+            int count = Math.min(parts.length, other.parts.length);
+            for (int i = 0; i < count; i++) {
+                int result = comparePart(parts[i], other.parts[i]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(parts.length, other.parts.length);
+        }
+
+        private static int comparePart(String a, String b) {
+            if (isDigits(a) && isDigits(b)) {
+                String x = stripLeadingZeros(a);
+                String y = stripLeadingZeros(b);
+                if (x.length() != y.length()) {
+                    return Integer.compare(x.length(), y.length());
+                }
+                return x.compareTo(y);
+            }
+            return a.compareToIgnoreCase(b);
+        }
+
+        private static boolean isDigits(String s) {
+            return !s.isEmpty() && Character.isDigit(s.charAt(0));
+        }
+
+        private static String stripLeadingZeros(String s) {
+            int i = 0;
+            while (i < s.length() - 1 && s.charAt(i) == '0') {
+                i++;
+            }
+            return s.substring(i);
+        }
+    }
+}
@@ -1,19 +1,21 @@
 package com.github.jimorc.flexishowbuilder;
 
-import org.tinylog.Logger;
+import java.util.Iterator;
 
 /**
  * The OutputCSV class is used to build the CSV lines to be passed to LibreOffice or Excel
  * to generate an XLS file representing the slide show.
+ *
+ * The lines are held in a GapBufferLineStore, so appending is amortised O(1). The lines are
+ * not copied: lines from the InputCSV object are shared with it.
  */
-public class OutputCSV {
-    private CSVLine[] lines;
+public class OutputCSV implements CSVLineSink, Iterable<CSVLine> {
+    private final LineStore lines = new GapBufferLineStore();
 
     /**
      * Constructor creates an empty OutputCSV object.
      */
     public OutputCSV() {
-        lines = new CSVLine[0];
     }
 
     /**
@@ -21,15 +23,9 @@ public class OutputCSV {
      * image file.
      * @param line the CSVLine to append to the OutputCSV object.
      */
+    @Override
     public void appendLine(CSVLine line) {
-        CSVLine[] newLines = new CSVLine[lines.length + 1];
-        for (int i = 0; i < lines.length; i++) {
-            newLines[i] = lines[i];
-        }
-        newLines[lines.length] = line;
-        Logger.debug(BuilderGUI.buildLogMessage(
-            "OutputCSV - added line: ", line.toString()));
-        lines = newLines;
+        lines.append(line);
     }
 
     /**
@@ -37,15 +33,43 @@ public class OutputCSV {
      * @return number of lines
      */
     public int length() {
-        return lines.length;
+        return lines.size();
+    }
+
+    /**
+     * Retrieves the line at the specified index.
+     * @param index the index of the line, from 0 to length() - 1.
+     * @return the line at index.
+     * @throws ArrayIndexOutOfBoundsException if the index is negative, or not less than the
+     * number of lines.
+     */
+    public CSVLine getLine(int index) {
+        if (index < 0 || index >= lines.size()) {
+            throw new ArrayIndexOutOfBoundsException("Index out of bounds: " + index);
+        }
+        return lines.get(index);
     }
 
     /**
-     * Retrieves the CSVLine objects in this object.
+     * Retrieves the CSVLine objects in this object. The array is built on each call; use
+     * iterator to visit the lines without copying them.
      * @return the CSVLine objects
      */
     public CSVLine[] getLines() {
-        return lines;
+        CSVLine[] lineArray = new CSVLine[lines.size()];
+        for (int i = 0; i < lineArray.length; i++) {
+            lineArray[i] = lines.get(i);
+        }
+        return lineArray;
+    }
+
+    /**
+     * Returns an iterator over the lines in order.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<CSVLine> iterator() {
+        return lines.iterator();
     }
 
     /**
@@ -56,12 +80,7 @@ public class OutputCSV {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (CSVLine line : lines) {
-            for (int i = 0; i < line.length(); i++) {
-                sb.append(line.field(i));
-                if (i < line.length() - 1) {
-                    sb.append(",");
-                }
-            }
+            sb.append(line.toString());
             sb.append("\n");
         }
         return sb.toString();
@@ -1,6 +1,8 @@
 package com.github.jimorc.flexishowbuilder;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -24,10 +26,21 @@ public class OutputCSVStage extends FlexiStage {
      * @param dir the folder to save the XLS file to when the "Save" button is clicked.
      */
     public OutputCSVStage(OutputCSV csv, String dir) {
+        this(csv, Map.of(dir + "/" + XLSWorkbook.FILE_NAME, csv));
+    }
+
+    /**
+     * OutputCSVStage constructor - displays one OutputCSV object, and saves several XLS files
+     * when the "Save" button is clicked. This is used when a show is built for several output
+     * profiles.
+     * @param csv the OutputCSV object to display.
+     * @param saves the OutputCSV object to save to each XLS file, keyed by file name.
+     */
+    public OutputCSVStage(OutputCSV csv, Map<String, OutputCSV> saves) {
         GridPane grid = createGrid(csv);
         ScrollPane sPane = new ScrollPane();
         sPane.setContent(grid);
-        HBox buttonBox = createButtonBox(csv, dir);
+        HBox buttonBox = createButtonBox(new LinkedHashMap<>(saves));
         VBox box = new VBox(sPane, buttonBox);
         Scene scene = new Scene(box);
         this.setScene(scene);
@@ -47,9 +60,8 @@ public class OutputCSVStage extends FlexiStage {
         grid.setVgap(gridGap);
         grid.setHgap(gridGap);
 
-        CSVLine[] lines = csv.getLines();
         int row = 1;
-        for (CSVLine line : lines) {
+        for (CSVLine line : csv) {
             switch (line) {
                 case TitleImageLine l:
                     grid.add(new Text(l.field(imageCol)), imageCol, row++);
@@ -76,24 +88,25 @@ public class OutputCSVStage extends FlexiStage {
         return grid;
     }
 
-    private HBox createButtonBox(OutputCSV csv, String dir) {
+    private HBox createButtonBox(Map<String, OutputCSV> saves) {
         final int buttonTopMargin = 5;
         final int buttonRightMargin = 20;
         final int buttonBottomMargin = 5;
         final int buttonLeftMargin = 20;
-        final String saveFileName = dir + "/slideshow.xls";
+        final String saveFileNames = String.join(", ", saves.keySet());
 
         Insets insets = new Insets(buttonTopMargin, buttonRightMargin,
             buttonBottomMargin, buttonLeftMargin);
         QuitButton quit = new QuitButton();
         HBox.setMargin(quit, insets);
 
-        FlexiButton save = new FlexiButton("Save to slideshow.xls");
+        FlexiButton save = new FlexiButton("Save to " + XLSWorkbook.FILE_NAME);
         save.setDefaultButton(true);
         save.setOnAction(_ -> {
-            XLSWorkbook workbook = new XLSWorkbook(csv);
             try {
-                workbook.writeToFile(saveFileName);
+                for (Map.Entry<String, OutputCSV> entry : saves.entrySet()) {
+                    new XLSWorkbook(entry.getValue()).writeToFile(entry.getKey());
+                }
             } catch (IOException ioe) {
                 Logger.error("IOException thrown writing XLS file: ", ioe);
                 Alert alert = new Alert(AlertType.ERROR);
@@ -106,7 +119,7 @@ public class OutputCSVStage extends FlexiStage {
             }
             Alert alert = new Alert(AlertType.INFORMATION);
             alert.setTitle("File Saved");
-            alert.setHeaderText(saveFileName + " has been saved.");
+            alert.setHeaderText(saveFileNames + (saves.size() == 1 ? " has" : " have") + " been saved.");
             alert.setContentText("Click OK to terminate program.");
             alert.showAndWait();
             this.close();
@@ -0,0 +1,78 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * OutputProfile defines the resolution of the title and person slides for a type of
+ * projector. The caption font is scaled with the height of the slide, so the text covers the
+ * same proportion of the screen in every profile.
+ */
+public enum OutputProfile {
+    /**
+     * Standard denotes 4:3 slides of 1400 x 1050 pixels. These are the slides that
+     * flexishowbuilder has always generated.
+     */
+    Standard("4x3", "4:3 (1400 x 1050)", TitleRenderer.IMAGE_WIDTH, TitleRenderer.IMAGE_HEIGHT,
+        TitleRenderer.FONT_SIZE),
+    /**
+     * Widescreen denotes 16:9 full HD slides of 1920 x 1080 pixels.
+     */
+    Widescreen("16x9", "16:9 (1920 x 1080)", 1920, 1080, 49),
+    /**
+     * UltraHD denotes 16:9 4K slides of 3840 x 2160 pixels.
+     */
+    UltraHD("4k", "4K (3840 x 2160)", 3840, 2160, 99);
+
+    private final String folderName;
+    private final String description;
+    private final int width;
+    private final int height;
+    private final int fontSize;
+
+    OutputProfile(String folder, String desc, int imageWidth, int imageHeight, int captionFontSize) {
+        folderName = folder;
+        description = desc;
+        width = imageWidth;
+        height = imageHeight;
+        fontSize = captionFontSize;
+    }
+
+    /**
+     * Returns the name of the subfolder that the profile's slides and XLS file are written to
+     * when several profiles are built in one run.
+     * @return the folder name.
+     */
+    public String getFolderName() {
+        return folderName;
+    }
+
+    /**
+     * Returns a description of the profile for display.
+     * @return the description.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the width of the slides.
+     * @return the width in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the slides.
+     * @return the height in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the size of the caption font.
+     * @return the font size in points.
+     */
+    public int getFontSize() {
+        return fontSize;
+    }
+}
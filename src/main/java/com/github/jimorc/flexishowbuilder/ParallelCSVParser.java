@@ -0,0 +1,296 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.tinylog.Logger;
+
+/**
+ * ParallelCSVParser parses large CSV files on the common ForkJoinPool.
+ *
+ * The file is memory mapped and split into chunks that each start at the beginning of a
+ * record. Finding the split points requires a single pass over the bytes that tracks whether
+ * each byte is inside a quoted field, so a line break inside quotes is never used as a split
+ * point. Each chunk is then parsed by its own CSVReader, or tokenized in place by a
+ * MappedCSVFile, and builds its own PersonIndex of the rows for each person. The chunk results are
+ * merged in file order, so both the lines and the order in which persons first appear are the
+ * same as for a sequential parse.
+ */
+final class ParallelCSVParser {
+    /** Files smaller than this are parsed sequentially. */
+    static final long PARALLEL_THRESHOLD = 4L * 1024 * 1024;
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private ParallelCSVParser() {}
+
+    /**
+     * The parsed lines, including the header line, and the index of the rows for each person.
+     * @param lines all lines in the file.
+     * @param persons the row ids of the lines for each person, in the order that each person
+     * first appears in the file.
+     */
+    record Result(List<ImageAndPersonLine> lines, PersonIndex persons) {}
+
+    // A range of bytes that starts at the beginning of a record.
+    private record Chunk(int start, int end, int firstRecord) {}
+
+    // The data shared by all of the tasks that parse a file.
+    private record ParseJob(ByteBuffer buffer, List<Chunk> chunks, String fileName, boolean mapped) {}
+
+    /**
+     * Determine whether a file of the specified size should be parsed in parallel.
+     * @param size the size of the file in bytes.
+     * @return true if the file is large enough to benefit from parallel parsing and small
+     * enough to be mapped into a single buffer.
+     */
+    static boolean shouldParseInParallel(long size) {
+        return size >= PARALLEL_THRESHOLD && size <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Parse a memory mapped CSV file in parallel, optionally creating MappedImageAndPersonLine
+     * objects that refer to the mapped file rather than decoding every field.
+     * @param buffer the mapped file.
+     * @param fileName the file name to use in error messages.
+     * @param mapped true to create MappedImageAndPersonLine objects.
+     * @return the parsed lines and person index.
+     * @throws IOException if the file cannot be read.
+     * @throws CSVException if the file contains an invalid record.
+     */
+    static Result parse(ByteBuffer buffer, String fileName, boolean mapped) throws IOException, CSVException {
+        return parse(buffer, fileName, DEFAULT_CHUNK_SIZE, mapped);
+    }
+
+    /**
+     * Parse the CSV file in parallel using chunks of approximately the specified size.
+     * This method is package-private so that tests can use small chunks.
+     * @param path the CSV file to parse.
+     * @param fileName the file name to use in error messages.
+     * @param chunkSize the approximate number of bytes in each chunk.
+     * @param mapped true to create MappedImageAndPersonLine objects.
+     * @return the parsed lines and person index.
+     * @throws IOException if the file cannot be read.
+     * @throws CSVException if the file contains an invalid record.
+     */
+    static Result parse(Path path, String fileName, int chunkSize, boolean mapped)
+            throws IOException, CSVException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), fileName, chunkSize, mapped);
+        }
+    }
+
+    private static Result parse(ByteBuffer buffer, String fileName, int chunkSize, boolean mapped)
+            throws IOException, CSVException {
+        try {
+            List<Chunk> chunks = split(buffer, chunkSize);
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "Parsing ", fileName, " in ", Integer.toString(chunks.size()), " chunks"));
+            if (chunks.isEmpty()) {
+                return new Result(new ArrayList<>(), new PersonIndex());
+            }
+            return ForkJoinPool.commonPool().invoke(
+                new ParseTask(new ParseJob(buffer, chunks, fileName, mapped), 0, chunks.size()));
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        } catch (ChunkException ce) {
+            throw ce.getCSVException();
+        }
+    }
+
+    // Finds record boundaries close to every chunkSize bytes. The scan follows the same states
+    // as CSVReader: a quote only opens a quoted field at the start of a field.
+    private static List<Chunk> split(ByteBuffer buffer, int chunkSize) {
+        List<Chunk> chunks = new ArrayList<>();
+        RecordScanner scanner = new RecordScanner(buffer);
+        int start = 0;
+        int firstRecord = 0;
+        while (start < buffer.limit()) {
+            int end = scanner.skipRecordsTo(start + chunkSize);
+            chunks.add(new Chunk(start, end, firstRecord));
+            firstRecord = scanner.getRecords();
+            start = end;
+        }
+        return chunks;
+    }
+
+    // Parses a range of chunks: one chunk directly, more than one by splitting the range in half.
+    private static final class ParseTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+        private final transient ParseJob job;
+        private final int from;
+        private final int to;
+
+        ParseTask(ParseJob parseJob, int from, int to) {
+            this.job = parseJob;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from == 1) {
+                return parseChunk(job.chunks().get(from));
+            }
+            int middle = (from + to) >>> 1;
+            ParseTask left = new ParseTask(job, from, middle);
+            ParseTask right = new ParseTask(job, middle, to);
+            left.fork();
+            Result rightResult = null;
+            RuntimeException rightFailure = null;
+            try {
+                rightResult = right.compute();
+            } catch (RuntimeException re) {
+                rightFailure = re;
+            }
+            // join first so that an error in an earlier chunk is reported first.
+            Result leftResult = left.join();
+            if (rightFailure != null) {
+                throw rightFailure;
+            }
+            return merge(leftResult, rightResult);
+        }
+
+        private Result parseChunk(Chunk chunk) {
+            try {
+                Result result = new Result(new ArrayList<>(), new PersonIndex());
+                if (job.mapped()) {
+                    parseMappedChunk(chunk, result);
+                } else {
+                    parseDecodedChunk(chunk, result);
+                }
+                return result;
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            } catch (CSVException csve) {
+                throw new ChunkException(csve);
+            }
+        }
+
+        private void parseDecodedChunk(Chunk chunk, Result result) throws IOException, CSVException {
+            CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+                .decode(job.buffer().slice(chunk.start(), chunk.end() - chunk.start()));
+            CSVReader reader = new CSVReader(
+                new CharArrayReader(chars.array(), chars.arrayOffset(), chars.limit()), chunk.firstRecord());
+            String[] fields = reader.readRecord();
+            while (fields != null) {
+                int index = reader.getRecordNumber() - 1;
+                add(result, InputCSV.createImageAndPersonLine(fields, index, job.fileName()), index);
+                fields = reader.readRecord();
+            }
+        }
+
+        private void parseMappedChunk(Chunk chunk, Result result) throws CSVException {
+            MappedCSVFile file = new MappedCSVFile(job.buffer(), chunk.start(), chunk.end(), chunk.firstRecord());
+            int[] bounds = file.nextRecord();
+            while (bounds != null) {
+                final int[] fieldBounds = bounds;
+                int index = file.getRecordNumber() - 1;
+                add(result, InputCSV.createImageAndPersonLine(
+                    () -> new MappedImageAndPersonLine(file, fieldBounds), index, job.fileName()), index);
+                bounds = file.nextRecord();
+            }
+        }
+
+        private static void add(Result result, ImageAndPersonLine line, int index) {
+            result.lines().add(line);
+            if (index != 0) { // skip header line
+                result.persons().add(line.getPersonFullName(), index);
+            }
+        }
+
+        private static Result merge(Result first, Result second) {
+            first.lines().addAll(second.lines());
+            first.persons().addAll(second.persons());
+            return first;
+        }
+    }
+
+    // Carries a CSVException out of a ForkJoinTask.
+    private static final class ChunkException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ChunkException(CSVException cause) {
+            super(cause);
+        }
+
+        CSVException getCSVException() {
+            Throwable t = this;
+            while (!(t instanceof CSVException)) {
+                t = t.getCause();
+            }
+            return (CSVException) t;
+        }
+    }
+
+    // Tracks the CSV field state of each byte and counts completed records.
+    private static final class RecordScanner {
+        private static final byte QUOTE = '"';
+        private static final byte SEPARATOR = ',';
+        private static final byte CR = '\r';
+        private static final byte LF = '\n';
+
+        private final ByteBuffer buffer;
+        private int position;
+        private int records;
+        private boolean quoted;
+        private boolean fieldStart = true;
+
+        RecordScanner(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int getRecords() {
+            return records;
+        }
+
+        // Skips complete records until a record starts at or after target, or the end of the
+        // buffer is reached. Returns the offset of the next record.
+        int skipRecordsTo(int target) {
+            int limit = buffer.limit();
+            while (position < limit) {
+                byte b = buffer.get(position++);
+                if (quoted) {
+                    scanQuoted(b);
+                } else if (scanUnquoted(b) && position >= target) {
+                    return position;
+                }
+            }
+            return limit;
+        }
+
+        private void scanQuoted(byte b) {
+            if (b == QUOTE) {
+                if (position < buffer.limit() && buffer.get(position) == QUOTE) {
+                    position++; // escaped quote
+                } else {
+                    quoted = false;
+                }
+            }
+        }
+
+        // Returns true if b ends a record.
+        private boolean scanUnquoted(byte b) {
+            if (b == CR || b == LF) {
+                if (b == CR && position < buffer.limit() && buffer.get(position) == LF) {
+                    position++;
+                }
+                records++;
+                fieldStart = true;
+                return true;
+            }
+            quoted = b == QUOTE && fieldStart;
+            fieldStart = b == SEPARATOR;
+            return false;
+        }
+    }
+}
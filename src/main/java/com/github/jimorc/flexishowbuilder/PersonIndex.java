@@ -0,0 +1,130 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PersonIndex maps each person's full name to the rows of the CSV file that contain that
+ * person's images. Persons are kept in the order in which they first appear in the file, and
+ * each person's rows are kept in file order as a growable array of int row ids, so adding a
+ * row is amortised O(1) and no ImageAndPersonLine arrays are copied while the file is parsed.
+ *
+ * Row ids are indexes into the lines of the file in file order. The header line is row 0 and
+ * is never added to the index. Person ids are the positions of the persons in that order, so
+ * a sort order can be stored as an array of person ids.
+ */
+final class PersonIndex {
+    private static final int INITIAL_CAPACITY = 4;
+    private final LinkedHashMap<String, RowIds> persons = new LinkedHashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /**
+     * Adds a row to the rows for the named person, adding the person if this is their first row.
+     * @param fullName the person's full name.
+     * @param row the row id.
+     */
+    void add(String fullName, int row) {
+        RowIds ids = persons.get(fullName);
+        if (ids == null) {
+            ids = new RowIds();
+            persons.put(fullName, ids);
+            names.add(fullName);
+        }
+        ids.add(row);
+    }
+
+    /**
+     * Adds all of the rows in another index, which must only contain rows after the rows in
+     * this index. Persons that are new to this index are added in their order in the other index.
+     * @param other the index to add.
+     */
+    void addAll(PersonIndex other) {
+        for (Map.Entry<String, RowIds> entry : other.persons.entrySet()) {
+            RowIds ids = persons.get(entry.getKey());
+            if (ids == null) {
+                persons.put(entry.getKey(), entry.getValue());
+                names.add(entry.getKey());
+            } else {
+                ids.addAll(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of persons in the index.
+     * @return the number of persons.
+     */
+    int size() {
+        return persons.size();
+    }
+
+    /**
+     * Determines whether the index contains the named person.
+     * @param fullName the person's full name.
+     * @return true if the person has at least one row.
+     */
+    boolean contains(String fullName) {
+        return persons.containsKey(fullName);
+    }
+
+    /**
+     * Returns the full names of the persons, in the order in which they were first added.
+     * @return the full names. The set is a view of the index.
+     */
+    Set<String> names() {
+        return persons.keySet();
+    }
+
+    /**
+     * Returns the full name of the person with the specified id.
+     * @param personId the person id, from 0 to size() - 1.
+     * @return the person's full name.
+     */
+    String name(int personId) {
+        return names.get(personId);
+    }
+
+    /**
+     * Returns the number of rows for the named person.
+     * @param fullName the person's full name.
+     * @return the number of rows, or 0 if the person is not in the index.
+     */
+    int rowCount(String fullName) {
+        RowIds ids = persons.get(fullName);
+        return ids == null ? 0 : ids.size;
+    }
+
+    /**
+     * Returns a row for the named person.
+     * @param fullName the person's full name.
+     * @param i the index of the row in the person's rows, from 0 to rowCount(fullName) - 1.
+     * @return the row id.
+     */
+    int row(String fullName, int i) {
+        return persons.get(fullName).values[i];
+    }
+
+    // A growable array of row ids.
+    private static final class RowIds {
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+
+        void add(int row) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = row;
+        }
+
+        void addAll(RowIds other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+}
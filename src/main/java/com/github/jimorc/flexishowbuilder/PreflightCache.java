@@ -0,0 +1,174 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.tinylog.Logger;
+
+/**
+ * PreflightCache stores the ImagePreflight result for each image file, together with the
+ * size and modification time of the file when it was inspected. It is kept in a small text
+ * file next to the CSV file, so reopening a folder only inspects the images that have changed
+ * since the last time the folder was validated.
+ *
+ * Each line of the cache file holds one image, as tab-separated fields:
+ * file name, size, modification time in milliseconds, format, width, height, truncated flag,
+ * severity and problem. The first line identifies the file format; a cache file with a different first
+ * line, or that cannot be parsed, is ignored and rebuilt.
+ *
+ * Lookups and updates may be made from several threads at once. The cache file is replaced
+ * atomically when it is saved, and only images that were looked up since the cache was loaded
+ * are saved, so images that are no longer in the CSV file are dropped.
+ */
+final class PreflightCache {
+    private static final String HEADER = "flexishowbuilder preflight cache 3";
+    private static final String SEPARATOR = "\t";
+    private static final int FIELDS = 9;
+    private static final int NAME = 0;
+    private static final int SIZE = 1;
+    private static final int MODIFIED = 2;
+    private static final int FORMAT = 3;
+    private static final int WIDTH = 4;
+    private static final int HEIGHT = 5;
+    private static final int TRUNCATED = 6;
+    private static final int SEVERITY = 7;
+    private static final int PROBLEM = 8;
+
+    private record Entry(long size, long modified, ImagePreflight.Result result) {}
+
+    private final Path file;
+    private final Map<String, Entry> loaded;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    private PreflightCache(Path cacheFile, Map<String, Entry> entries) {
+        file = cacheFile;
+        loaded = entries;
+    }
+
+    /**
+     * Returns the path of the cache file for a CSV file.
+     * @param csvFile the CSV file.
+     * @return the cache file, a hidden file in the same folder as the CSV file.
+     */
+    static Path forCSVFile(Path csvFile) {
+        return csvFile.resolveSibling("." + csvFile.getFileName() + ".preflight");
+    }
+
+    /**
+     * Loads the cache file. A missing or unreadable cache file results in an empty cache.
+     * @param cacheFile the cache file.
+     * @return the cache.
+     */
+    static PreflightCache load(Path cacheFile) {
+        Map<String, Entry> entries = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            if (HEADER.equals(reader.readLine())) {
+                String line = reader.readLine();
+                while (line != null) {
+                    String[] fields = line.split(SEPARATOR, -1);
+                    entries.put(fields[NAME], parse(fields));
+                    line = reader.readLine();
+                }
+            }
+        } catch (NoSuchFileException nsfe) {
+            // first validation of this folder.
+        } catch (IOException | RuntimeException e) {
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "Ignoring preflight cache ", cacheFile.toString(), ": ", e.toString()));
+            entries.clear();
+        }
+        return new PreflightCache(cacheFile, entries);
+    }
+
+    private static Entry parse(String[] fields) {
+        if (fields.length != FIELDS) {
+            throw new IllegalArgumentException("Invalid preflight cache line: " + String.join(SEPARATOR, fields));
+        }
+        ImagePreflight.Result result = new ImagePreflight.Result(fields[NAME],
+            ImagePreflight.Format.valueOf(fields[FORMAT]), Integer.parseInt(fields[WIDTH]),
+            Integer.parseInt(fields[HEIGHT]), Boolean.parseBoolean(fields[TRUNCATED]),
+            ImagePreflight.Severity.valueOf(fields[SEVERITY]), fields[PROBLEM].isEmpty() ? null : fields[PROBLEM]);
+        return new Entry(Long.parseLong(fields[SIZE]), Long.parseLong(fields[MODIFIED]), result);
+    }
+
+    /**
+     * Returns the cached result for an image file if the file has not changed since it was
+     * inspected.
+     * @param fileName the image file name.
+     * @param size the current size of the file.
+     * @param modified the current modification time of the file in milliseconds.
+     * @return the cached result, or null if there is none or the file has changed.
+     */
+    ImagePreflight.Result get(String fileName, long size, long modified) {
+        Entry entry = loaded.get(fileName);
+        if (entry == null || entry.size() != size || entry.modified() != modified) {
+            return null;
+        }
+        current.put(fileName, entry);
+        return entry.result();
+    }
+
+    /**
+     * Stores the result of inspecting an image file. Results for file names that cannot be
+     * stored in the cache file are not cached.
+     * @param size the size of the file when it was inspected.
+     * @param modified the modification time of the file in milliseconds when it was inspected.
+     * @param result the result.
+     */
+    void put(long size, long modified, ImagePreflight.Result result) {
+        if (!isStorable(result.fileName()) || !isStorable(Objects.toString(result.problem(), ""))) {
+            return;
+        }
+        current.put(result.fileName(), new Entry(size, modified, result));
+        changed = true;
+    }
+
+    private static boolean isStorable(String s) {
+        return s.indexOf('\t') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0;
+    }
+
+    /**
+     * Writes the cache file if any results were added, or any images were dropped, since the
+     * cache was loaded.
+     * @throws IOException if the cache file cannot be written.
+     */
+    void save() throws IOException {
+        if (!changed && current.size() == loaded.size()) {
+            return;
+        }
+        // a unique name, because a GUI and a command line build may save the same cache at once.
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Map.Entry<String, Entry> e : new TreeMap<>(current).entrySet()) {
+                    writer.write(format(e.getValue()));
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        changed = false;
+    }
+
+    private static String format(Entry entry) {
+        ImagePreflight.Result r = entry.result();
+        return String.join(SEPARATOR, r.fileName(), Long.toString(entry.size()), Long.toString(entry.modified()),
+            r.format().name(), Integer.toString(r.width()), Integer.toString(r.height()),
+            Boolean.toString(r.truncated()), r.severity().name(), Objects.toString(r.problem(), ""));
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * RoundRobinScheduler merges the entry lists of k persons into rounds of one entry from each
+ * person. Within a round, persons appear in rank order; a person whose entries are used up
+ * drops out of the remaining rounds.
+ *
+ * The scheduler is a k-way merge over a binary min-heap holding one slot per person that still
+ * has entries. Each slot is a long whose high 32 bits are the round of the person's next entry
+ * and whose low 32 bits are the person's rank, so the heap orders slots by round and then by
+ * rank without any comparator or boxing. Scheduling n entries for k persons takes
+ * O(n log k) time and O(k) space.
+ *
+ * ```java
+ * RoundRobinScheduler scheduler = new RoundRobinScheduler(counts);
+ * while (scheduler.next()) {
+ *     show(scheduler.getRank(), scheduler.getEntry());
+ * }
+ * ```
+ */
+final class RoundRobinScheduler {
+    private static final int RANK_BITS = 32;
+    private static final long RANK_MASK = 0xFFFFFFFFL;
+    private final int[] counts;
+    private final long[] heap;
+    private int heapSize;
+    private int round = -1;
+    private int rank = -1;
+
+    /**
+     * Constructor.
+     * @param entryCounts the number of entries for each person, in rank order. Persons with
+     * no entries are never scheduled.
+     * @throws IllegalArgumentException if a count is negative.
+     */
+    RoundRobinScheduler(int[] entryCounts) throws IllegalArgumentException {
+        counts = entryCounts.clone();
+        heap = new long[counts.length];
+        // slots for round 0 in rank order already satisfy the heap property.
+        for (int r = 0; r < counts.length; r++) {
+            if (counts[r] < 0) {
+                throw new IllegalArgumentException("Negative entry count for rank " + r + ": " + counts[r]);
+            }
+            if (counts[r] > 0) {
+                heap[heapSize++] = r;
+            }
+        }
+    }
+
+    /**
+     * Advances to the next scheduled entry.
+     * @return true if there is another entry, false if all entries have been scheduled.
+     */
+    boolean next() {
+        if (heapSize == 0) {
+            return false;
+        }
+        if (round >= 0 && round + 1 < counts[rank]) {
+            // the person's next entry goes in the next round.
+            heap[0] = slot(round + 1, rank);
+            siftDown(0);
+        } else if (round >= 0) {
+            heap[0] = heap[--heapSize];
+            siftDown(0);
+            if (heapSize == 0) {
+                return false;
+            }
+        }
+        round = (int) (heap[0] >>> RANK_BITS);
+        rank = (int) (heap[0] & RANK_MASK);
+        return true;
+    }
+
+    /**
+     * Returns the round of the current entry. Rounds are numbered from 0.
+     * @return the round.
+     */
+    int getRound() {
+        return round;
+    }
+
+    /**
+     * Returns the rank of the person whose entry is current.
+     * @return the rank.
+     */
+    int getRank() {
+        return rank;
+    }
+
+    /**
+     * Returns the index of the current entry in its person's entry list. An entry's index is
+     * the same as its round.
+     * @return the entry index.
+     */
+    int getEntry() {
+        return round;
+    }
+
+    private static long slot(int slotRound, int slotRank) {
+        return ((long) slotRound << RANK_BITS) | slotRank;
+    }
+
+    private void siftDown(int index) {
+        int i = index;
+        long value = heap[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.tinylog.Logger;
+
+/**
+ * ShowBuilder generates the title and person images for a slide show, and passes the lines
+ * of the show to a CSVLineSink in show order as they are generated. The images are rendered
+ * with Java2D on worker threads while the lines are generated, so this class does not need to
+ * run on the JavaFX application thread.
+ *
+ * A show may be built for several OutputProfiles in one run. The show is then built once, and
+ * the slides of each profile are written to a subfolder of the CSV file's folder, named by the
+ * profile, alongside an OutputCSV whose image references point back up to the CSV file's folder.
+ *
+ * If the data has a background image, it is decoded once and scaled once per profile. Builds
+ * that are given the same ShowResources object share the decoded image, the renderers, the
+ * slide cache and the worker threads, so several shows may be built at once.
+ */
+final class ShowBuilder {
+    private ShowBuilder() {}
+
+    /**
+     * Generates the slide show for the InputCSV object, with the slides of the first of the
+     * data's profiles written to the CSV file's folder.
+     * @param csv the InputCSV object containing the images and persons.
+     * @param data the title text, sort strategy, layout, last name setting and profiles.
+     * @param sink the sink to pass the lines of the show to.
+     * @throws CSVException if a person's lines cannot be retrieved from the InputCSV object.
+     * @throws IOException if the background image cannot be read, or a title or person image
+     * cannot be written.
+     */
+    static void build(InputCSV csv, TitleAndSortData data, CSVLineSink sink) throws CSVException, IOException {
+        try (ShowResources resources = ShowResources.openDefault()) {
+            build(csv, data, sink, resources);
+        }
+    }
+
+    /**
+     * Generates the slide show for the InputCSV object, with the slides of the first of the
+     * data's profiles written to the CSV file's folder, using shared resources.
+     * @param csv the InputCSV object containing the images and persons.
+     * @param data the title text, sort strategy, layout, last name setting and profiles.
+     * @param sink the sink to pass the lines of the show to.
+     * @param resources the worker threads, encoder, cache and renderers to use.
+     * @throws CSVException if a person's lines cannot be retrieved from the InputCSV object.
+     * @throws IOException if the background image cannot be read, or a title or person image
+     * cannot be written.
+     */
+    static void build(InputCSV csv, TitleAndSortData data, CSVLineSink sink, ShowResources resources)
+            throws CSVException, IOException {
+        Logger.trace("In ShowBuilder.build");
+        TitleSlideWriter.Output output = new TitleSlideWriter.Output(
+            resources.getRenderer(data.getProfiles().get(0), data.getBackground()), Path.of(csv.getFileDir()));
+        build(csv, data, sink, List.of(output), resources);
+    }
+
+    /**
+     * Generates the slide show for the InputCSV object once for each of the data's profiles.
+     * The slides of all of the profiles are rendered in parallel. Each profile's slides are
+     * written to its own subfolder of the CSV file's folder, which is created if necessary.
+     * @param csv the InputCSV object containing the images and persons.
+     * @param data the title text, sort strategy, layout, last name setting and profiles.
+     * @return the show for each profile, in profile order. Image references are relative to the
+     * profile's subfolder.
+     * @throws CSVException if a person's lines cannot be retrieved from the InputCSV object.
+     * @throws IOException if the background image cannot be read, or a subfolder, or a title or
+     * person image, cannot be written.
+     */
+    static Map<OutputProfile, OutputCSV> buildProfiles(InputCSV csv, TitleAndSortData data)
+            throws CSVException, IOException {
+        try (ShowResources resources = ShowResources.openDefault()) {
+            return buildProfiles(csv, data, resources);
+        }
+    }
+
+    /**
+     * Generates the slide show for the InputCSV object once for each of the data's profiles,
+     * using shared resources. See buildProfiles(InputCSV, TitleAndSortData).
+     * @param csv the InputCSV object containing the images and persons.
+     * @param data the title text, sort strategy, layout, last name setting and profiles.
+     * @param resources the worker threads, encoder, cache and renderers to use.
+     * @return the show for each profile, in profile order. Image references are relative to the
+     * profile's subfolder.
+     * @throws CSVException if a person's lines cannot be retrieved from the InputCSV object.
+     * @throws IOException if the background image cannot be read, or a subfolder, or a title or
+     * person image, cannot be written.
+     */
+    static Map<OutputProfile, OutputCSV> buildProfiles(InputCSV csv, TitleAndSortData data,
+            ShowResources resources) throws CSVException, IOException {
+        Logger.trace("In ShowBuilder.buildProfiles");
+        List<TitleSlideWriter.Output> outputs = new ArrayList<>();
+        for (OutputProfile profile : data.getProfiles()) {
+            Path dir = Files.createDirectories(getProfileDir(csv, profile));
+            outputs.add(new TitleSlideWriter.Output(resources.getRenderer(profile, data.getBackground()), dir));
+        }
+        OutputCSV show = new OutputCSV();
+        build(csv, data, show, outputs, resources);
+        Map<OutputProfile, OutputCSV> shows = new EnumMap<>(OutputProfile.class);
+        for (OutputProfile profile : data.getProfiles()) {
+            shows.put(profile, relocate(show));
+        }
+        return shows;
+    }
+
+    /**
+     * Returns the subfolder that a profile's slides are written to by buildProfiles.
+     * @param csv the InputCSV object.
+     * @param profile the profile.
+     * @return the subfolder of the CSV file's folder.
+     */
+    static Path getProfileDir(InputCSV csv, OutputProfile profile) {
+        return Path.of(csv.getFileDir(), profile.getFolderName());
+    }
+
+    // Passes the lines of the show to the sink, and writes its slides to every output.
+    private static void build(InputCSV csv, TitleAndSortData data, CSVLineSink sink,
+            List<TitleSlideWriter.Output> outputs, ShowResources resources) throws CSVException, IOException {
+        try (TitleSlideWriter slides = new TitleSlideWriter(outputs, resources)) {
+            sink.appendLine(csv.getLine(0));
+            slides.submit(data.getTitle(), "title.jpg");
+            sink.appendLine(new TitleImageLine("title.jpg"));
+
+            csv.sortNames(data.getStrategy());
+            ArrayList<String> fullNames = csv.getSortedFullNames();
+            if (data.getLayout() == ShowLayout.Grouped) {
+                buildGrouped(csv, data, fullNames, sink, slides);
+            } else {
+                buildInterleaved(csv, data, fullNames, sink, slides);
+            }
+            sink.appendLine(new TitleImageLine("title.jpg"));
+            int written = slides.await();
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "Show generated for ", Integer.toString(fullNames.size()), " persons with ",
+                Integer.toString(written), " title slides"));
+        }
+    }
+
+    // A person slide followed by all of the person's images, for each person.
+    private static void buildGrouped(InputCSV csv, TitleAndSortData data, List<String> fullNames, CSVLineSink sink,
+            TitleSlideWriter slides) throws CSVException {
+        for (String name : fullNames) {
+            sink.appendLine(new TitleImageLine(generatePersonImage(csv, data, name, slides)));
+            ImageAndPersonLine[] lines = csv.getImageLines(name);
+            for (ImageAndPersonLine line: lines) {
+                sink.appendLine(line);
+            }
+        }
+    }
+
+    // Rounds of one image from each person, each preceded by the person slide and optionally
+    // with a title slide at the start of each round. Each person image is generated once.
+    private static void buildInterleaved(InputCSV csv, TitleAndSortData data, List<String> fullNames,
+            CSVLineSink sink, TitleSlideWriter slides) throws CSVException {
+        ImageAndPersonLine[][] lines = new ImageAndPersonLine[fullNames.size()][];
+        int[] counts = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = csv.getImageLines(fullNames.get(i));
+            counts[i] = lines[i].length;
+        }
+        String[] personImages = new String[lines.length];
+        boolean roundTitles = data.getLayout() == ShowLayout.InterleavedWithRoundTitles;
+        int round = -1;
+        RoundRobinScheduler scheduler = new RoundRobinScheduler(counts);
+        while (scheduler.next()) {
+            if (roundTitles && scheduler.getRound() != round) {
+                round = scheduler.getRound();
+                sink.appendLine(new TitleImageLine(generateRoundImage(csv, round + 1, slides)));
+            }
+            int rank = scheduler.getRank();
+            if (personImages[rank] == null) {
+                personImages[rank] = generatePersonImage(csv, data, fullNames.get(rank), slides);
+            }
+            sink.appendLine(new TitleImageLine(personImages[rank]));
+            sink.appendLine(lines[rank][scheduler.getEntry()]);
+        }
+    }
+
+    // Submits the person slide and returns its file name relative to the output folder.
+    private static String generatePersonImage(InputCSV csv, TitleAndSortData data, String name,
+            TitleSlideWriter slides) throws CSVException {
+        Person person = csv.getPerson(name);
+        String fName = name.replaceAll(" ", "_") + ".jpg";
+        String title = "";
+        if (data.isLastNameAsInitial()) {
+            title = person.getFirstPlusInitial();
+        } else {
+            title = person.getFullName();
+        }
+        slides.submit(title, fName);
+        return fName;
+    }
+
+    // Submits the title slide for a round and returns its file name relative to the output folder.
+    private static String generateRoundImage(InputCSV csv, int round, TitleSlideWriter slides) {
+        String fName = "round_" + round + ".jpg";
+        slides.submit("Round " + round, fName);
+        return fName;
+    }
+
+    // Returns a copy of a show for a profile subfolder. The slides are in the subfolder, but
+    // the images are in its parent. The first line is the heading, which is copied unchanged.
+    private static OutputCSV relocate(OutputCSV show) {
+        OutputCSV relocated = new OutputCSV();
+        relocated.appendLine(show.getLine(0));
+        for (int i = 1; i < show.length(); i++) {
+            CSVLine line = show.getLine(i);
+            if (line instanceof ImageAndPersonLine ipl && !Path.of(ipl.getImageFileName()).isAbsolute()) {
+                String[] fields = new String[ipl.length()];
+                for (int f = 0; f < fields.length; f++) {
+                    fields[f] = ipl.field(f);
+                }
+                fields[ImageAndPersonLine.IMAGE_FILE_POSITION] = "../" + ipl.getImageFileName();
+                line = new ImageAndPersonLine(fields);
+            }
+            relocated.appendLine(line);
+        }
+        return relocated;
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * ShowLayout defines how the images of the persons are arranged in the slide show.
+ */
+public enum ShowLayout {
+    /**
+     * Grouped denotes a person slide followed by all of that person's images, for each person in
+     * sort order.
+     */
+    Grouped,
+    /**
+     * Interleaved denotes rounds of one image from each person, in sort order. Each image is
+     * preceded by its person slide. Persons with fewer images drop out of the later rounds.
+     */
+    Interleaved,
+    /**
+     * InterleavedWithRoundTitles denotes the Interleaved layout with a title slide at the start
+     * of each round.
+     */
+    InterleavedWithRoundTitles
+}
@@ -0,0 +1,136 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.tinylog.Logger;
+
+/**
+ * ShowResources holds what it costs to set up for building slide shows: the worker threads of
+ * the title slide pipeline, the pool of JPEG writers, the title slide cache, and the renderers
+ * with their fonts and scaled background templates. A single build uses its own resources;
+ * a batch of builds shares one ShowResources object, so that the shows draw on the same
+ * threads and caches instead of each setting up and competing with its own.
+ *
+ * The render and encode stages each have one worker thread for each available processor,
+ * and files are written on a single thread. Each stage has a bounded queue. When a queue is
+ * full, the thread that submits to it waits for room.
+ *
+ * All methods may be called from several threads at once.
+ */
+final class ShowResources implements AutoCloseable {
+    private final JpegEncoder encoder;
+    private final TitleSlideCache cache;
+    private final ThreadPoolExecutor renderStage;
+    private final ThreadPoolExecutor encodeStage;
+    private final ThreadPoolExecutor writeStage;
+    private final Map<Path, BackgroundTemplate> backgrounds = new HashMap<>();
+    private final Map<String, Java2DTitleRenderer> renderers = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param jpegEncoder the encoder for rendered slides.
+     * @param slideCache the cache of rendered slides, or null to render every slide.
+     */
+    ShowResources(JpegEncoder jpegEncoder, TitleSlideCache slideCache) {
+        encoder = jpegEncoder;
+        cache = slideCache;
+        int processors = Runtime.getRuntime().availableProcessors();
+        renderStage = createStage(processors);
+        encodeStage = createStage(processors);
+        writeStage = createStage(1);
+    }
+
+    /**
+     * Creates resources with the default JPEG quality and the title slide cache in the user's
+     * home folder.
+     * @return the resources.
+     */
+    static ShowResources openDefault() {
+        return new ShowResources(new JpegEncoder(JpegEncoder.DEFAULT_QUALITY), TitleSlideCache.openDefault());
+    }
+
+    /**
+     * Returns the renderer for a profile and background. Renderers are created once and then
+     * shared, so each background image is decoded once and scaled once for each profile.
+     * @param profile the profile to render slides for.
+     * @param background the background image, or null for a black background.
+     * @return the renderer.
+     * @throws IOException if the background image cannot be read.
+     */
+    synchronized TitleRenderer getRenderer(OutputProfile profile, Path background) throws IOException {
+        String key = profile + "\n" + background;
+        Java2DTitleRenderer renderer = renderers.get(key);
+        if (renderer == null) {
+            renderer = new Java2DTitleRenderer(profile, background == null ? null : getBackground(background));
+            renderers.put(key, renderer);
+        }
+        return renderer;
+    }
+
+    JpegEncoder getEncoder() {
+        return encoder;
+    }
+
+    TitleSlideCache getCache() {
+        return cache;
+    }
+
+    ThreadPoolExecutor getRenderStage() {
+        return renderStage;
+    }
+
+    ThreadPoolExecutor getEncodeStage() {
+        return encodeStage;
+    }
+
+    ThreadPoolExecutor getWriteStage() {
+        return writeStage;
+    }
+
+    /**
+     * Stops the worker threads and disposes of the encoder's writers. Slides that have not
+     * been written are cancelled.
+     */
+    @Override
+    public void close() {
+        renderStage.shutdownNow();
+        encodeStage.shutdownNow();
+        writeStage.shutdownNow();
+        encoder.dispose();
+    }
+
+    private BackgroundTemplate getBackground(Path file) throws IOException {
+        BackgroundTemplate background = backgrounds.get(file);
+        if (background == null) {
+            background = BackgroundTemplate.load(file);
+            backgrounds.put(file, background);
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "Loaded background image ", file.toString()));
+        }
+        return background;
+    }
+
+    private static ThreadPoolExecutor createStage(int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(TitleSlideWriter.QUEUE_CAPACITY), ShowResources::waitForRoom);
+    }
+
+    // Called when a stage's queue is full. Waits for room instead of rejecting the slide.
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor stage) {
+        if (stage.isShutdown()) {
+            throw new RejectedExecutionException("Title slide workers have been stopped");
+        }
+        try {
+            stage.getQueue().put(task);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to write title slide", ie);
+        }
+    }
+}
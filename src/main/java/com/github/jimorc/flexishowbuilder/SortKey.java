@@ -0,0 +1,42 @@
+package com.github.jimorc.flexishowbuilder;
+
+/**
+ * SortKey defines the values that persons can be sorted by. A SortStrategy combines one or
+ * more keys. Keys that are taken from a line use the person's first line in the CSV file.
+ */
+public enum SortKey {
+    /**
+     * FileOrder denotes the order in which persons first appear in the CSV file.
+     */
+    FileOrder,
+    /**
+     * FullName denotes the person's full name.
+     */
+    FullName,
+    /**
+     * LastName denotes the person's last name, from the Last Name column.
+     */
+    LastName,
+    /**
+     * FirstName denotes the person's first name, from the First Name column.
+     */
+    FirstName,
+    /**
+     * ImageTitle denotes the title of the person's first image.
+     */
+    ImageTitle,
+    /**
+     * ImageFileName denotes the file name of the person's first image, compared in natural
+     * order so that image2.jpg comes before image10.jpg.
+     */
+    ImageFileName,
+    /**
+     * EntryCount denotes the number of images entered by the person.
+     */
+    EntryCount,
+    /**
+     * Shuffle denotes a pseudo-random value computed from the strategy's seed and the person's
+     * full name. The same seed always gives the same order.
+     */
+    Shuffle
+}
@@ -0,0 +1,185 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * SortStrategy describes an order for the persons in a slide show as a list of sort keys,
+ * each ascending or descending. Persons are compared by the first key, then by the next key
+ * when the first keys are equal, and so on. Persons that are equal on every key stay in file
+ * order.
+ *
+ * ```java
+ * SortStrategy strategy = new SortStrategy("Most entries first", "...", 0,
+ *     SortStrategy.descending(SortKey.EntryCount), SortStrategy.ascending(SortKey.LastName));
+ * csv.sortNames(strategy);
+ * ```
+ *
+ * Two strategies with the same keys and seed are equal, whatever their names.
+ */
+public final class SortStrategy {
+    /** The seed used by the built-in shuffled strategy. */
+    public static final long DEFAULT_SEED = 2024;
+    private static final List<SortStrategy> STRATEGIES = List.of(
+        forOrder(SortOrder.AsIs),
+        forOrder(SortOrder.AlphabeticalByFullName),
+        forOrder(SortOrder.AlphabeticalByLastNameThenFirstName),
+        forOrder(SortOrder.AlphabeticalByFullNameReverse),
+        forOrder(SortOrder.AlphabeticalByLastNameThenFirstNameReverse),
+        new SortStrategy("By Image Title", "Sort by the title of each person's first image.\n"
+            + "All images for each person are grouped together.", 0, ascending(SortKey.ImageTitle)),
+        new SortStrategy("By Image File Name", "Sort by the file name of each person's first image, "
+            + "so that\nimage2.jpg comes before image10.jpg. All images for each person are grouped together.",
+            0, ascending(SortKey.ImageFileName)),
+        new SortStrategy("Most Entries First", "Sort by the number of images each person entered, most "
+            + "first,\nthen by last name and first name. All images for each person are grouped together.",
+            0, descending(SortKey.EntryCount), ascending(SortKey.LastName), ascending(SortKey.FirstName)),
+        shuffle(DEFAULT_SEED));
+
+    private final String name;
+    private final String description;
+    private final long seed;
+    private final List<Criterion> criteria;
+
+    /**
+     * Constructor - creates a strategy from one or more criteria.
+     * @param name the name to display for the strategy.
+     * @param description a description of the strategy, for tooltips.
+     * @param seed the seed for the Shuffle key. Ignored if the strategy does not use Shuffle.
+     * @param criteria the keys to sort by, most significant first.
+     * @throws IllegalArgumentException if no criteria are specified.
+     */
+    public SortStrategy(String name, String description, long seed, Criterion... criteria) {
+        if (criteria.length == 0) {
+            throw new IllegalArgumentException("A SortStrategy requires at least one criterion");
+        }
+        this.name = name;
+        this.description = description;
+        this.seed = seed;
+        this.criteria = List.of(criteria);
+    }
+
+    /**
+     * A sort key and its direction.
+     * @param key the sort key.
+     * @param descending true to sort from the highest value to the lowest.
+     */
+    public record Criterion(SortKey key, boolean descending) {}
+
+    /**
+     * Creates an ascending criterion.
+     * @param key the sort key.
+     * @return the criterion.
+     */
+    public static Criterion ascending(SortKey key) {
+        return new Criterion(key, false);
+    }
+
+    /**
+     * Creates a descending criterion.
+     * @param key the sort key.
+     * @return the criterion.
+     */
+    public static Criterion descending(SortKey key) {
+        return new Criterion(key, true);
+    }
+
+    /**
+     * Returns the strategy for one of the original sort orders.
+     * @param order the sort order.
+     * @return the equivalent strategy.
+     */
+    public static SortStrategy forOrder(SortOrder order) {
+        final String grouped = "\nAll images for each person are grouped together.";
+        switch (order) {
+            case AsIs:
+                return new SortStrategy("As Is", "No sorting - use the order in the CSV file." + grouped,
+                    0, ascending(SortKey.FileOrder));
+            case AlphabeticalByFullName:
+                return new SortStrategy("Alphabetical by Full Name",
+                    "Sort by person's full name (first name then last name)." + grouped,
+                    0, ascending(SortKey.FullName));
+            case AlphabeticalByLastNameThenFirstName:
+                return new SortStrategy("Alphabetical by Last Name then First Name",
+                    "Sort by person's last name then first name." + grouped, 0,
+                    ascending(SortKey.LastName), ascending(SortKey.FirstName), ascending(SortKey.FullName));
+            case AlphabeticalByFullNameReverse:
+                return new SortStrategy("Alphabetical by Full Name Reverse",
+                    "Sort by person's full name (first name then last name) in reverse order." + grouped,
+                    0, descending(SortKey.FullName));
+            case AlphabeticalByLastNameThenFirstNameReverse:
+                return new SortStrategy("Alphabetical by Last Name then First Name Reverse",
+                    "Sort by person's last name then first name in reverse order." + grouped, 0,
+                    descending(SortKey.LastName), descending(SortKey.FirstName), descending(SortKey.FullName));
+            default:
+                throw new IllegalArgumentException("Invalid sort order: " + order);
+        }
+    }
+
+    /**
+     * Returns a strategy that shuffles the persons. The order depends only on the seed and the
+     * persons' full names, so it is reproducible, for example for anonymous judging.
+     * @param seed the seed.
+     * @return the shuffled strategy.
+     */
+    public static SortStrategy shuffle(long seed) {
+        return new SortStrategy("Shuffled (seed " + seed + ")", "Shuffle the persons into a repeatable "
+            + "random order,\nfor example for anonymous judging. All images for each person are grouped together.",
+            seed, ascending(SortKey.Shuffle));
+    }
+
+    /**
+     * Returns the built-in strategies, in the order in which they should be offered.
+     * @return the built-in strategies.
+     */
+    public static List<SortStrategy> getStrategies() {
+        return STRATEGIES;
+    }
+
+    /**
+     * Returns the name of the strategy.
+     * @return the name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the description of the strategy.
+     * @return the description.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the seed for the Shuffle key.
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the criteria, most significant first.
+     * @return an unmodifiable list of the criteria.
+     */
+    public List<Criterion> getCriteria() {
+        return criteria;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SortStrategy s && seed == s.seed && criteria.equals(s.criteria);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(seed, criteria);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -8,7 +8,6 @@ import javafx.scene.Scene;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
-import javax.swing.filechooser.FileSystemView;
 import org.tinylog.Logger;
 
 /**
@@ -46,18 +45,31 @@ public class StartStage extends FlexiStage {
         Logger.trace("Returning from StartStage constructor");
     }
 
+    // Returns the folder that the FileChooser starts in: the Desktop on Windows, as Swing's
+    // FileSystemView returns, and the home folder elsewhere. FileSystemView is not used, because
+    // it would load Swing and start AWT.
+    private static File getStartFolder() {
+        File home = new File(System.getProperty("user.home"));
+        File desktop = new File(home, "Desktop");
+        if (System.getProperty("os.name", "").startsWith("Windows") && desktop.isDirectory()) {
+            return desktop;
+        }
+        return home;
+    }
+
     private void loadCSVFile() {
         //BuilderGUI.LOG.debug("Building and showing FileChooser");
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Select CSV File");
-        fileChooser.setInitialDirectory(FileSystemView.getFileSystemView().getHomeDirectory());
+        fileChooser.setInitialDirectory(getStartFolder());
         fileChooser.getExtensionFilters().add(new ExtensionFilter("CSV Files", "*.csv"));
         File csvFile = fileChooser.showOpenDialog(null);
         Logger.trace("Back from FileChooser");
 
         if (csvFile != null) {
             try {
-                iCSV = new InputCSV(csvFile);
+                // TitleAndSortStage reloads the file when it changes, so it is not memory mapped.
+                iCSV = new InputCSV(csvFile, LineStorage.Objects);
             } catch (CSVException e) {
                 Logger.error("InputCSV threw CSVException: ", e);
                 BuilderGUI.handleCSVException(e);
@@ -1,44 +1,73 @@
 package com.github.jimorc.flexishowbuilder;
 
+import java.nio.file.Path;
+import java.util.List;
+
 /**
  * TitleAndSortData contains the data retrieved from TitleAndSortDialog.
 */
 public class TitleAndSortData {
     private final String title;
-    private SortOrder order;
+    private SortStrategy strategy;
+    private final ShowLayout layout;
     private final boolean lastNameAsInitial;
+    private final List<OutputProfile> profiles;
+    private final Path background;
 
     /**
      * Constructor.
      * @param title contents of the title input
-     * @param order sort order
+     * @param strategy sort strategy
+     * @param layout show layout
      * @param lastNameAsInitial display last name as initial?
+     * @param profiles the output profiles to build the show for. There must be at least one.
+     * @param background the background image of the title and person slides, or null for a
+     * black background.
      */
-    TitleAndSortData(String title, SortOrder order, boolean lastNameAsInitial) {
+    TitleAndSortData(String title, SortStrategy strategy, ShowLayout layout, boolean lastNameAsInitial,
+            List<OutputProfile> profiles, Path background) {
         this.title = title;
-        this.order = order;
+        this.strategy = strategy;
+        this.layout = layout;
         this.lastNameAsInitial = lastNameAsInitial;
+        this.profiles = List.copyOf(profiles);
+        this.background = background;
     }
 
     public String getTitle() {
         return title;
     }
 
-    public SortOrder getOrder() {
-        return order;
+    public SortStrategy getStrategy() {
+        return strategy;
+    }
+
+    public ShowLayout getLayout() {
+        return layout;
     }
 
     public boolean isLastNameAsInitial() {
         return lastNameAsInitial;
     }
 
+    public List<OutputProfile> getProfiles() {
+        return profiles;
+    }
+
+    public Path getBackground() {
+        return background;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
         sb.append("TitleAndSortData:");
         sb.append("\n   title: " + title);
-        sb.append("\n   sortOrder: " + order);
-        sb.append("\n   lastNameAsInitial: " + isLastNameAsInitial() + "\n");
+        sb.append("\n   sortStrategy: " + strategy);
+        sb.append("\n   layout: " + layout);
+        sb.append("\n   lastNameAsInitial: " + isLastNameAsInitial());
+        sb.append("\n   profiles: " + profiles);
+        sb.append("\n   background: " + background + "\n");
         return sb.toString();
     }
 }
@@ -1,11 +1,19 @@
 package com.github.jimorc.flexishowbuilder;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.ToggleGroup;
@@ -14,31 +22,95 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
+import javafx.stage.FileChooser.ExtensionFilter;
 import org.tinylog.Logger;
 
 /**
  * TitleAndSortStage contains inputs for title image text and the image sort order.
+ *
+ * The order of the persons for the selected sort order is previewed as the sort order is
+ * changed. The InputCSV object caches each order, so switching orders does not re-sort.
+ *
+ * While the stage is open, the input CSV file is watched. Entries appended to the file are
+ * merged into the InputCSV object and the summary at the top of the stage is updated.
  */
 public class TitleAndSortStage extends FlexiStage {
     private final int spacing = 10;
-    private SortOrder sortOrder = SortOrder.AsIs;
+    private SortStrategy sortStrategy = SortStrategy.getStrategies().get(0);
     private TextArea titleArea;
     private ToggleGroup sortGroup;
-    private RadioButton noneButton;
-    private RadioButton alphaFullButton;
-    private RadioButton alphaLastFirstButton;
-    private RadioButton alphaFullRevButton;
-    private RadioButton alphaLastFirstRevButton;
+    private List<RadioButton> sortButtons;
+    private ToggleGroup layoutGroup;
+    private List<RadioButton> layoutButtons;
+    private ToggleGroup profileGroup;
+    private List<RadioButton> profileButtons;
+    private Path background;
+    private Label backgroundLabel;
     private CheckBox lastNameCheckBox;
+    private final InputCSV inputCSV;
+    private Label csvLabel;
+    private ListView<String> previewList;
+    private CSVFileWatcher watcher;
 
     /**
      * Constructor.
+     * @param csv the loaded InputCSV object. The CSV file is watched for changes while the
+     * stage is showing.
      */
-    public TitleAndSortStage() {
+    public TitleAndSortStage(InputCSV csv) {
         Logger.debug("In TitleAndSortStage constructor");
+        inputCSV = csv;
         VBox vbox = createBox();
         Scene scene = new Scene(vbox);
         this.setScene(scene);
+        setOnShown(_ -> startWatching());
+        setOnHidden(_ -> stopWatching());
+    }
+
+    private void startWatching() {
+        try {
+            File csvFile = new File(inputCSV.getFileDir(), inputCSV.getFileName());
+            watcher = new CSVFileWatcher(csvFile.toPath(), () -> Platform.runLater(this::reloadCSV));
+        } catch (IOException ioe) {
+            Logger.error("Unable to watch CSV file for changes: ", ioe);
+        }
+    }
+
+    private void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException ioe) {
+                Logger.error("Unable to stop watching CSV file: ", ioe);
+            }
+            watcher = null;
+        }
+    }
+
+    private void reloadCSV() {
+        try {
+            if (inputCSV.reload() != CSVChange.None) {
+                updateCSVLabel();
+                updatePreview();
+            }
+        } catch (CSVException csve) {
+            Logger.error(BuilderGUI.buildLogMessage("Reload of CSV file failed: ", csve.getMessage()));
+            csvLabel.setText("CSV file changed but could not be loaded:\n" + csve.getMessage());
+        } catch (IOException ioe) {
+            Logger.error("IOException reloading CSV file: ", ioe);
+            csvLabel.setText("CSV file changed but could not be read:\n" + ioe.getMessage());
+        }
+    }
+
+    private void updatePreview() {
+        previewList.setItems(FXCollections.observableList(inputCSV.getSortedFullNames(sortStrategy)));
+    }
+
+    private void updateCSVLabel() {
+        csvLabel.setText(BuilderGUI.buildLogMessage(inputCSV.getFileName(), ": ",
+            Integer.toString(inputCSV.getNumberOfPersons()), " persons, ",
+            Integer.toString(inputCSV.getNumberOfLines() - 1), " images"));
     }
 
     /**
@@ -46,8 +118,8 @@ public class TitleAndSortStage extends FlexiStage {
      * @return data set in stage object.
      */
     public TitleAndSortData getData() {
-        TitleAndSortData data = new TitleAndSortData(titleArea.getText(), sortOrder,
-            lastNameCheckBox.isSelected());
+        TitleAndSortData data = new TitleAndSortData(titleArea.getText(), sortStrategy,
+            getLayout(), lastNameCheckBox.isSelected(), getProfiles(), background);
         return data;
     }
 
@@ -65,16 +137,35 @@ public class TitleAndSortStage extends FlexiStage {
         final Font labelFont = Font.font("Arial", FontWeight.BOLD, fontSize);
         Insets vBoxInsets = new Insets(topMargin, rightMargin, bottomMargin, leftMargin);
         Insets tLabelInsets = new Insets(tLabelMarginTop, rightMargin, bottomMargin, leftMargin);
+        csvLabel = new Label();
+        VBox.setMargin(csvLabel, tLabelInsets);
+        updateCSVLabel();
         Label titleLabel = createTitleLabel(labelFont, tLabelInsets);
         titleArea = createTextArea(vBoxInsets);
 
         Label sortLabel = createSortLabel(labelFont, vBoxInsets);
         sortGroup = new ToggleGroup();
-        createNoneButton(vBoxInsets);
-        createAlphaFullButton(vBoxInsets);
-        createAlphaLastFirstButton(vBoxInsets);
-        createAlphaFullRevButton(vBoxInsets);
-        createAlphaLastFirstRevButton(vBoxInsets);
+        createSortButtons(vBoxInsets);
+        Label previewLabel = createPreviewLabel(labelFont, vBoxInsets);
+        createPreviewList(vBoxInsets);
+        sortGroup.selectedToggleProperty().addListener((_, _, toggle) -> {
+            if (toggle != null) {
+                sortStrategy = (SortStrategy) toggle.getUserData();
+                updatePreview();
+            }
+        });
+        updatePreview();
+
+        Label layoutLabel = createLayoutLabel(labelFont, vBoxInsets);
+        layoutGroup = new ToggleGroup();
+        createLayoutButtons(vBoxInsets);
+
+        Label profileLabel = createProfileLabel(labelFont, vBoxInsets);
+        profileGroup = new ToggleGroup();
+        createProfileButtons(vBoxInsets);
+
+        Label backgroundTitle = createBackgroundTitle(labelFont, vBoxInsets);
+        HBox backgroundBox = createBackgroundBox(vBoxInsets);
 
         Label lastNameLabel = createLastNameLabel(fontSize, vBoxInsets);
         createLastNameCheckBox(vBoxInsets);
@@ -82,9 +173,14 @@ public class TitleAndSortStage extends FlexiStage {
         HBox buttonBox = createButtonBox(buttonTopMargin, buttonRightMargin, buttonBottomMargin, buttonLeftMargin);
 
         VBox vbox = new VBox(spacing);
-        vbox.getChildren().addAll(titleLabel, titleArea, sortLabel, noneButton,
-            alphaFullButton, alphaLastFirstButton, alphaFullRevButton, alphaLastFirstRevButton,
-            lastNameLabel, lastNameCheckBox, buttonBox);
+        vbox.getChildren().addAll(csvLabel, titleLabel, titleArea, sortLabel);
+        vbox.getChildren().addAll(sortButtons);
+        vbox.getChildren().addAll(previewLabel, previewList, layoutLabel);
+        vbox.getChildren().addAll(layoutButtons);
+        vbox.getChildren().add(profileLabel);
+        vbox.getChildren().addAll(profileButtons);
+        vbox.getChildren().addAll(backgroundTitle, backgroundBox);
+        vbox.getChildren().addAll(lastNameLabel, lastNameCheckBox, buttonBox);
         return vbox;
     }
 
@@ -141,63 +237,131 @@ public class TitleAndSortStage extends FlexiStage {
         return sortLabel;
     }
 
-    private void createNoneButton(Insets insets) {
-        noneButton = createRadioButton("As Is", sortGroup, SortOrder.AsIs);
-        Tooltip noneTooltip = new Tooltip("No sorting - use the order in the CSV file.\n"
-            + "All images for each person are grouped together.");
-        noneButton.setTooltip(noneTooltip);
-        noneButton.setOnAction(_ -> {
-            sortOrder = SortOrder.AsIs;
-        });
-        noneButton.setSelected(true);
-        VBox.setMargin(noneButton, insets);
+    private Label createPreviewLabel(final Font labelFont, final Insets insets) {
+        Label previewLabel = new Label("Order of Persons");
+        previewLabel.setFont(labelFont);
+        VBox.setMargin(previewLabel, insets);
+        return previewLabel;
     }
 
-    private void createAlphaFullButton(Insets insets) {
-        alphaFullButton = createRadioButton("Alphabetical by Full Name", sortGroup, SortOrder.AlphabeticalByFullName);
-        alphaFullButton.setOnAction(_ -> {
-            sortOrder = SortOrder.AlphabeticalByFullName;
-        });
-        Tooltip alphaFullTooltip = new Tooltip("Sort by person's full name (first name then last "
-            + "name).\nAll images for each person are grouped together.");
-        alphaFullButton.setTooltip(alphaFullTooltip);
-        VBox.setMargin(alphaFullButton, insets);
+    private void createPreviewList(Insets insets) {
+        final int prefHeight = 150;
+        previewList = new ListView<>();
+        previewList.setPrefHeight(prefHeight);
+        previewList.setFocusTraversable(false);
+        previewList.setTooltip(new Tooltip("The order in which the persons will appear in the slide show."));
+        VBox.setMargin(previewList, insets);
     }
 
-    private void createAlphaLastFirstRevButton(Insets insets) {
-        alphaLastFirstRevButton = createRadioButton("Alphabetical by Last Name then First Name Reverse",
-            sortGroup, SortOrder.AlphabeticalByLastNameThenFirstNameReverse);
-        alphaLastFirstRevButton.setOnAction(_ -> {
-            sortOrder = SortOrder.AlphabeticalByLastNameThenFirstNameReverse;
-        });
-        Tooltip alphaLastFirstRevTooltip = new Tooltip("Sort by person's last name then first name "
-            + "in reverse order.\nAll images for each person are grouped together.");
-        alphaLastFirstRevButton.setTooltip(alphaLastFirstRevTooltip);
-        VBox.setMargin(alphaLastFirstRevButton, insets);
+    // One button for each of the available sort strategies. The first strategy is selected.
+    private void createSortButtons(Insets insets) {
+        sortButtons = new ArrayList<>();
+        for (SortStrategy strategy : SortStrategy.getStrategies()) {
+            RadioButton button = createRadioButton(strategy.getName(), sortGroup, strategy);
+            button.setTooltip(new Tooltip(strategy.getDescription()));
+            VBox.setMargin(button, insets);
+            sortButtons.add(button);
+        }
+        sortButtons.get(0).setSelected(true);
     }
 
-    private void createAlphaLastFirstButton(Insets insets) {
-        alphaLastFirstButton = createRadioButton("Alphabetical by Last Name then First Name",
-            sortGroup, SortOrder.AlphabeticalByLastNameThenFirstName);
-        alphaLastFirstButton.setOnAction(_ -> {
-            sortOrder = SortOrder.AlphabeticalByLastNameThenFirstName;
-        });
-        Tooltip alphaLastFirstTooltip = new Tooltip("Sort by person's last name then first name.\n"
-            + "All images for each person are grouped together.");
-        alphaLastFirstButton.setTooltip(alphaLastFirstTooltip);
-        VBox.setMargin(alphaLastFirstButton, insets);
+    private void createLayoutButtons(Insets insets) {
+        layoutButtons = new ArrayList<>();
+        addLayoutButton("Grouped by Person", ShowLayout.Grouped, "Each person slide is followed by all of that "
+            + "person's images.", insets);
+        addLayoutButton("Interleaved", ShowLayout.Interleaved, "Rounds of one image from each person, in the "
+            + "sort order above.\nEach image is preceded by its person slide.", insets);
+        addLayoutButton("Interleaved with Round Titles", ShowLayout.InterleavedWithRoundTitles, "Rounds of one "
+            + "image from each person, with a\n\"Round n\" title slide at the start of each round.", insets);
+        layoutButtons.get(0).setSelected(true);
     }
 
-    private void createAlphaFullRevButton(Insets insets) {
-        alphaFullRevButton = createRadioButton("Alphabetical by Full Name Reverse",
-            sortGroup, SortOrder.AlphabeticalByFullNameReverse);
-        alphaFullRevButton.setOnAction(_ -> {
-            sortOrder = SortOrder.AlphabeticalByFullNameReverse;
+    private void addLayoutButton(String text, ShowLayout layout, String tooltip, Insets insets) {
+        RadioButton button = createRadioButton(text, layoutGroup, layout);
+        button.setTooltip(new Tooltip(tooltip));
+        VBox.setMargin(button, insets);
+        layoutButtons.add(button);
+    }
+
+    private ShowLayout getLayout() {
+        return (ShowLayout) layoutGroup.getSelectedToggle().getUserData();
+    }
+
+    private Label createLayoutLabel(final Font labelFont, final Insets insets) {
+        Label layoutLabel = new Label("Show Layout");
+        layoutLabel.setFont(labelFont);
+        VBox.setMargin(layoutLabel, insets);
+        return layoutLabel;
+    }
+
+    // One button for each profile, and one for all of them. The Standard profile is selected.
+    private void createProfileButtons(Insets insets) {
+        profileButtons = new ArrayList<>();
+        for (OutputProfile profile : OutputProfile.values()) {
+            addProfileButton(profile.getDescription(), List.of(profile), "Slides are written to the CSV "
+                + "file's folder.", insets);
+        }
+        addProfileButton("All Profiles", List.of(OutputProfile.values()), "The slides and XLS file for each "
+            + "profile are written to a\nsubfolder of the CSV file's folder, named after the profile.", insets);
+        profileButtons.get(0).setSelected(true);
+    }
+
+    private void addProfileButton(String text, List<OutputProfile> profiles, String tooltip, Insets insets) {
+        RadioButton button = createRadioButton(text, profileGroup, profiles);
+        button.setTooltip(new Tooltip(tooltip));
+        VBox.setMargin(button, insets);
+        profileButtons.add(button);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutputProfile> getProfiles() {
+        return (List<OutputProfile>) profileGroup.getSelectedToggle().getUserData();
+    }
+
+    private Label createProfileLabel(final Font labelFont, final Insets insets) {
+        Label profileLabel = new Label("Output Profile");
+        profileLabel.setFont(labelFont);
+        VBox.setMargin(profileLabel, insets);
+        return profileLabel;
+    }
+
+    private Label createBackgroundTitle(final Font labelFont, final Insets insets) {
+        Label backgroundTitle = new Label("Slide Background");
+        backgroundTitle.setFont(labelFont);
+        VBox.setMargin(backgroundTitle, insets);
+        return backgroundTitle;
+    }
+
+    // The name of the background image, with buttons to choose an image or a black background.
+    private HBox createBackgroundBox(Insets insets) {
+        backgroundLabel = new Label("Black");
+        FlexiButton choose = new FlexiButton("Choose Image...");
+        choose.setTooltip(new Tooltip("Choose an image, such as a club logo, to draw the title and "
+            + "person slides on.\nThe image is scaled to fill the slides."));
+        choose.setOnAction(_ -> chooseBackground());
+        FlexiButton black = new FlexiButton("Black");
+        black.setTooltip(new Tooltip("Draw the title and person slides on a black background."));
+        black.setOnAction(_ -> {
+            background = null;
+            backgroundLabel.setText("Black");
         });
-        Tooltip alphaFullRevTooltip = new Tooltip("Sort by person's full name (first name then last "
-            + "name) in reverse order.\nAll images for each person are grouped together.");
-        alphaFullRevButton.setTooltip(alphaFullRevTooltip);
-        VBox.setMargin(alphaFullRevButton, insets);
+        HBox box = new HBox(spacing, choose, black, backgroundLabel);
+        box.setAlignment(Pos.CENTER_LEFT);
+        VBox.setMargin(box, insets);
+        return box;
+    }
+
+    private void chooseBackground() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select Background Image");
+        fileChooser.setInitialDirectory(new File(inputCSV.getFileDir()));
+        fileChooser.getExtensionFilters().add(new ExtensionFilter("Image Files", "*.jpg", "*.jpeg", "*.png"));
+        File file = fileChooser.showOpenDialog(this);
+        if (file != null) {
+            background = file.toPath();
+            backgroundLabel.setText(file.getName());
+            Logger.debug(BuilderGUI.buildLogMessage("Background image selected: ", file.toString()));
+        }
     }
 
     private TextArea createTextArea(Insets insets) {
@@ -214,10 +378,10 @@ public class TitleAndSortStage extends FlexiStage {
         return textArea;
     }
 
-    private RadioButton createRadioButton(String text, ToggleGroup group, SortOrder order) {
+    private RadioButton createRadioButton(String text, ToggleGroup group, Object userData) {
         RadioButton button = new RadioButton(text);
         button.setToggleGroup(group);
-        button.setUserData(order);
+        button.setUserData(userData);
         return button;
     }
 
@@ -227,7 +391,7 @@ public class TitleAndSortStage extends FlexiStage {
      * @return TitleAndSortData object for the settings in this stage.
      */
     public TitleAndSortData getSortData() {
-        return new TitleAndSortData(titleArea.getText(), sortOrder,
-            lastNameCheckBox.isSelected());
+        return new TitleAndSortData(titleArea.getText(), sortStrategy,
+            getLayout(), lastNameCheckBox.isSelected(), getProfiles(), background);
     }
 }
@@ -0,0 +1,105 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.awt.font.TextAttribute;
+import java.util.Map;
+
+/**
+ * TitleLayout splits a caption into lines and measures them in the caption font. The
+ * measurements are stored per point of font size, so one layout serves slides of every
+ * OutputProfile: when several profiles are built in one run, each caption is laid out once
+ * and the layout is scaled to each profile's font size.
+ *
+ * Layouts are immutable, so one may be shared by several rendering threads.
+ */
+final class TitleLayout {
+    /** The caption font, at the Standard profile's size. */
+    static final Font FONT = new Font(Map.of(
+        TextAttribute.FAMILY, Font.SANS_SERIF,
+        TextAttribute.WEIGHT, TextAttribute.WEIGHT_ULTRABOLD,
+        TextAttribute.SIZE, (float) TitleRenderer.FONT_SIZE));
+    // antialiased with fractional metrics, so that widths scale with the font size.
+    private static final FontRenderContext CONTEXT = new FontRenderContext(null, true, true);
+    private final String caption;
+    private final String[] lines;
+    private final float[] widths;
+    private final float ascent;
+    private final float descent;
+
+    private TitleLayout(String text) {
+        caption = text;
+        lines = text.split("\n", -1);
+        widths = new float[lines.length];
+        float size = FONT.getSize2D();
+        for (int i = 0; i < lines.length; i++) {
+            widths[i] = (float) FONT.getStringBounds(lines[i], CONTEXT).getWidth() / size;
+        }
+        LineMetrics metrics = FONT.getLineMetrics(text, CONTEXT);
+        ascent = metrics.getAscent() / size;
+        descent = metrics.getDescent() / size;
+    }
+
+    /**
+     * Lays out a caption.
+     * @param caption the caption. Lines are separated by newline characters.
+     * @return the layout.
+     */
+    static TitleLayout of(String caption) {
+        return new TitleLayout(caption);
+    }
+
+    /**
+     * Returns the caption that was laid out.
+     * @return the caption.
+     */
+    String getCaption() {
+        return caption;
+    }
+
+    /**
+     * Returns the number of lines in the caption.
+     * @return the number of lines.
+     */
+    int getLineCount() {
+        return lines.length;
+    }
+
+    /**
+     * Returns a line of the caption.
+     * @param index the index of the line.
+     * @return the line.
+     */
+    String getLine(int index) {
+        return lines[index];
+    }
+
+    /**
+     * Returns the width of a line at a font size.
+     * @param index the index of the line.
+     * @param fontSize the font size in points.
+     * @return the width in pixels.
+     */
+    float getWidth(int index, float fontSize) {
+        return widths[index] * fontSize;
+    }
+
+    /**
+     * Returns the ascent of the font at a font size.
+     * @param fontSize the font size in points.
+     * @return the ascent in pixels.
+     */
+    float getAscent(float fontSize) {
+        return ascent * fontSize;
+    }
+
+    /**
+     * Returns the height of each line at a font size.
+     * @param fontSize the font size in points.
+     * @return the line height in pixels.
+     */
+    float getLineHeight(float fontSize) {
+        return (ascent + descent) * fontSize;
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * TitleRenderer draws the caption of a title or person slide: yellow text, centred line by
+ * line, on a black background. The constants are the resolution and font size of the
+ * Standard OutputProfile.
+ */
+interface TitleRenderer {
+    /** The width of a Standard title slide in pixels. */
+    int IMAGE_WIDTH = 1400;
+    /** The height of a Standard title slide in pixels. */
+    int IMAGE_HEIGHT = 1050;
+    /** The size of the caption font of a Standard title slide in points. */
+    int FONT_SIZE = 48;
+
+    /**
+     * Renders a title slide.
+     * @param caption the caption. Lines are separated by newline characters.
+     * @return the slide image, of type BufferedImage.TYPE_3BYTE_BGR. That is the layout the
+     * JPEG encoder writes from, so the image is encoded without being converted or copied.
+     */
+    BufferedImage render(String caption);
+
+    /**
+     * Renders a title slide from a caption that has already been laid out. Renderers that
+     * lay out captions in their own way render the layout's caption.
+     * @param layout the layout of the caption.
+     * @return the slide image, of type BufferedImage.TYPE_3BYTE_BGR.
+     */
+    default BufferedImage render(TitleLayout layout) {
+        return render(layout.getCaption());
+    }
+
+    /**
+     * Describes everything other than the caption that affects the rendered slide: the
+     * renderer, font, colours and resolution. Two slides with the same caption and style are
+     * identical, so rendered slides can be cached by caption and style.
+     * @return the style description.
+     */
+    String getStyle();
+}
@@ -0,0 +1,214 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.tinylog.Logger;
+
+/**
+ * TitleSlideCache stores encoded title slides in a local folder, named by a SHA-256 hash of
+ * the caption, the renderer's style and the encoder's settings. A slide whose caption, style and
+ * settings have been rendered before is copied from the cache instead of being rendered and encoded again. Most person
+ * slides are the same from one show to the next, so most of them are cache hits.
+ *
+ * The total size of the cached slides is bounded. When a new slide takes the cache over the
+ * bound, the least recently used slides are deleted. Recency is kept in the modification time
+ * of each file, so it survives from one run to the next.
+ *
+ * All methods may be called from several threads at once. Only the index is locked; slides
+ * are read and written outside the lock.
+ */
+final class TitleSlideCache {
+    /** The default bound on the total size of the cached slides. */
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    /** The system property that overrides the default cache folder. */
+    static final String DIR_PROPERTY = "flexishowbuilder.cacheDir";
+    // changing how slides are cached, other than by the style and settings, must change the keys.
+    private static final String VERSION = "1";
+    private static final String SUFFIX = ".jpg";
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private final Path dir;
+    private final long maxBytes;
+    // key to size in bytes, least recently used first.
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private long totalBytes;
+
+    /**
+     * Constructor - opens or creates a cache folder.
+     * @param cacheDir the cache folder. It is created if it does not exist.
+     * @param maxCacheBytes the bound on the total size of the cached slides.
+     * @throws IOException if the folder cannot be created or listed.
+     */
+    TitleSlideCache(Path cacheDir, long maxCacheBytes) throws IOException {
+        dir = cacheDir;
+        maxBytes = maxCacheBytes;
+        Files.createDirectories(dir);
+        record Cached(String key, long size, FileTime used) {}
+        List<Cached> slides = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path slide : stream) {
+                BasicFileAttributes attributes = Files.readAttributes(slide, BasicFileAttributes.class);
+                String name = slide.getFileName().toString();
+                slides.add(new Cached(name.substring(0, name.length() - SUFFIX.length()), attributes.size(),
+                    attributes.lastModifiedTime()));
+            }
+        }
+        slides.sort(Comparator.comparing(Cached::used));
+        for (Cached slide : slides) {
+            index.put(slide.key(), slide.size());
+            totalBytes += slide.size();
+        }
+        evict();
+    }
+
+    /**
+     * Opens the cache in the folder named by the flexishowbuilder.cacheDir system property, or
+     * if it is not set, in the user's home folder, ~/.flexishowbuilder/slides.
+     * @return the cache, or null if it cannot be opened. Slides are then rendered every time.
+     */
+    static TitleSlideCache openDefault() {
+        String property = System.getProperty(DIR_PROPERTY);
+        Path cacheDir = property == null || property.isEmpty()
+            ? Path.of(System.getProperty("user.home"), ".flexishowbuilder", "slides")
+            : Path.of(property);
+        try {
+            return new TitleSlideCache(cacheDir, DEFAULT_MAX_BYTES);
+        } catch (IOException ioe) {
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "Unable to open title slide cache ", cacheDir.toString(), ": ", ioe.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Returns the cache key for a slide.
+     * @param renderer the renderer that draws the slide.
+     * @param encoder the encoder that encodes the slide.
+     * @param caption the caption of the slide.
+     * @return the key, a hexadecimal SHA-256 hash.
+     */
+    static String key(TitleRenderer renderer, JpegEncoder encoder, String caption) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((VERSION + "\n" + renderer.getStyle() + "\n" + encoder.getSettings() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(caption.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException nsae) {
+            // every Java platform is required to support SHA-256.
+            throw new IllegalStateException(nsae);
+        }
+    }
+
+    /**
+     * Copies a cached slide to a file.
+     * @param key the cache key of the slide.
+     * @param target the file to write.
+     * @return true if the slide was cached and has been copied, false if it was not cached.
+     * @throws IOException if the target file cannot be written.
+     */
+    boolean copyTo(String key, Path target) throws IOException {
+        synchronized (this) {
+            if (index.get(key) == null) {
+                return false;
+            }
+        }
+        Path slide = slideFile(key);
+        try {
+            Files.copy(slide, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(slide, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException nsfe) {
+            // deleted by another thread or process since it was indexed.
+            remove(key);
+            return false;
+        }
+    }
+
+    /**
+     * Adds an encoded slide to the cache, deleting the least recently used slides if the cache
+     * is then larger than its bound. A failure to write the slide is logged and otherwise
+     * ignored, because the cache is only an optimization.
+     * @param key the cache key of the slide.
+     * @param jpeg the encoded slide.
+     */
+    void put(String key, byte[] jpeg) {
+        Path slide = slideFile(key);
+        Path temp = dir.resolve(key + "." + Thread.currentThread().threadId() + ".tmp");
+        try {
+            Files.write(temp, jpeg);
+            Files.move(temp, slide, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            Logger.debug(BuilderGUI.buildLogMessage("Unable to cache title slide: ", ioe.getMessage()));
+            return;
+        }
+        synchronized (this) {
+            Long previous = index.put(key, (long) jpeg.length);
+            totalBytes += jpeg.length - (previous == null ? 0 : previous);
+        }
+        evict();
+    }
+
+    /**
+     * Returns the number of slides in the cache.
+     * @return the number of slides.
+     */
+    synchronized int getCount() {
+        return index.size();
+    }
+
+    /**
+     * Returns the total size of the slides in the cache.
+     * @return the size in bytes.
+     */
+    synchronized long getSize() {
+        return totalBytes;
+    }
+
+    private synchronized void remove(String key) {
+        Long size = index.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    // Deletes least recently used slides until the cache is within its bound.
+    private void evict() {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String key : evicted) {
+            try {
+                Files.deleteIfExists(slideFile(key));
+            } catch (IOException ioe) {
+                Logger.debug(BuilderGUI.buildLogMessage("Unable to evict title slide: ", ioe.getMessage()));
+            }
+        }
+    }
+
+    private Path slideFile(String key) {
+        return dir.resolve(key + SUFFIX);
+    }
+}
@@ -0,0 +1,237 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.tinylog.Logger;
+
+/**
+ * TitleSlideWriter renders, encodes and writes title slides in a three stage pipeline, so that
+ * rendering, JPEG encoding and file writes overlap. Rendering and encoding each have a pool of
+ * worker threads, one for each available processor; files are written on a single thread.
+ * Slides are submitted as the show is built, and await waits for all of them to be written.
+ * Slides that are in the TitleSlideCache are copied rather than rendered.
+ *
+ * A writer may have several outputs, each with its own renderer and folder, so that one show
+ * can be written at several resolutions in one pass. Each caption is laid out once for all of
+ * the outputs, and the outputs are rendered in parallel.
+ *
+ * Each stage has a bounded queue. When a queue is full, the stage before it waits, so at most a
+ * few rendered images are held in memory however long the show is.
+ *
+ * The worker threads, encoder and cache are held in a ShowResources object. A writer that is
+ * given a ShowResources object shares it with other writers, so that the slides of several
+ * shows may be written at once on the same threads; otherwise the writer creates its own.
+ *
+ * ```java
+ * try (TitleSlideWriter slides = new TitleSlideWriter(new Java2DTitleRenderer(),
+ *         new JpegEncoder(JpegEncoder.DEFAULT_QUALITY), null)) {
+ *     slides.submit("Jane Smith", dir + "/Jane_Smith.jpg");
+ *     slides.await();
+ * }
+ * ```
+ */
+final class TitleSlideWriter implements AutoCloseable {
+    /** The number of slides that may wait for each stage. */
+    static final int QUEUE_CAPACITY = 8;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private final List<Output> outputs;
+    private final ShowResources resources;
+    private final boolean ownsResources;
+    private final JpegEncoder encoder;
+    private final TitleSlideCache cache;
+    private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+    private final AtomicInteger copied = new AtomicInteger();
+    private long started;
+    private double slidesPerSecond;
+    private volatile boolean closed;
+
+    /**
+     * An output of the writer: slides drawn by a renderer, written to a folder.
+     * @param renderer the renderer, which must support rendering on any thread.
+     * @param dir the folder that submitted file names are resolved against.
+     */
+    record Output(TitleRenderer renderer, Path dir) {}
+
+    // A stage of the pipeline for one slide.
+    private interface Stage {
+        void run() throws IOException;
+    }
+
+    /**
+     * Constructor - creates a writer with one output. Submitted file names are used as they are.
+     * @param titleRenderer the renderer, which must support rendering on any thread.
+     * @param jpegEncoder the encoder for rendered slides.
+     * @param slideCache the cache of rendered slides, or null to render every slide.
+     */
+    TitleSlideWriter(TitleRenderer titleRenderer, JpegEncoder jpegEncoder, TitleSlideCache slideCache) {
+        this(List.of(new Output(titleRenderer, Path.of(""))), jpegEncoder, slideCache);
+    }
+
+    /**
+     * Constructor.
+     * @param slideOutputs the outputs. Each submitted slide is written to every output.
+     * @param jpegEncoder the encoder for rendered slides.
+     * @param slideCache the cache of rendered slides, or null to render every slide.
+     */
+    TitleSlideWriter(List<Output> slideOutputs, JpegEncoder jpegEncoder, TitleSlideCache slideCache) {
+        this(slideOutputs, new ShowResources(jpegEncoder, slideCache), true);
+    }
+
+    /**
+     * Constructor - creates a writer that shares worker threads, encoder and cache with other
+     * writers. Closing the writer does not close the resources.
+     * @param slideOutputs the outputs. Each submitted slide is written to every output.
+     * @param showResources the resources to share.
+     */
+    TitleSlideWriter(List<Output> slideOutputs, ShowResources showResources) {
+        this(slideOutputs, showResources, false);
+    }
+
+    private TitleSlideWriter(List<Output> slideOutputs, ShowResources showResources, boolean owned) {
+        outputs = List.copyOf(slideOutputs);
+        resources = showResources;
+        ownsResources = owned;
+        encoder = showResources.getEncoder();
+        cache = showResources.getCache();
+    }
+
+    /**
+     * Submits a slide to be rendered and written to every output. If the render queue is full,
+     * this method waits until there is room in it.
+     * @param caption the caption of the slide.
+     * @param imageFileName the name of the image file to write, relative to each output's folder.
+     */
+    void submit(String caption, String imageFileName) {
+        if (pending.isEmpty()) {
+            started = System.nanoTime();
+        }
+        TitleLayout layout = TitleLayout.of(caption);
+        for (Output output : outputs) {
+            CompletableFuture<Void> written = new CompletableFuture<>();
+            pending.add(written);
+            Path file = output.dir().resolve(imageFileName);
+            runStage(resources.getRenderStage(), written, () -> render(output.renderer(), layout, file, written));
+        }
+    }
+
+    /**
+     * Waits for all submitted slides to be written, and logs the throughput.
+     * @return the number of slides written, counting each output separately.
+     * @throws IOException if a slide could not be written. The first failure, in submission
+     * order, is thrown.
+     */
+    int await() throws IOException {
+        try {
+            for (CompletableFuture<Void> slide : pending) {
+                slide.get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing title slides", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof UncheckedIOException uioe) {
+                throw uioe.getCause();
+            }
+            throw new IOException("Unable to write title slide", cause);
+        }
+        int written = pending.size();
+        long elapsed = Math.max(1, System.nanoTime() - started);
+        slidesPerSecond = written * NANOS_PER_SECOND / elapsed;
+        Logger.debug(BuilderGUI.buildLogMessage(
+            "Wrote ", Integer.toString(written), " title slides (", Integer.toString(copied.getAndSet(0)),
+            " from cache) in ", Long.toString(elapsed / NANOS_PER_MILLI), " ms: ",
+            String.format("%.1f", slidesPerSecond), " slides per second"));
+        pending.clear();
+        return written;
+    }
+
+    /**
+     * Returns the throughput of the slides written before the last call to await.
+     * @return the number of slides written per second, or 0 if await has not been called.
+     */
+    double getSlidesPerSecond() {
+        return slidesPerSecond;
+    }
+
+    /**
+     * Cancels the slides that have not been written. If the writer created its own resources,
+     * the worker threads are stopped and the encoder's writers are disposed of.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (ownsResources) {
+            resources.close();
+        }
+    }
+
+    private void render(TitleRenderer renderer, TitleLayout layout, Path file, CompletableFuture<Void> written)
+            throws IOException {
+        String caption = layout.getCaption();
+        String key = cache == null ? null : TitleSlideCache.key(renderer, encoder, caption);
+        if (key != null && cache.copyTo(key, file)) {
+            copied.incrementAndGet();
+            Logger.debug(BuilderGUI.buildLogMessage(
+                "File ", file.toString(), " has been copied from the title slide cache"));
+            written.complete(null);
+            return;
+        }
+        Logger.debug("About to create new image with caption: ", caption);
+        BufferedImage image = renderer.render(layout);
+        runStage(resources.getEncodeStage(), written, () -> encode(image, key, file, written));
+    }
+
+    private void encode(BufferedImage image, String key, Path file, CompletableFuture<Void> written)
+            throws IOException {
+        byte[] jpeg = encoder.encode(image);
+        runStage(resources.getWriteStage(), written, () -> write(jpeg, key, file, written));
+    }
+
+    private void write(byte[] jpeg, String key, Path file, CompletableFuture<Void> written) throws IOException {
+        Files.write(file, jpeg);
+        if (key != null) {
+            cache.put(key, jpeg);
+        }
+        Logger.debug(BuilderGUI.buildLogMessage(
+            "File ", file.toString(), " has been saved"));
+        written.complete(null);
+    }
+
+    // Runs a stage of a slide, waiting for room in the stage's queue. Any failure of the stage
+    // is passed to the slide's future, which is completed by the last stage. Once the writer is
+    // closed, its remaining stages are skipped, so that shared workers move on to other shows.
+    private void runStage(ExecutorService stage, CompletableFuture<Void> written, Stage task) {
+        try {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    if (closed) {
+                        throw new IOException("Title slide writer has been closed");
+                    }
+                    task.run();
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            }, stage).whenComplete((_, failure) -> {
+                if (failure != null) {
+                    written.completeExceptionally(
+                        failure instanceof CompletionException ? failure.getCause() : failure);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            written.completeExceptionally(ree);
+        }
+    }
+}
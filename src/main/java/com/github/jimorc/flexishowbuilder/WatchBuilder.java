@@ -0,0 +1,382 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.tinylog.Logger;
+
+/**
+ * WatchBuilder watches a drop folder, and its subfolders, for CSV files. When a CSV file is
+ * created or changed, the show is built as CommandLineBuilder builds it: the CSV file is read
+ * by InputCSV, the title and person slides are written next to it, and the show is saved to
+ * slideshow.xls by XLSWorkbook. Every show is built with the same options.
+ *
+ * A file is usually written in several pieces, each of which is reported as a change. A build
+ * therefore starts only when no change has been made to the folder's CSV files for a quiet
+ * period. While a folder is being built, further changes to it are coalesced into a single
+ * rebuild, which starts when the running build has finished. Shows in different folders are
+ * built in parallel, on a fixed number of threads, and share one ShowResources object.
+ *
+ * A folder holds one show, as the slides and slideshow.xls are written next to the CSV file.
+ * If another CSV file in the same folder changes before the folder is built, only the CSV
+ * file that changed last is built, and the other is reported as skipped.
+ *
+ * A result line is printed for each build, as space-separated key=value pairs:
+ *
+ * ```
+ * build status=ok csv="/shows/spring/entries.csv" millis=1432 saved="/shows/spring/slideshow.xls"
+ * build status=failed csv="/shows/autumn/entries.csv" millis=12 error="Invalid CSV file ..."
+ * build status=skipped csv="/shows/autumn/old.csv" millis=0 reason="replaced by /shows/autumn/entries.csv"
+ * ```
+ */
+final class WatchBuilder implements AutoCloseable {
+    /** The option that selects watching a folder. It must be the first argument. */
+    static final String OPTION = "--watch";
+    /** The default time, in milliseconds, that a folder must be unchanged before it is built. */
+    static final long DEFAULT_QUIET_MILLIS = 2000;
+    private static final String QUIET_OPTION = "--quiet";
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    // how long the watch loop waits for a change when no build is due.
+    private static final long IDLE_POLL_MILLIS = 1000;
+    // how long close waits for running builds to finish.
+    private static final long STOP_TIMEOUT_SECONDS = 60;
+    private final Options options;
+    private final PrintStream results;
+    private final WatchService watcher;
+    private final ShowResources resources;
+    private final ExecutorService pool;
+    // the last change to a CSV file in each folder that has not been built, by folder.
+    private final Map<Path, Change> changes = new HashMap<>();
+    // the folders that are being built.
+    private final Set<Path> building = new HashSet<>();
+    // the CSV file to build when the running build of its folder finishes, by folder.
+    private final Map<Path, Path> queued = new HashMap<>();
+    private final AtomicInteger builds = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * The parsed arguments.
+     * @param folder the folder to watch, as an absolute path.
+     * @param quietMillis the time that a folder must be unchanged before it is built.
+     * @param jobs the number of folders that may be built at once.
+     * @param data the title, sort strategy, layout, last name setting, profiles and background
+     * of every show.
+     */
+    record Options(Path folder, long quietMillis, int jobs, TitleAndSortData data) {}
+
+    // A change to a CSV file, and the time at which it may be built.
+    private record Change(Path csv, long due) {}
+
+    /**
+     * Constructor - starts watching the folder. Call watch to build the shows that are dropped
+     * into it.
+     * @param watchOptions the folder, quiet period, number of jobs and show options.
+     * @param resultStream the stream to print result lines to.
+     * @throws IOException if the folder cannot be watched.
+     */
+    WatchBuilder(Options watchOptions, PrintStream resultStream) throws IOException {
+        options = watchOptions;
+        results = resultStream;
+        watcher = options.folder().getFileSystem().newWatchService();
+        resources = ShowResources.openDefault();
+        pool = Executors.newFixedThreadPool(options.jobs());
+        register(options.folder(), false);
+    }
+
+    /**
+     * Watches the folder until the program is stopped.
+     * @param args the arguments: --watch, the folder, and the options of the shows.
+     * @param out the stream to print result lines and the help to.
+     * @param err the stream to report errors to.
+     * @return CommandLineBuilder.EXIT_OK if watching stopped normally or help was printed,
+     * EXIT_FAILED if the folder could not be watched, or EXIT_USAGE if the arguments are invalid.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException iae) {
+            err.println("flexishowbuilder: " + iae.getMessage());
+            err.println("Run flexishowbuilder --help for usage.");
+            return CommandLineBuilder.EXIT_USAGE;
+        }
+        if (options == null) {
+            out.print(CommandLineBuilder.getUsage());
+            return CommandLineBuilder.EXIT_OK;
+        }
+        try (WatchBuilder builder = new WatchBuilder(options, out)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(builder::close));
+            out.println("Watching " + options.folder() + " for CSV files");
+            builder.watch();
+            return CommandLineBuilder.EXIT_OK;
+        } catch (IOException ioe) {
+            Logger.error("Exception thrown watching folder: ", ioe);
+            err.println("flexishowbuilder: " + ioe.getMessage());
+            return CommandLineBuilder.EXIT_FAILED;
+        }
+    }
+
+    /**
+     * Parses command line arguments.
+     * @param args the arguments: --watch, the folder, and optionally --quiet, --jobs and the
+     * options of the shows.
+     * @return the options, or null if help was requested.
+     * @throws IllegalArgumentException if the arguments are invalid.
+     */
+    static Options parse(String[] args) {
+        if (args.length < 2 || args[1].startsWith("--")) {
+            throw new IllegalArgumentException("No folder specified for " + OPTION);
+        }
+        Path folder = Path.of(args[1]).toAbsolutePath();
+        long quietMillis = DEFAULT_QUIET_MILLIS;
+        int jobs = BatchBuilder.getDefaultJobs();
+        List<String> showArgs = new ArrayList<>();
+        int i = 2;
+        while (i < args.length) {
+            String arg = args[i++];
+            boolean hasValue = i < args.length;
+            if (arg.equals(QUIET_OPTION) && hasValue) {
+                quietMillis = parseQuiet(args[i++]);
+            } else if (arg.equals(BatchBuilder.JOBS_OPTION) && hasValue) {
+                jobs = BatchBuilder.parseJobs(args[i++]);
+            } else {
+                showArgs.add(arg);
+            }
+        }
+        TitleAndSortData data = CommandLineBuilder.parseShowData(showArgs.toArray(new String[0]));
+        if (data == null) {
+            return null;
+        }
+        if (!Files.isDirectory(folder)) {
+            throw new IllegalArgumentException("Not a folder: " + folder);
+        }
+        return new Options(folder, quietMillis, jobs, data);
+    }
+
+    /**
+     * Builds the shows that are dropped into the folder, until close is called.
+     */
+    void watch() {
+        try {
+            while (!closed.get()) {
+                WatchKey key = watcher.poll(getWaitNanos(), TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                }
+                startDueBuilds();
+            }
+        } catch (ClosedWatchServiceException cwse) {
+            Logger.debug(BuilderGUI.buildLogMessage("Stopped watching ", options.folder().toString()));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of builds that have finished, whether or not they succeeded.
+     * @return the number of builds.
+     */
+    int getBuildCount() {
+        return builds.get();
+    }
+
+    /**
+     * Stops watching the folder, waits for running builds to finish, and stops the worker
+     * threads. Builds that have not started are discarded.
+     */
+    @Override
+    public void close() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException ioe) {
+            Logger.error("Exception thrown closing folder watcher: ", ioe);
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        resources.close();
+    }
+
+    // Watches a folder and its subfolders. If the folder is new, the CSV files that are already
+    // in it are treated as changed, as they may have been written before it was watched.
+    private void register(Path dir, boolean isNew) throws IOException {
+        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry)) {
+                    register(entry, isNew);
+                } else if (isNew && isCsv(entry)) {
+                    changed(entry);
+                }
+            }
+        }
+    }
+
+    private void handleEvents(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                Logger.error("Too many changes in " + dir + "; some CSV files may not be built");
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (Files.isDirectory(path)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    registerNew(path);
+                }
+            } else if (isCsv(path)) {
+                changed(path);
+            }
+        }
+        key.reset();
+    }
+
+    private void registerNew(Path dir) {
+        try {
+            register(dir, true);
+        } catch (IOException ioe) {
+            Logger.error("Exception thrown watching new folder " + dir + ": ", ioe);
+        }
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    // Restarts the quiet period of the CSV file's folder.
+    private synchronized void changed(Path csv) {
+        Change previous = changes.put(csv.getParent(),
+            new Change(csv, System.nanoTime() + options.quietMillis() * NANOS_PER_MILLI));
+        if (previous != null) {
+            skipped(previous.csv(), csv);
+        }
+    }
+
+    // Returns the time until the next build is due.
+    private synchronized long getWaitNanos() {
+        long wait = IDLE_POLL_MILLIS * NANOS_PER_MILLI;
+        long now = System.nanoTime();
+        for (Change change : changes.values()) {
+            wait = Math.min(wait, change.due() - now);
+        }
+        return Math.max(0, wait);
+    }
+
+    private synchronized void startDueBuilds() {
+        long now = System.nanoTime();
+        Iterator<Change> it = changes.values().iterator();
+        while (it.hasNext()) {
+            Change change = it.next();
+            if (change.due() - now <= 0) {
+                it.remove();
+                start(change.csv());
+            }
+        }
+    }
+
+    // Starts a build of a folder, or, if the folder is being built, queues a rebuild. A queued
+    // rebuild replaces any rebuild that is already queued for the folder.
+    private synchronized void start(Path csv) {
+        Path dir = csv.getParent();
+        if (closed.get()) {
+            return;
+        }
+        if (!building.add(dir)) {
+            Path previous = queued.put(dir, csv);
+            if (previous != null) {
+                Logger.debug(BuilderGUI.buildLogMessage("Coalesced queued rebuilds of ", dir.toString()));
+                skipped(previous, csv);
+            }
+            return;
+        }
+        pool.execute(() -> build(csv));
+    }
+
+    private synchronized void finished(Path dir) {
+        building.remove(dir);
+        Path next = queued.remove(dir);
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    private void build(Path csv) {
+        long start = System.nanoTime();
+        try {
+            List<Path> saved = CommandLineBuilder.build(new CommandLineBuilder.Options(csv.toFile(), options.data()),
+                resources);
+            StringJoiner files = new StringJoiner(";");
+            for (Path file : saved) {
+                files.add(file.toString());
+            }
+            report(csv, start, "status=ok", "saved=" + quote(files.toString()));
+        } catch (CSVException | IOException e) {
+            Logger.error("Exception thrown building slide show in watched folder: ", e);
+            report(csv, start, "status=failed", "error=" + quote(String.valueOf(e.getMessage())));
+        } catch (RuntimeException re) {
+            // such as an invalid line in the CSV file. The watch must carry on.
+            Logger.error("Exception thrown building slide show in watched folder: ", re);
+            report(csv, start, "status=failed", "error=" + quote(re.toString()));
+        } finally {
+            builds.incrementAndGet();
+            finished(csv.getParent());
+        }
+    }
+
+    // Reports that a CSV file will not be built, because another CSV file in its folder changed
+    // after it.
+    private void skipped(Path csv, Path replacement) {
+        if (!csv.equals(replacement)) {
+            report(csv, System.nanoTime(), "status=skipped", "reason=" + quote("replaced by " + replacement));
+        }
+    }
+
+    private void report(Path csv, long start, String status, String detail) {
+        results.println("build " + status + " csv=" + quote(csv.toString()) + " millis="
+            + (System.nanoTime() - start) / NANOS_PER_MILLI + " " + detail);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static long parseQuiet(String value) {
+        long millis;
+        try {
+            millis = Long.parseLong(value);
+        } catch (NumberFormatException nfe) {
+            millis = -1;
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException("Invalid quiet period: " + value);
+        }
+        return millis;
+    }
+}
@@ -11,42 +11,66 @@ import org.tinylog.Logger;
 
 /**
  * XLSWorkbook generates an Apache POI workbook that can then be saved as an XLS file.
+ *
+ * XLSWorkbook is a CSVLineSink, so a slide show can be generated straight into the workbook
+ * without first being collected in an OutputCSV object.
+ *
+ * Apache POI is large, so it is loaded only when a workbook is created. FILE_NAME is a constant,
+ * so the GUI can refer to it without loading this class or POI.
  */
-public final class XLSWorkbook {
+public final class XLSWorkbook implements CSVLineSink {
+    /** The name of the XLS file that a slide show is saved to. */
+    public static final String FILE_NAME = "slideshow.xls";
     private Workbook workbook;
+    private Sheet sheet;
+    private int rowIndex;
+
+    /**
+     * Constructor builds an empty POI workbook. Lines are added to it by appendLine.
+     */
+    public XLSWorkbook() {
+        workbook = new HSSFWorkbook();
+        sheet = workbook.createSheet("CSVToXLS");
+    }
 
     /**
      * Constructor builds a POI workbook from the input CSV object.
      * @param csv the OutputCSV object used to create the workbook content.
      * */
     public XLSWorkbook(final OutputCSV csv) {
-        workbook = new HSSFWorkbook();
-        Sheet sheet = workbook.createSheet("CSVToXLS");
-        CSVLine[] lines = csv.getLines();
-        int rowIndex = 0;
-        for (CSVLine line: lines) {
-            Row row = sheet.createRow(rowIndex++);
-            int colNum = 0;
-            switch (line) {
-                case TitleImageLine l:
-                    Cell cell0 = row.createCell(colNum);
-                    cell0.setCellValue(l.field(0));
-                    break;
-                case ImageAndPersonLine ipl:
-                    Cell iCell0 = row.createCell(colNum++);
-                    iCell0.setCellValue(ipl.getImageFileName());
-                    Cell iCell1 = row.createCell(colNum++);
-                    iCell1.setCellValue(ipl.getImageTitle());
-                    Cell iCell2 = row.createCell(colNum++);
-                    iCell2.setCellValue(ipl.getPersonFullName());
-                    Cell iCell3 = row.createCell(colNum++);
-                    iCell3.setCellValue(ipl.getPersonFirstName());
-                    Cell iCell4 = row.createCell(colNum++);
-                    iCell4.setCellValue(ipl.getPersonLastName());
-                    break;
-                default:
-                    break;
-            }
+        this();
+        for (CSVLine line : csv) {
+            appendLine(line);
+        }
+    }
+
+    /**
+     * Appends a row to the worksheet for the specified line.
+     * @param line the line to add to the worksheet.
+     */
+    @Override
+    public void appendLine(CSVLine line) {
+        Row row = sheet.createRow(rowIndex++);
+        int colNum = 0;
+        switch (line) {
+            case TitleImageLine l:
+                Cell cell0 = row.createCell(colNum);
+                cell0.setCellValue(l.field(0));
+                break;
+            case ImageAndPersonLine ipl:
+                Cell iCell0 = row.createCell(colNum++);
+                iCell0.setCellValue(ipl.getImageFileName());
+                Cell iCell1 = row.createCell(colNum++);
+                iCell1.setCellValue(ipl.getImageTitle());
+                Cell iCell2 = row.createCell(colNum++);
+                iCell2.setCellValue(ipl.getPersonFullName());
+                Cell iCell3 = row.createCell(colNum++);
+                iCell3.setCellValue(ipl.getPersonFirstName());
+                Cell iCell4 = row.createCell(colNum++);
+                iCell4.setCellValue(ipl.getPersonLastName());
+                break;
+            default:
+                break;
         }
     }
 
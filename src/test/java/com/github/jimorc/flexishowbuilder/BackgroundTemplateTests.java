@@ -0,0 +1,108 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * BackgroundTemplateTests contains tests for the BackgroundTemplate class, and for
+ * Java2DTitleRenderer with a background. The tests write an image that is red on the left and
+ * blue on the right to a temporary folder.
+ */
+public class BackgroundTemplateTests {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 100;
+    private static final int RGB_MASK = 0xFFFFFF;
+    private static final int RED = 0xFF0000;
+    private static final int BLUE = 0x0000FF;
+    private static final int EDGE = 100;
+    @TempDir
+    private Path dir;
+
+    private BackgroundTemplate createTemplate() throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, WIDTH / 2, HEIGHT);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(WIDTH / 2, 0, WIDTH / 2, HEIGHT);
+        graphics.dispose();
+        Path file = dir.resolve("background.png");
+        ImageIO.write(image, "png", file.toFile());
+        return BackgroundTemplate.load(file);
+    }
+
+    @Test
+    void testScaledToCover() {
+        try {
+            BackgroundTemplate template = createTemplate();
+            for (OutputProfile profile : OutputProfile.values()) {
+                int width = profile.getWidth();
+                int height = profile.getHeight();
+                BufferedImage blank = new Java2DTitleRenderer(profile, template).render("");
+                assertEquals(BufferedImage.TYPE_3BYTE_BGR, blank.getType());
+                assertEquals(RED, blank.getRGB(EDGE, EDGE) & RGB_MASK);
+                assertEquals(BLUE, blank.getRGB(width - EDGE, height - EDGE) & RGB_MASK);
+                assertArrayEquals(template.getPixels(width, height),
+                    ((DataBufferByte) blank.getRaster().getDataBuffer()).getData());
+            }
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testSlidesDoNotChangeTemplate() {
+        try {
+            BackgroundTemplate template = createTemplate();
+            Java2DTitleRenderer renderer = new Java2DTitleRenderer(OutputProfile.Standard, template);
+            BufferedImage before = renderer.render("");
+            BufferedImage slide = renderer.render("Jane Smith");
+            BufferedImage after = renderer.render("");
+            assertArrayEquals(((DataBufferByte) before.getRaster().getDataBuffer()).getData(),
+                ((DataBufferByte) after.getRaster().getDataBuffer()).getData());
+            assertFalse(Arrays.equals(((DataBufferByte) before.getRaster().getDataBuffer()).getData(),
+                ((DataBufferByte) slide.getRaster().getDataBuffer()).getData()));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testStyleIdentifiesTemplate() {
+        try {
+            BackgroundTemplate template = createTemplate();
+            BackgroundTemplate other = BackgroundTemplate.load(Path.of("testing/data/test_image.jpg"));
+            assertEquals(template.getId(), BackgroundTemplate.load(dir.resolve("background.png")).getId());
+            assertNotEquals(template.getId(), other.getId());
+            String black = new Java2DTitleRenderer(OutputProfile.Standard).getStyle();
+            String withTemplate = new Java2DTitleRenderer(OutputProfile.Standard, template).getStyle();
+            assertNotEquals(black, withTemplate);
+            assertTrue(withTemplate.contains(template.getId()));
+            assertNotEquals(withTemplate, new Java2DTitleRenderer(OutputProfile.Standard, other).getStyle());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testLoadInvalidImage() {
+        assertThrows(IOException.class, () -> BackgroundTemplate.load(Path.of("testing/data/test.csv")));
+        assertThrows(IOException.class, () -> BackgroundTemplate.load(Path.of("testing/data/nosuchfile.png")));
+    }
+}
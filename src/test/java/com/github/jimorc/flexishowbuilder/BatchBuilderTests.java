@@ -0,0 +1,122 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * BatchBuilderTests contains tests for the BatchBuilder class.
+ * The tests write a manifest to a temporary folder, and create the TestShows show in a
+ * subfolder of it for each show in the manifest.
+ */
+public class BatchBuilderTests {
+    private static final String MANIFEST = "shows.txt";
+    @TempDir
+    private Path dir;
+
+    private void createShow(String name) throws IOException {
+        TestShows.createShow(dir.resolve(name));
+    }
+
+    private int run(String manifest, ByteArrayOutputStream out, String... extraArgs) throws IOException {
+        Files.writeString(dir.resolve(MANIFEST), manifest);
+        String[] args = new String[2 + extraArgs.length];
+        args[0] = BatchBuilder.OPTION;
+        args[1] = dir.resolve(MANIFEST).toString();
+        System.arraycopy(extraArgs, 0, args, 2, extraArgs.length);
+        return CommandLineBuilder.run(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+            new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("--title", "Club Show", "show.csv"),
+            BatchBuilder.tokenize("  --title \"Club Show\"\tshow.csv "));
+        assertEquals(List.of("--title", "The \"Best\" Show\\n2025", ""),
+            BatchBuilder.tokenize("--title \"The \\\"Best\\\" Show\\n2025\" \"\""));
+        assertEquals(List.of("my show.csv"), BatchBuilder.tokenize("my\" \"show.csv"));
+        assertThrows(IllegalArgumentException.class, () -> BatchBuilder.tokenize("--title \"Club Show"));
+    }
+
+    @Test
+    void testReadManifest() {
+        try {
+            createShow("one");
+            createShow("two");
+            Path manifest = dir.resolve(MANIFEST);
+            Files.writeString(manifest, "# shows\n\n--title One one/show.csv\n"
+                + "--title Two --background one/a.jpg two/show.csv\n");
+            List<BatchBuilder.Show> shows = BatchBuilder.readManifest(manifest);
+            assertEquals(2, shows.size());
+            final int secondLine = 4;
+            assertEquals(secondLine, shows.get(1).line());
+            assertEquals(dir.resolve("one/show.csv").toAbsolutePath().toFile(), shows.get(0).options().csvFile());
+            assertEquals(dir.resolve("one/a.jpg").toAbsolutePath(), shows.get(1).options().data().getBackground());
+
+            Files.writeString(manifest, "--title One one/show.csv\n--title Again one/show.csv\n");
+            assertThrows(IllegalArgumentException.class, () -> BatchBuilder.readManifest(manifest));
+            Files.writeString(manifest, "--title One one/show.csv\none/other.csv\n");
+            assertThrows(IllegalArgumentException.class, () -> BatchBuilder.readManifest(manifest));
+            Files.writeString(manifest, "# nothing to build\n");
+            assertThrows(IllegalArgumentException.class, () -> BatchBuilder.readManifest(manifest));
+            assertThrows(IOException.class, () -> BatchBuilder.readManifest(dir.resolve("nosuchfile.txt")));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testRun() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            createShow("one");
+            createShow("two");
+            int exitCode = run("--title One one/show.csv\n--title Two --profile all two/show.csv\n", out,
+                "--jobs", "2");
+            String summary = out.toString(StandardCharsets.UTF_8);
+            assertEquals(CommandLineBuilder.EXIT_OK, exitCode, summary);
+            assertTrue(Files.isRegularFile(dir.resolve("one").resolve(XLSWorkbook.FILE_NAME)));
+            assertTrue(Files.isRegularFile(dir.resolve("one/Jane_Smith.jpg")));
+            for (OutputProfile profile : OutputProfile.values()) {
+                Path folder = dir.resolve("two").resolve(profile.getFolderName());
+                assertTrue(Files.isRegularFile(folder.resolve(XLSWorkbook.FILE_NAME)));
+                assertTrue(Files.isRegularFile(folder.resolve("title.jpg")));
+            }
+            assertTrue(summary.contains("Built 2 of 2 shows"), summary);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testRunFailures() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            createShow("one");
+            int exitCode = run("--title One one/show.csv\n--title Missing two/show.csv\n", out);
+            String summary = out.toString(StandardCharsets.UTF_8);
+            assertEquals(CommandLineBuilder.EXIT_FAILED, exitCode, summary);
+            assertTrue(Files.isRegularFile(dir.resolve("one").resolve(XLSWorkbook.FILE_NAME)));
+            assertTrue(summary.contains("FAILED"), summary);
+            assertTrue(summary.contains("(line 2)"), summary);
+            assertTrue(summary.contains("Built 1 of 2 shows"), summary);
+
+            assertEquals(CommandLineBuilder.EXIT_USAGE, run("--title One one/show.csv\n", out, "--jobs", "0"));
+            assertEquals(CommandLineBuilder.EXIT_USAGE, run("--title One one/show.csv\n", out, "--jobs"));
+            assertEquals(CommandLineBuilder.EXIT_USAGE, run("--title \"One one/show.csv\n", out));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+}
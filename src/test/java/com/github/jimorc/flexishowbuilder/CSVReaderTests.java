@@ -0,0 +1,77 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * CSVReaderTests contains tests for the CSVReader class.
+ */
+public class CSVReaderTests {
+    @Test
+    void testReadRecords() {
+        final int records = 2;
+        String csv = "a,b,c\nd,e,f\n";
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            assertArrayEquals(new String[] {"a", "b", "c"}, reader.readRecord());
+            assertArrayEquals(new String[] {"d", "e", "f"}, reader.readRecord());
+            assertNull(reader.readRecord());
+            assertEquals(records, reader.getRecordNumber());
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testNoFinalLineBreak() {
+        try (CSVReader reader = new CSVReader(new StringReader("a,b\r\nc,d"))) {
+            assertArrayEquals(new String[] {"a", "b"}, reader.readRecord());
+            assertArrayEquals(new String[] {"c", "d"}, reader.readRecord());
+            assertNull(reader.readRecord());
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testQuotedFields() {
+        String csv = "\"a, b\",\"say \"\"hi\"\"\",\"line1\nline2\",\n";
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            assertArrayEquals(new String[] {"a, b", "say \"hi\"", "line1\nline2", ""}, reader.readRecord());
+            assertNull(reader.readRecord());
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testEmptyLine() {
+        try (CSVReader reader = new CSVReader(new StringReader("\na,b\n"))) {
+            assertArrayEquals(new String[] {""}, reader.readRecord());
+            assertArrayEquals(new String[] {"a", "b"}, reader.readRecord());
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testUnterminatedQuote() {
+        assertThrows(CSVException.class, () -> CSVReader.parseLine("a,\"b,c"));
+    }
+
+    @Test
+    void testParseLine() {
+        try {
+            assertArrayEquals(new String[] {"a", "b, c"}, CSVReader.parseLine("a,\"b, c\""));
+            assertArrayEquals(new String[] {""}, CSVReader.parseLine(""));
+        } catch (CSVException e) {
+            fail(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.jimorc.flexishowbuilder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * ColumnarLineStoreTests contains tests for the ColumnarLineStore class.
+ */
+public class ColumnarLineStoreTests {
+    @Test
+    void testAppendAndGet() {
+        final int lineCount = 3;
+        // "Fred Flintstone", "Fred", "Flintstone", "Wilma Flintstone", "Wilma"
+        final int distinctNames = 5;
+        ColumnarLineStore store = new ColumnarLineStore();
+        store.append(new ImageAndPersonLine("a.jpg,\"Title, One\",Fred Flintstone,Fred,Flintstone"));
+        store.append(new ImageAndPersonLine("b.jpg,Été,Wilma Flintstone,Wilma,Flintstone"));
+        store.append(new ImageAndPersonLine("c.jpg,Title Three,Fred Flintstone,Fred,Flintstone"));
+        assertEquals(lineCount, store.size());
+        assertEquals(distinctNames, store.getDistinctNameCount());
+        ImageAndPersonLine line = (ImageAndPersonLine) store.get(1);
+        assertEquals("b.jpg", line.getImageFileName());
+        assertEquals("Été", line.getImageTitle());
+        assertEquals("Wilma Flintstone", line.getPersonFullName());
+        assertEquals("Wilma", line.getPersonFirstName());
+        assertEquals("Flintstone", line.getPersonLastName());
+        assertEquals("a.jpg,\"Title, One\",Fred Flintstone,Fred,Flintstone", store.get(0).toString());
+    }
+
+    @Test
+    void testInsert() {
+        final int lineCount = 3;
+        final int last = 2;
+        ColumnarLineStore store = new ColumnarLineStore();
+        store.append(new ImageAndPersonLine("a.jpg,A,John Doe,John,Doe"));
+        store.append(new ImageAndPersonLine("c.jpg,C,John Doe,John,Doe"));
+        CSVLine first = store.get(0);
+        store.insert(1, new ImageAndPersonLine("b.jpg,B,Jane Doe,Jane,Doe"));
+        assertEquals(lineCount, store.size());
+        assertEquals("b.jpg", store.get(1).field(0));
+        assertEquals("c.jpg", store.get(last).field(0));
+        // lines retrieved before the insert still refer to the same data.
+        assertEquals("a.jpg", first.field(0));
+    }
+
+    @Test
+    void testNewEmptyStoreSharesRows() {
+        ColumnarLineStore store = new ColumnarLineStore();
+        store.append(new ImageAndPersonLine("a.jpg,A,John Doe,John,Doe"));
+        store.append(new ImageAndPersonLine("b.jpg,B,Jane Doe,Jane,Doe"));
+        LineStore reordered = store.newEmptyStore();
+        reordered.append(store.get(1));
+        reordered.append(store.get(0));
+        assertEquals("b.jpg,B,Jane Doe,Jane,Doe", reordered.get(0).toString());
+        assertEquals("a.jpg,A,John Doe,John,Doe", reordered.get(1).toString());
+    }
+
+    @Test
+    void testShortLines() {
+        final int lineCount = 3;
+        ColumnarLineStore store = new ColumnarLineStore();
+        TitleImageLine title = new TitleImageLine("title.jpg");
+        store.append(new ImageAndPersonLine("a.jpg,A,John Doe,John,Doe"));
+        store.append(title);
+        store.insert(0, new TitleImageLine("person.jpg"));
+        assertEquals(lineCount, store.size());
+        assertSame(title, store.get(2));
+        assertEquals("person.jpg", store.get(0).field(0));
+        assertEquals("a.jpg", store.get(1).field(0));
+        LineStore reordered = store.newEmptyStore();
+        reordered.append(store.get(2));
+        reordered.append(store.get(1));
+        assertSame(title, reordered.get(0));
+        assertEquals("a.jpg,A,John Doe,John,Doe", reordered.get(1).toString());
+        assertSame(title, store.remove(2));
+        assertEquals(2, store.size());
+    }
+}
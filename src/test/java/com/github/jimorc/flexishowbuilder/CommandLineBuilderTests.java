@@ -0,0 +1,131 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * CommandLineBuilderTests contains tests for the CommandLineBuilder class.
+ * The build tests create the TestShows show in a temporary folder.
+ */
+public class CommandLineBuilderTests {
+    @Test
+    void testParseDefaults() {
+        CommandLineBuilder.Options options = CommandLineBuilder.parse(new String[] {"--title", "Show", "show.csv"});
+        assertEquals(Path.of("show.csv").toAbsolutePath().toFile(), options.csvFile());
+        TitleAndSortData data = options.data();
+        assertEquals("Show", data.getTitle());
+        assertEquals(SortStrategy.getStrategies().get(0), data.getStrategy());
+        assertEquals(ShowLayout.Grouped, data.getLayout());
+        assertTrue(data.isLastNameAsInitial());
+        assertEquals(List.of(OutputProfile.Standard), data.getProfiles());
+        assertNull(data.getBackground());
+    }
+
+    @Test
+    void testParseOptions() {
+        final long seed = 42;
+        CommandLineBuilder.Options options = CommandLineBuilder.parse(new String[] {
+            "show.csv", "--title", "Club Show\\n2025", "--sort", "most-entries-first", "--full-last-name",
+            "--layout", "interleaved with round titles", "--profile", "16x9", "--background", "logo.png"});
+        TitleAndSortData data = options.data();
+        assertEquals("Club Show\n2025", data.getTitle());
+        assertEquals("Most Entries First", data.getStrategy().getName());
+        assertFalse(data.isLastNameAsInitial());
+        assertEquals(ShowLayout.InterleavedWithRoundTitles, data.getLayout());
+        assertEquals(List.of(OutputProfile.Widescreen), data.getProfiles());
+        assertEquals(Path.of("logo.png").toAbsolutePath(), data.getBackground());
+
+        data = CommandLineBuilder.parse(new String[] {"--title", "", "--sort", "Shuffle:42", "--profile", "all",
+            "show.csv"}).data();
+        assertEquals(SortStrategy.shuffle(seed), data.getStrategy());
+        assertEquals(List.of(OutputProfile.values()), data.getProfiles());
+
+        Path base = Path.of("testing/data");
+        options = CommandLineBuilder.parse(new String[] {"--title", "T", "--background", "logo.png", "show.csv"},
+            base);
+        assertEquals(base.resolve("show.csv").toAbsolutePath().toFile(), options.csvFile());
+        assertEquals(base.resolve("logo.png").toAbsolutePath(), options.data().getBackground());
+    }
+
+    @Test
+    void testParseErrors() {
+        assertNull(CommandLineBuilder.parse(new String[] {"--help"}));
+        assertThrows(IllegalArgumentException.class, () -> CommandLineBuilder.parse(new String[] {"--title", "T"}));
+        assertThrows(IllegalArgumentException.class, () -> CommandLineBuilder.parse(new String[] {"show.csv"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> CommandLineBuilder.parse(new String[] {"show.csv", "--title"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> CommandLineBuilder.parse(new String[] {"a.csv", "b.csv", "--title", "T"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> CommandLineBuilder.parse(new String[] {"show.csv", "--title", "T", "--colour", "red"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> CommandLineBuilder.parse(new String[] {"show.csv", "--title", "T", "--sort", "by height"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> CommandLineBuilder.parse(new String[] {"show.csv", "--title", "T", "--sort", "shuffle:x"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> CommandLineBuilder.parse(new String[] {"show.csv", "--title", "T", "--profile", "8k"}));
+    }
+
+    @Test
+    void testRun(@TempDir Path dir) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        try {
+            Path csv = TestShows.createShow(dir);
+            int exitCode = CommandLineBuilder.run(new String[] {"--title", "Show", csv.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+            assertEquals(CommandLineBuilder.EXIT_OK, exitCode, err.toString(StandardCharsets.UTF_8));
+            assertTrue(Files.isRegularFile(dir.resolve(XLSWorkbook.FILE_NAME)));
+            assertTrue(Files.isRegularFile(dir.resolve("title.jpg")));
+            assertTrue(Files.isRegularFile(dir.resolve("Jane_Smith.jpg")));
+            assertTrue(out.toString(StandardCharsets.UTF_8).contains(XLSWorkbook.FILE_NAME));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testRunErrors() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream outStream = new PrintStream(out, true, StandardCharsets.UTF_8);
+        PrintStream errStream = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        assertEquals(CommandLineBuilder.EXIT_USAGE, CommandLineBuilder.run(new String[] {"--title"}, outStream,
+            errStream));
+        assertEquals(CommandLineBuilder.EXIT_FAILED, CommandLineBuilder.run(
+            new String[] {"--title", "T", "testing/data/nosuchfile.csv"}, outStream, errStream));
+        assertEquals(CommandLineBuilder.EXIT_OK, CommandLineBuilder.run(new String[] {"--help"}, outStream,
+            errStream));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"Most Entries First\""));
+    }
+
+    @Test
+    void testRunMissingImage(@TempDir Path dir) {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        try {
+            Path csv = TestShows.createShow(dir);
+            Files.delete(dir.resolve("b.jpg"));
+            int exitCode = CommandLineBuilder.run(new String[] {"--title", "Show", csv.toString()},
+                new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+            assertEquals(CommandLineBuilder.EXIT_FAILED, exitCode);
+            assertTrue(err.toString(StandardCharsets.UTF_8).contains("b.jpg"), err.toString(StandardCharsets.UTF_8));
+            assertFalse(Files.exists(dir.resolve(XLSWorkbook.FILE_NAME)));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+}
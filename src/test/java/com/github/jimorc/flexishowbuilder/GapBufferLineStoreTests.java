@@ -0,0 +1,70 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * GapBufferLineStoreTests contains tests for the GapBufferLineStore class.
+ */
+public class GapBufferLineStoreTests {
+    private static CSVLine line(int i) {
+        return new ImageAndPersonLine("image" + i + ".jpg,Title,John Doe,John,Doe");
+    }
+
+    @Test
+    void testAppendAndIterate() {
+        final int lineCount = 100;
+        GapBufferLineStore store = new GapBufferLineStore();
+        for (int i = 0; i < lineCount; i++) {
+            store.append(line(i));
+        }
+        assertEquals(lineCount, store.size());
+        int i = 0;
+        for (CSVLine l : store) {
+            assertEquals("image" + i + ".jpg", l.field(0));
+            i++;
+        }
+        assertEquals(lineCount, i);
+    }
+
+    @Test
+    void testInsertAndRemoveMatchList() {
+        final int edits = 2000;
+        final long seed = 42;
+        // one edit in three is a removal.
+        final int removeOneIn = 3;
+        Random random = new Random(seed);
+        GapBufferLineStore store = new GapBufferLineStore();
+        List<CSVLine> expected = new ArrayList<>();
+        for (int i = 0; i < edits; i++) {
+            if (!expected.isEmpty() && random.nextInt(removeOneIn) == 0) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), store.remove(index));
+            } else {
+                int index = random.nextInt(expected.size() + 1);
+                CSVLine l = line(i);
+                expected.add(index, l);
+                store.insert(index, l);
+            }
+        }
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), store.get(i));
+        }
+    }
+
+    @Test
+    void testStoreFromArray() {
+        final int last = 2;
+        GapBufferLineStore store = new GapBufferLineStore(new CSVLine[] {line(0), line(1)});
+        store.append(line(last));
+        store.insert(0, line(last + 1));
+        assertEquals(last + 2, store.size());
+        assertEquals("image3.jpg", store.get(0).field(0));
+        assertEquals("image2.jpg", store.get(last + 1).field(0));
+    }
+}
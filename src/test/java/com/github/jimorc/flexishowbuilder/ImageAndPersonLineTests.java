@@ -3,6 +3,7 @@ package com.github.jimorc.flexishowbuilder;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * ImageAndPersonLineTests contains tests for the ImageAndPersonLine class.
@@ -26,12 +27,34 @@ public class ImageAndPersonLineTests {
         ImageAndPersonLine ipl = new ImageAndPersonLine("image.jpg,\"image, title\",John Doe,John,Doe");
         assertEquals(LINES, ipl.length());
         assertEquals("image.jpg", ipl.getImageFileName());
-        assertEquals("\"image, title\"", ipl.getImageTitle());
+        assertEquals("image, title", ipl.getImageTitle());
         assertEquals("John Doe", ipl.getPersonFullName());
         assertEquals("John", ipl.getPersonFirstName());
         assertEquals("Doe", ipl.getPersonLastName());
     }
 
+    @Test
+    void testEscapedQuoteConstructor() {
+        ImageAndPersonLine ipl = new ImageAndPersonLine("image.jpg,\"The \"\"Big\"\" One\",\"Doe, John\",John,Doe");
+        assertEquals(LINES, ipl.length());
+        assertEquals("The \"Big\" One", ipl.getImageTitle());
+        assertEquals("Doe, John", ipl.getPersonFullName());
+        assertEquals("image.jpg,\"The \"\"Big\"\" One\",\"Doe, John\",John,Doe", ipl.toString());
+    }
+
+    @Test
+    void testUnquotedCommaInTitleConstructor() {
+        ImageAndPersonLine ipl = new ImageAndPersonLine("image.jpg,image, title,John Doe,John,Doe");
+        assertEquals(LINES, ipl.length());
+        assertEquals("image, title", ipl.getImageTitle());
+        assertEquals("John Doe", ipl.getPersonFullName());
+    }
+
+    @Test
+    void testTooFewFieldsConstructor() {
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> new ImageAndPersonLine("image.jpg,John Doe,John,Doe"));
+    }
+
     @Test
     void testToString() {
         ImageAndPersonLine ipl = new ImageAndPersonLine("image.jpg,image title,John Doe,John,Doe");
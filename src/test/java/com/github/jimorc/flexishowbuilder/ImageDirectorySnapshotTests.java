@@ -0,0 +1,86 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * ImageDirectorySnapshotTests contains tests for the ImageDirectorySnapshot class.
+ * The tests list "testing/data", which contains image1.jpg and image2.jpg.
+ */
+public class ImageDirectorySnapshotTests {
+    private static ImageDirectorySnapshot readTestData() {
+        try {
+            return ImageDirectorySnapshot.read(Path.of("testing/data"));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+            return null;
+        }
+    }
+
+    @Test
+    void testContains() {
+        ImageDirectorySnapshot snapshot = readTestData();
+        assertTrue(snapshot.contains("image1.jpg"));
+        assertTrue(snapshot.contains("test.csv"));
+        assertTrue(snapshot.contains("../data/image2.jpg"));
+        assertFalse(snapshot.contains("image3.jpg"));
+        assertFalse(snapshot.contains("../data/image3.jpg"));
+    }
+
+    @Test
+    void testCheck() {
+        ImageDirectorySnapshot snapshot = readTestData();
+        ImageDirectorySnapshot.Check check = snapshot.check(
+            List.of("image1.jpg", "missing.jpg", "image1.jpg", "test_image.jpg", "test_image.jpg", "image1.jpg"));
+        assertEquals(List.of("missing.jpg"), check.missing());
+        assertEquals(List.of("image1.jpg", "test_image.jpg"), check.duplicates());
+        assertTrue(check.orphans().contains("image2.jpg"));
+        assertFalse(check.orphans().contains("image1.jpg"));
+        assertFalse(check.orphans().contains("test.csv"));
+    }
+
+    @Test
+    void testCheckInParallel() {
+        ImageDirectorySnapshot snapshot = readTestData();
+        String[] names = new String[ImageDirectorySnapshot.PARALLEL_THRESHOLD];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = i % 2 == 0 ? "image1.jpg" : "missing" + i + ".jpg";
+        }
+        ImageDirectorySnapshot.Check check = snapshot.check(List.of(names));
+        assertEquals(names.length / 2, check.missing().size());
+        assertEquals("missing1.jpg", check.missing().get(0));
+        assertEquals(List.of("image1.jpg"), check.duplicates());
+    }
+
+    @Test
+    void testSubfoldersAreNotFiles(@TempDir Path dir) {
+        try {
+            Files.createDirectory(dir.resolve("folder.jpg"));
+            Files.writeString(dir.resolve("image.jpg"), "not really an image");
+            ImageDirectorySnapshot snapshot = ImageDirectorySnapshot.read(dir);
+            assertEquals(1, snapshot.size());
+            assertTrue(snapshot.contains("image.jpg"));
+            assertFalse(snapshot.contains("folder.jpg"));
+            assertFalse(snapshot.contains("FOLDER.jpg"));
+            assertEquals(List.of("image.jpg"), snapshot.check(List.of()).orphans());
+            assertEquals(List.of("folder.jpg"), snapshot.check(List.of("folder.jpg", "image.jpg")).missing());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testReadMissingFolder() {
+        assertThrows(IOException.class, () -> ImageDirectorySnapshot.read(Path.of("testing/nosuchfolder")));
+    }
+}
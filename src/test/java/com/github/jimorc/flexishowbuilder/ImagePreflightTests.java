@@ -0,0 +1,161 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * ImagePreflightTests contains tests for the ImagePreflight class.
+ * The tests read "testing/data/test_image.jpg", a 1400 x 1050 JPEG file, and write temporary
+ * image files to "testing/data".
+ */
+public class ImagePreflightTests {
+    private static final Path DATA = Path.of("testing/data");
+    private static final int WIDTH = 1400;
+    private static final int HEIGHT = 1050;
+
+    private static byte[] png(int width, int height, boolean complete) {
+        final int headerSize = 33;
+        final int iendSize = 12;
+        final int ihdrLength = 13;
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + (complete ? iendSize : 0));
+        buffer.put(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        buffer.putInt(ihdrLength).put(new byte[] {'I', 'H', 'D', 'R'}).putInt(width).putInt(height);
+        buffer.position(headerSize);
+        if (complete) {
+            buffer.putInt(0).put(new byte[] {'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82});
+        }
+        return buffer.array();
+    }
+
+    // Writes the bytes to a temporary file in testing/data, inspects it and deletes it.
+    private static ImagePreflight.Result inspect(String fileName, byte[] bytes) {
+        Path path = DATA.resolve(fileName);
+        try {
+            Files.write(path, bytes);
+            return ImagePreflight.inspect(path, fileName);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+            return null;
+        } finally {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ioe) {
+                fail("IOException thrown: " + ioe.getMessage());
+            }
+        }
+    }
+
+    private static byte[] testImage() {
+        try {
+            return Files.readAllBytes(DATA.resolve("test_image.jpg"));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+            return null;
+        }
+    }
+
+    @Test
+    void testJpeg() {
+        ImagePreflight.Result result = ImagePreflight.inspect(DATA.resolve("test_image.jpg"), "test_image.jpg");
+        assertEquals(ImagePreflight.Format.Jpeg, result.format());
+        assertEquals(WIDTH, result.width());
+        assertEquals(HEIGHT, result.height());
+        assertFalse(result.truncated());
+        assertNull(result.problem());
+        assertTrue(result.isOk());
+    }
+
+    @Test
+    void testJpegWithPadding() {
+        final int padding = 16;
+        byte[] image = testImage();
+        ImagePreflight.Result result = inspect("padded.jpg", Arrays.copyOf(image, image.length + padding));
+        assertTrue(result.isOk());
+    }
+
+    @Test
+    void testTruncatedJpeg() {
+        byte[] image = testImage();
+        ImagePreflight.Result result = inspect("truncated.jpg", Arrays.copyOf(image, image.length / 2));
+        assertEquals(ImagePreflight.Format.Jpeg, result.format());
+        assertEquals(WIDTH, result.width());
+        assertTrue(result.truncated());
+        assertFalse(result.isOk());
+    }
+
+    @Test
+    void testJpegTruncatedBeforeSOF() {
+        final int length = 100;
+        ImagePreflight.Result result = inspect("short.jpg", Arrays.copyOf(testImage(), length));
+        assertEquals(ImagePreflight.Format.Jpeg, result.format());
+        assertEquals(0, result.width());
+        assertTrue(result.truncated());
+    }
+
+    @Test
+    void testPng() {
+        final int width = 640;
+        final int height = 480;
+        ImagePreflight.Result result = inspect("image.png", png(width, height, true));
+        assertEquals(ImagePreflight.Format.Png, result.format());
+        assertEquals(width, result.width());
+        assertEquals(height, result.height());
+        assertTrue(result.isOk());
+        assertTrue(inspect("image.png", png(width, height, false)).truncated());
+    }
+
+    @Test
+    void testPngNamedJpg() {
+        final int size = 10;
+        ImagePreflight.Result result = inspect("renamed.jpg", png(size, size, true));
+        assertEquals(ImagePreflight.Format.Png, result.format());
+        assertEquals("is a PNG file with a .jpg extension", result.problem());
+        assertEquals(ImagePreflight.Severity.Warning, result.severity());
+        assertTrue(result.isWarning());
+        assertTrue(result.isUsable());
+    }
+
+    @Test
+    void testOtherFormat() {
+        ImagePreflight.Result result = inspect("image.gif", new byte[] {'G', 'I', 'F', '8', '9', 'a', 1, 0, 1, 0});
+        assertEquals(ImagePreflight.Format.Unknown, result.format());
+        assertFalse(result.isOk());
+        assertTrue(result.isWarning());
+        assertTrue(result.isUsable());
+    }
+
+    @Test
+    void testNotAnImage() {
+        ImagePreflight.Result result = ImagePreflight.inspect(DATA.resolve("image1.jpg"), "image1.jpg");
+        assertEquals(ImagePreflight.Format.Unknown, result.format());
+        assertTrue(result.truncated());
+        assertEquals(ImagePreflight.Severity.Error, result.severity());
+        assertFalse(result.isUsable());
+        assertFalse(ImagePreflight.inspect(DATA.resolve("nosuchimage.jpg"), "nosuchimage.jpg").isUsable());
+    }
+
+    @Test
+    void testInspectInParallel() {
+        try {
+            List<ImagePreflight.Result> results = ImagePreflight.inspect(DATA,
+                List.of("test_image.jpg", "image1.jpg", "test_arial_image.jpg"));
+            assertEquals(List.of("test_image.jpg", "image1.jpg", "test_arial_image.jpg"),
+                results.stream().map(ImagePreflight.Result::fileName).toList());
+            assertTrue(results.get(0).isOk());
+            assertFalse(results.get(1).isUsable());
+        } catch (CSVException ce) {
+            fail("CSVException thrown: " + ce.getMessage());
+        }
+    }
+}
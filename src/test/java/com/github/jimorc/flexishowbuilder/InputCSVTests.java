@@ -4,11 +4,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -19,6 +24,8 @@ import static org.junit.jupiter.api.Assertions.fail;
 // image2.jpg,"Image, Two",Jane Smith,Jane,Smith
 //
 // Other tests read from "testing/data/empty.csv" which is an empty file.
+// "testing/data/quoted.csv" contains CRLF line endings, quoted commas, escaped quotes
+// and a title with an embedded line break.
 // Sort tests read from "testing/data/sort.csv" with the following content:
 // Filename,Title,Full Name,First Name,Last Name
 // image1.jpg,Image One,John Doe,John,Doe
@@ -69,6 +76,37 @@ public class InputCSVTests {
         assertThrows(CSVException.class, () -> new InputCSV(f));
     }
 
+    @Test
+    void testConstructorQuotedFields() {
+        checkQuotedFields(LineStorage.Objects);
+    }
+
+    @Test
+    void testConstructorQuotedFieldsMapped() {
+        checkQuotedFields(LineStorage.Mapped);
+    }
+
+    private static void checkQuotedFields(LineStorage storage) {
+        final int numLines = 3;
+        final int line2 = 2;
+        try {
+            File f = new File("testing/data/quoted.csv");
+            InputCSV csv = new InputCSV(f, storage);
+            assertEquals(numLines, csv.getNumberOfLines());
+            ImageAndPersonLine ipl = (ImageAndPersonLine) csv.getLine(1);
+            assertEquals("Sunrise, Lake Ontario", ipl.getImageTitle());
+            assertEquals("Mary-Jane O\"Brien", ipl.getPersonFullName());
+            assertEquals("O\"Brien", ipl.getPersonLastName());
+            ipl = (ImageAndPersonLine) csv.getLine(line2);
+            assertEquals("Two\r\nLines", ipl.getImageTitle());
+            assertEquals("John Doe", ipl.getPersonFullName());
+        } catch (CSVException ce) {
+            fail(ce.getMessage());
+        } catch (IOException ioe) {
+            fail(ioe.getMessage());
+        }
+    }
+
     @Test
     void testConstructorIOError() {
         Path path = Path.of("testing/data/temp.csv");
@@ -115,6 +153,26 @@ public class InputCSVTests {
         assertEquals("image2.jpg", ((ImageAndPersonLine) csv.getLine(line3)).getImageFileName());
     }
 
+    @Test
+    void testInsertTitleLinesWithColumnarStorage() {
+        final int numLines = 3;
+        try {
+            InputCSV csv = new InputCSV(new File("testing/data/test.csv"), LineStorage.Columnar);
+            csv.append(new TitleImageLine("title.jpg"));
+            assertEquals("title.jpg", csv.getLine(numLines).field(0));
+            assertTrue(csv.getLine(numLines) instanceof TitleImageLine);
+            // the sorted lines are a new store.
+            csv.sortNames(SortOrder.AlphabeticalByFullName);
+            csv.insertAt(1, new TitleImageLine("person.jpg"));
+            assertEquals("person.jpg", csv.getLine(1).field(0));
+            assertEquals("Jane Smith", ((ImageAndPersonLine) csv.getLine(2)).getPersonFullName());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        } catch (CSVException csve) {
+            fail("CSVException thrown: " + csve.getMessage());
+        }
+    }
+
     @Test
     void testInsertAtBeginning() {
         final int numLines = 4;
@@ -162,6 +220,29 @@ public class InputCSVTests {
         assertEquals("image4.jpg", ((ImageAndPersonLine) csv.getLine(line3)).getImageFileName());
     }
 
+    @Test
+    void testRemoveAt() {
+        final int numLines = 2;
+        final int line1 = 1;
+        InputCSV csv = null;
+        try {
+            File f = new File("testing/data/test.csv");
+            csv = new InputCSV(f);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        } catch (CSVException csve) {
+            fail("CSVException thrown: " + csve.getMessage());
+        }
+        CSVLine removed = csv.removeAt(line1);
+        assertEquals("image1.jpg", ((ImageAndPersonLine) removed).getImageFileName());
+        assertEquals(numLines, csv.getNumberOfLines());
+        assertEquals("image2.jpg", ((ImageAndPersonLine) csv.getLine(line1)).getImageFileName());
+        csv.insertAt(numLines, removed);
+        assertEquals("image1.jpg", ((ImageAndPersonLine) csv.getLine(numLines)).getImageFileName());
+        final InputCSV csv2 = csv;
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> csv2.removeAt(numLines + 1));
+    }
+
     @Test
     void testInsertAtInvalidIndex() {
         final int minus1 = -1;
@@ -519,6 +600,47 @@ public class InputCSVTests {
         assertEquals(sortedNamesSize, csv.getFullNameKeys().size());
     }
 
+    @Test
+    void testSortColumnarStorage() {
+        checkSortWithStorage(LineStorage.Columnar);
+    }
+
+    @Test
+    void testSortMappedStorage() {
+        checkSortWithStorage(LineStorage.Mapped);
+    }
+
+    private static void checkSortWithStorage(LineStorage storage) {
+        // number of InputCSVLines in resorted InputCSV.
+        final int sortFileLines = 7;
+        // position of first Fred Flintstone InputAndPersonLine in sorted InputCSV.
+        final int ffLine1 = 2;
+        // position of Wilma Flintstone InputAndPersonLine in sorted InputCSV.
+        final int wfLine = 6;
+        InputCSV csv = null;
+        try {
+            File f = new File("testing/data/sort.csv");
+            csv = new InputCSV(f, storage);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        } catch (CSVException csve) {
+            fail("CSVException thrown: " + csve.getMessage());
+        }
+        csv.sortNames(SortOrder.AlphabeticalByFullName);
+        assertEquals(sortFileLines, csv.getNumberOfLines());
+        assertEquals("Filename,Title,Full Name,First Name,Last Name", csv.getLine(0).toString());
+        assertEquals("DSC-0424.jpg,My Image,Fred Flintstone,Fred,Flintstone", csv.getLine(ffLine1).toString());
+        assertEquals("Wilma Flintstone", ((ImageAndPersonLine) csv.getLine(wfLine)).getPersonFullName());
+        try {
+            ImageAndPersonLine[] lines = csv.getImageLines("Jane Smith");
+            assertEquals(1, lines.length);
+            assertEquals("Image, Two", lines[0].getImageTitle());
+            assertEquals("Smith", csv.getPerson("Jane Smith").getLastName());
+        } catch (CSVException csve) {
+            fail("CSVException thrown: " + csve.getMessage());
+        }
+    }
+
     @Test
     void testValidateCSVFileEmpty() {
         try {
@@ -648,4 +770,184 @@ public class InputCSVTests {
             fail(ioe.getMessage());
         }
     }
+
+    @Test
+    void testReloadAppendedLines() {
+        final int numLines = 4;
+        final int persons = 2;
+        Path path = Path.of("testing/data/reload.csv");
+        try {
+            Files.writeString(path, "Filename,Title,Full Name,First Name,Last Name\n"
+                + "a.jpg,A,Jane Doe,Jane,Doe\n");
+            InputCSV csv = new InputCSV(path.toFile());
+            csv.sortNames(SortOrder.AlphabeticalByFullName);
+            assertEquals(CSVChange.None, csv.reload());
+            Files.writeString(path, "b.jpg,B,Adam Smith,Adam,Smith\nc.jpg,C,Jane Doe,Jane,Doe\nd.jpg,\"D",
+                StandardOpenOption.APPEND);
+            assertEquals(CSVChange.Appended, csv.reload());
+            assertEquals(numLines, csv.getNumberOfLines());
+            assertEquals(persons, csv.getNumberOfPersons());
+            assertEquals("Adam Smith", csv.getSortedFullNames().get(0));
+            assertEquals(2, csv.getImageLines("Jane Doe").length);
+            assertEquals("b.jpg", ((ImageAndPersonLine) csv.getLine(1)).getImageFileName());
+            // the incomplete record is loaded once it has been completed.
+            Files.writeString(path, "\n\",Eve Adams,Eve,Adams\n", StandardOpenOption.APPEND);
+            assertEquals(CSVChange.Appended, csv.reload());
+            assertEquals("D\n", csv.getImageLines("Eve Adams")[0].getImageTitle());
+            assertEquals("Eve Adams", csv.getSortedFullNames().get(1));
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    @Test
+    void testReloadChangedFile() {
+        Path path = Path.of("testing/data/reload2.csv");
+        try {
+            Files.writeString(path, "Filename,Title,Full Name,First Name,Last Name\n"
+                + "a.jpg,A,Jane Doe,Jane,Doe\n");
+            InputCSV csv = new InputCSV(path.toFile());
+            Files.writeString(path, "Filename,Title,Full Name,First Name,Last Name\n"
+                + "a.jpg,A,John Doe,John,Doe\nb.jpg,B,John Doe,John,Doe\n");
+            assertEquals(CSVChange.Reloaded, csv.reload());
+            assertEquals(1, csv.getNumberOfPersons());
+            assertEquals(2, csv.getImageLines("John Doe").length);
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    @Test
+    void testReloadMappedFile() {
+        Path path = Path.of("testing/data/reload5.csv");
+        try {
+            Files.writeString(path, "Filename,Title,Full Name,First Name,Last Name\n"
+                + "a.jpg,A,Jane Doe,Jane,Doe\n");
+            InputCSV csv = new InputCSV(path.toFile(), LineStorage.Mapped);
+            assertTrue(csv.getLine(1) instanceof MappedImageAndPersonLine);
+            // appended records are not added to the mapped lines; the file is parsed into objects.
+            Files.writeString(path, "b.jpg,B,Adam Smith,Adam,Smith\n", StandardOpenOption.APPEND);
+            assertEquals(CSVChange.Reloaded, csv.reload());
+            assertFalse(csv.getLine(1) instanceof MappedImageAndPersonLine);
+            assertEquals("b.jpg", ((ImageAndPersonLine) csv.getLine(2)).getImageFileName());
+            Files.writeString(path, "c.jpg,C,Eve Adams,Eve,Adams\n", StandardOpenOption.APPEND);
+            assertEquals(CSVChange.Appended, csv.reload());
+            assertFalse(csv.getLine(csv.getNumberOfLines() - 1) instanceof MappedImageAndPersonLine);
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    @Test
+    void testReloadEditInMiddleAndAppend() {
+        final int numLines = 500;
+        final int edited = 250;
+        Path path = Path.of("testing/data/reload4.csv");
+        try {
+            StringBuilder content = new StringBuilder("Filename,Title,Full Name,First Name,Last Name\n");
+            for (int i = 1; i < numLines; i++) {
+                content.append(String.format("img%03d.jpg,T,Jane Doe,Jane,Doe\n", i));
+            }
+            Files.writeString(path, content);
+            InputCSV csv = new InputCSV(path.toFile());
+            // the same length, so only a fingerprint of the whole loaded content sees the edit.
+            String changed = content.toString().replace("img250.jpg", "pic250.jpg");
+            Files.writeString(path, changed + "new.jpg,N,Jane Doe,Jane,Doe\n");
+            assertEquals(CSVChange.Reloaded, csv.reload());
+            assertEquals(numLines + 1, csv.getNumberOfLines());
+            assertEquals("pic250.jpg", ((ImageAndPersonLine) csv.getLine(edited)).getImageFileName());
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    @Test
+    void testReloadInvalidAppendedLine() {
+        final int invalidLine = 3;
+        Path path = Path.of("testing/data/reload3.csv");
+        try {
+            Files.writeString(path, "Filename,Title,Full Name,First Name,Last Name\n"
+                + "a.jpg,A,Jane Doe,Jane,Doe\n");
+            InputCSV csv = new InputCSV(path.toFile());
+            Files.writeString(path, "b.jpg,B\n", StandardOpenOption.APPEND);
+            CSVException csve = assertThrows(CSVException.class, () -> csv.reload());
+            assertEquals("Invalid line number " + invalidLine + " found in CSV file reload3.csv"
+                + "\nLine does not contain at least 5 fields.", csve.getMessage());
+            assertEquals(2, csv.getNumberOfLines());
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    @Test
+    void testReloadFileAppendedWhileLoading(@TempDir Path dir) {
+        final int numLines = 3;
+        Path path = dir.resolve("growing.csv");
+        try {
+            Files.writeString(path, "Filename,Title,Full Name,First Name,Last Name\n"
+                + "a.jpg,A,Jane Doe,Jane,Doe\n");
+            long size = Files.size(path);
+            // the record is appended after the size has been read, but before the file is parsed.
+            Files.writeString(path, "b.jpg,B,Adam Smith,Adam,Smith\n", StandardOpenOption.APPEND);
+            InputCSV csv = new InputCSV(path.toFile(), LineStorage.Objects, size);
+            assertEquals(2, csv.getNumberOfLines());
+            assertEquals(CSVChange.Appended, csv.reload());
+            assertEquals(numLines, csv.getNumberOfLines());
+            assertEquals(1, csv.getImageLines("Adam Smith").length);
+            assertEquals(CSVChange.None, csv.reload());
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testReloadRecordHalfWrittenWhileLoading(@TempDir Path dir) {
+        final int unwritten = 3;
+        Path path = dir.resolve("halfwritten.csv");
+        for (LineStorage storage : new LineStorage[] {LineStorage.Objects, LineStorage.Mapped}) {
+            try {
+                Files.writeString(path, "Filename,Title,Full Name,First Name,Last Name\n"
+                    + "a.jpg,A,Jane Doe,Jane,Doe\n");
+                // the last record was only partly written when the size was read.
+                InputCSV csv = new InputCSV(path.toFile(), storage, Files.size(path) - unwritten);
+                assertEquals("D", csv.getImageLines("Jane Doe")[0].getPersonLastName());
+                assertEquals(CSVChange.Reloaded, csv.reload());
+                assertEquals("Doe", csv.getImageLines("Jane Doe")[0].getPersonLastName());
+            } catch (IOException | CSVException e) {
+                fail(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void testGetSortedFullNamesDoesNotChangeLines() {
+        final int persons = 5;
+        InputCSV csv = null;
+        try {
+            csv = new InputCSV(new File("testing/data/sort.csv"));
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        }
+        String firstLine = csv.getLine(1).toString();
+        List<String> alpha = csv.getSortedFullNames(SortOrder.AlphabeticalByFullName);
+        assertEquals(persons, alpha.size());
+        assertEquals("Barney Rubble", alpha.get(0));
+        assertEquals("John Doe", csv.getSortedFullNames(SortOrder.AsIs).get(0));
+        assertEquals(firstLine, csv.getLine(1).toString());
+        assertThrows(UnsupportedOperationException.class, () -> alpha.set(0, "Nobody"));
+        csv.sortNames(SortOrder.AlphabeticalByFullName);
+        assertEquals(alpha, csv.getSortedFullNames());
+        csv.sortNames(SortOrder.AsIs);
+        assertEquals("John Doe", csv.getSortedFullNames().get(0));
+    }
 }
@@ -0,0 +1,130 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Java2DTitleRendererTests contains tests for the Java2DTitleRenderer class.
+ * The rendered slides are compared with "testing/data/test_image.jpg", which was rendered by
+ * JavaFX. The fonts differ, so the comparison is of the position and size of the text.
+ */
+public class Java2DTitleRendererTests {
+    private static final String CAPTION = "Test Caption Line1\nLine2";
+    private static final int BRIGHT = 128;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int RGB_MASK = 0xFFFFFF;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    // the maximum difference in pixels between the centres of the text.
+    private static final int CENTRE_TOLERANCE = 8;
+    // the maximum relative difference between the sizes of the text.
+    private static final double SIZE_TOLERANCE = 0.25;
+
+    // Returns {left, top, right, bottom} of the yellow pixels.
+    private static int[] textBounds(BufferedImage image) {
+        int[] bounds = {image.getWidth(), image.getHeight(), -1, -1};
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                if (((rgb >> RED_SHIFT) & BYTE_MASK) > BRIGHT && ((rgb >> GREEN_SHIFT) & BYTE_MASK) > BRIGHT) {
+                    bounds[0] = Math.min(bounds[0], x);
+                    bounds[1] = Math.min(bounds[1], y);
+                    bounds[2] = Math.max(bounds[2], x);
+                    bounds[2 + 1] = Math.max(bounds[2 + 1], y);
+                }
+            }
+        }
+        return bounds;
+    }
+
+    private static void assertClose(double expected, double actual, double tolerance) {
+        assertTrue(Math.abs(expected - actual) <= tolerance,
+            "expected " + expected + " but was " + actual + " (tolerance " + tolerance + ")");
+    }
+
+    @Test
+    void testRender() {
+        BufferedImage image = new Java2DTitleRenderer().render(CAPTION);
+        assertEquals(TitleRenderer.IMAGE_WIDTH, image.getWidth());
+        assertEquals(TitleRenderer.IMAGE_HEIGHT, image.getHeight());
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, image.getType());
+        assertEquals(BufferedImage.OPAQUE, image.getTransparency());
+        assertEquals(0, image.getRGB(0, 0) & RGB_MASK);
+    }
+
+    @Test
+    void testMatchesFXRendering() {
+        final int bottom = 3;
+        try {
+            int[] expected = textBounds(ImageIO.read(new File("testing/data/test_image.jpg")));
+            int[] actual = textBounds(new Java2DTitleRenderer().render(CAPTION));
+            assertClose((expected[0] + expected[2]) / 2.0, (actual[0] + actual[2]) / 2.0, CENTRE_TOLERANCE);
+            assertClose((expected[1] + expected[bottom]) / 2.0, (actual[1] + actual[bottom]) / 2.0,
+                CENTRE_TOLERANCE);
+            double width = expected[2] - expected[0];
+            double height = expected[bottom] - expected[1];
+            assertClose(width, actual[2] - actual[0], width * SIZE_TOLERANCE);
+            assertClose(height, actual[bottom] - actual[1], height * SIZE_TOLERANCE);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testRenderProfiles() {
+        int[] standard = textBounds(new Java2DTitleRenderer().render(CAPTION));
+        double standardWidth = standard[2] - standard[0];
+        for (OutputProfile profile : OutputProfile.values()) {
+            Java2DTitleRenderer renderer = new Java2DTitleRenderer(profile);
+            BufferedImage image = renderer.render(TitleLayout.of(CAPTION));
+            assertEquals(profile.getWidth(), image.getWidth());
+            assertEquals(profile.getHeight(), image.getHeight());
+            assertEquals(BufferedImage.TYPE_3BYTE_BGR, image.getType());
+            int[] actual = textBounds(image);
+            assertClose(profile.getWidth() / 2.0, (actual[0] + actual[2]) / 2.0, CENTRE_TOLERANCE);
+            double expectedWidth = standardWidth * profile.getFontSize() / TitleRenderer.FONT_SIZE;
+            assertClose(expectedWidth, actual[2] - actual[0], expectedWidth * SIZE_TOLERANCE);
+            int[] fromCaption = textBounds(renderer.render(CAPTION));
+            for (int i = 0; i < actual.length; i++) {
+                assertEquals(actual[i], fromCaption[i]);
+            }
+        }
+        assertNotEquals(new Java2DTitleRenderer(OutputProfile.Standard).getStyle(),
+            new Java2DTitleRenderer(OutputProfile.UltraHD).getStyle());
+    }
+
+    @Test
+    void testRenderConcurrently() {
+        final int slides = 8;
+        Java2DTitleRenderer renderer = new Java2DTitleRenderer();
+        int[] expected = textBounds(renderer.render(CAPTION));
+        try (ExecutorService executor = Executors.newFixedThreadPool(slides)) {
+            List<Future<BufferedImage>> futures = new ArrayList<>();
+            for (int i = 0; i < slides; i++) {
+                futures.add(executor.submit(() -> renderer.render(CAPTION)));
+            }
+            for (Future<BufferedImage> future : futures) {
+                int[] actual = textBounds(future.get());
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(expected[i], actual[i]);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+}
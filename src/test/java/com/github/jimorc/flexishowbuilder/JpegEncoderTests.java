@@ -0,0 +1,76 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * JpegEncoderTests contains tests for the JpegEncoder class.
+ */
+public class JpegEncoderTests {
+    private static final BufferedImage SLIDE = new Java2DTitleRenderer().render("Jane Smith");
+
+    @Test
+    void testEncode() {
+        try {
+            byte[] jpeg = new JpegEncoder(JpegEncoder.DEFAULT_QUALITY).encode(SLIDE);
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg));
+            assertEquals(TitleRenderer.IMAGE_WIDTH, decoded.getWidth());
+            assertEquals(TitleRenderer.IMAGE_HEIGHT, decoded.getHeight());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testQuality() {
+        final float low = 0.3f;
+        try {
+            int lowSize = new JpegEncoder(low).encode(SLIDE).length;
+            int highSize = new JpegEncoder(1).encode(SLIDE).length;
+            assertTrue(lowSize < highSize, "quality " + low + ": " + lowSize + " bytes, quality 1: " + highSize);
+            assertNotEquals(new JpegEncoder(low).getSettings(), new JpegEncoder(1).getSettings());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new JpegEncoder(-1));
+        assertThrows(IllegalArgumentException.class, () -> new JpegEncoder(2));
+        assertThrows(IllegalArgumentException.class, () -> new JpegEncoder(Float.NaN));
+    }
+
+    @Test
+    void testPooledWritersGiveSameBytes() {
+        final int images = 16;
+        final int threads = 4;
+        JpegEncoder encoder = new JpegEncoder(JpegEncoder.DEFAULT_QUALITY);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            byte[] expected = encoder.encode(SLIDE);
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < images; i++) {
+                futures.add(executor.submit(() -> encoder.encode(SLIDE)));
+            }
+            for (Future<byte[]> future : futures) {
+                assertArrayEquals(expected, future.get());
+            }
+            encoder.dispose();
+            assertArrayEquals(expected, encoder.encode(SLIDE));
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+}
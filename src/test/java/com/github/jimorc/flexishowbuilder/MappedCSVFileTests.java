@@ -0,0 +1,85 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * MappedCSVFileTests contains tests for the MappedCSVFile and MappedImageAndPersonLine classes.
+ */
+public class MappedCSVFileTests {
+    private static MappedCSVFile wrap(String csv) {
+        ByteBuffer buffer = ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8));
+        return new MappedCSVFile(buffer, 0, buffer.limit(), 0);
+    }
+
+    @Test
+    void testNextRecord() {
+        final int records = 2;
+        final int[] first = {0, 2, 4, 5};
+        final int[] second = {7, 9, 11, 12};
+        MappedCSVFile file = wrap("a,b,c\r\nd,e,f");
+        try {
+            assertArrayEquals(first, file.nextRecord());
+            assertArrayEquals(second, file.nextRecord());
+            assertNull(file.nextRecord());
+            assertEquals(records, file.getRecordNumber());
+        } catch (CSVException csve) {
+            fail(csve.getMessage());
+        }
+    }
+
+    @Test
+    void testDecodeQuotedFields() {
+        MappedCSVFile file = wrap("\"a, b\",\"say \"\"hi\"\"\",\"line1\nline2\",é\n");
+        try {
+            int[] bounds = file.nextRecord();
+            assertEquals("a, b", file.decode(bounds[0], bounds[1] - 1));
+            assertEquals("say \"hi\"", file.decode(bounds[1], bounds[2] - 1));
+            assertEquals("line1\nline2", file.decode(bounds[2], bounds[bounds.length - 2] - 1));
+            assertEquals("é", file.decode(bounds[bounds.length - 2], bounds[bounds.length - 1]));
+            assertNull(file.nextRecord());
+        } catch (CSVException csve) {
+            fail(csve.getMessage());
+        }
+    }
+
+    @Test
+    void testUnterminatedQuote() {
+        MappedCSVFile file = wrap("a,b\nc,\"d\n");
+        CSVException csve = assertThrows(CSVException.class, () -> {
+            file.nextRecord();
+            file.nextRecord();
+        });
+        assertEquals("Unterminated quoted field in record 2", csve.getMessage());
+    }
+
+    @Test
+    void testMappedLine() {
+        MappedCSVFile file = wrap("img.jpg,Title,with commas,Jane Doe,Jane,Doe\n");
+        try {
+            MappedImageAndPersonLine line = new MappedImageAndPersonLine(file, file.nextRecord());
+            assertEquals(ImageAndPersonLine.FIELD_COUNT, line.length());
+            assertEquals("img.jpg", line.getImageFileName());
+            assertEquals("Title,with commas", line.getImageTitle());
+            assertEquals("Jane Doe", line.getPersonFullName());
+            assertEquals("Doe", line.getPersonLastName());
+            assertEquals("img.jpg,\"Title,with commas\",Jane Doe,Jane,Doe", line.toString());
+        } catch (CSVException csve) {
+            fail(csve.getMessage());
+        }
+    }
+
+    @Test
+    void testMappedLineTooFewFields() {
+        MappedCSVFile file = wrap("img.jpg,Title,Jane Doe\n");
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+            () -> new MappedImageAndPersonLine(file, file.nextRecord()));
+    }
+}
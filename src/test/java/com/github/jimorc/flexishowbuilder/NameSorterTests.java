@@ -0,0 +1,134 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * NameSorterTests contains tests for the NameSorter class.
+ */
+public class NameSorterTests {
+    private static final String HEADER = "File,Title,Full Name,First Name,Last Name";
+    private static final String[] LINES = {
+        "a.jpg,A,Zoë Abbott,Zoë,Abbott",
+        "image10.jpg,B,Émile Zola,Émile,Zola",
+        "image2.jpg,C,Eve Adams,Eve,Adams",
+        "d.jpg,D,Anne-Marie de la Tour,Anne-Marie,de la Tour",
+        "e.jpg,E,Eve Adams,Eve,Adams",
+    };
+
+    // Builds the rows and person index for the lines, as InputCSV does.
+    private static PersonIndex index(LineStore rows, String... lines) {
+        PersonIndex persons = new PersonIndex();
+        rows.append(new ImageAndPersonLine(HEADER));
+        for (String text : lines) {
+            ImageAndPersonLine line = new ImageAndPersonLine(text);
+            persons.add(line.getPersonFullName(), rows.size());
+            rows.append(line);
+        }
+        return persons;
+    }
+
+    private static String[] sort(SortStrategy strategy, String... lines) {
+        LineStore rows = new GapBufferLineStore();
+        PersonIndex persons = index(rows, lines);
+        int[] order = new NameSorter(Locale.ENGLISH).sort(persons, rows, strategy);
+        String[] sorted = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = persons.name(order[i]);
+        }
+        return sorted;
+    }
+
+    @Test
+    void testSortByFullName() {
+        assertArrayEquals(new String[] {"Anne-Marie de la Tour", "Émile Zola", "Eve Adams", "Zoë Abbott"},
+            sort(SortStrategy.forOrder(SortOrder.AlphabeticalByFullName), LINES));
+        assertArrayEquals(new String[] {"Zoë Abbott", "Eve Adams", "Émile Zola", "Anne-Marie de la Tour"},
+            sort(SortStrategy.forOrder(SortOrder.AlphabeticalByFullNameReverse), LINES));
+    }
+
+    @Test
+    void testSortByLastNameUsesLastNameColumn() {
+        assertArrayEquals(new String[] {"Zoë Abbott", "Eve Adams", "Anne-Marie de la Tour", "Émile Zola"},
+            sort(SortStrategy.forOrder(SortOrder.AlphabeticalByLastNameThenFirstName), LINES));
+        assertArrayEquals(new String[] {"Émile Zola", "Anne-Marie de la Tour", "Eve Adams", "Zoë Abbott"},
+            sort(SortStrategy.forOrder(SortOrder.AlphabeticalByLastNameThenFirstNameReverse), LINES));
+    }
+
+    @Test
+    void testFileOrder() {
+        assertArrayEquals(new String[] {"Zoë Abbott", "Émile Zola", "Eve Adams", "Anne-Marie de la Tour"},
+            sort(SortStrategy.forOrder(SortOrder.AsIs), LINES));
+    }
+
+    @Test
+    void testSortByImageFileNameUsesNaturalOrder() {
+        SortStrategy strategy = new SortStrategy("File", "", 0, SortStrategy.ascending(SortKey.ImageFileName));
+        assertArrayEquals(new String[] {"Zoë Abbott", "Anne-Marie de la Tour", "Eve Adams", "Émile Zola"},
+            sort(strategy, LINES));
+    }
+
+    @Test
+    void testEntryCountThenLastName() {
+        SortStrategy strategy = new SortStrategy("Entries", "", 0,
+            SortStrategy.descending(SortKey.EntryCount), SortStrategy.ascending(SortKey.LastName));
+        assertArrayEquals(new String[] {"Eve Adams", "Zoë Abbott", "Anne-Marie de la Tour", "Émile Zola"},
+            sort(strategy, LINES));
+    }
+
+    @Test
+    void testShuffleIsReproducible() {
+        final int persons = 50;
+        String[] lines = new String[persons];
+        for (int i = 0; i < persons; i++) {
+            lines[i] = "a.jpg,A,First Name" + i + ",First,Name" + i;
+        }
+        final long otherSeed = 99;
+        String[] first = sort(SortStrategy.shuffle(SortStrategy.DEFAULT_SEED), lines);
+        assertArrayEquals(first, sort(SortStrategy.shuffle(SortStrategy.DEFAULT_SEED), lines));
+        assertFalse(Arrays.equals(first, sort(SortStrategy.shuffle(otherSeed), lines)));
+        String[] sorted = first.clone();
+        Arrays.sort(sorted);
+        String[] all = sort(SortStrategy.forOrder(SortOrder.AsIs), lines);
+        Arrays.sort(all);
+        assertArrayEquals(all, sorted);
+    }
+
+    @Test
+    void testParallelSortMatchesCollatorOrder() {
+        final int persons = NameSorter.PARALLEL_SORT_THRESHOLD + 1;
+        // a prime that does not divide persons, so that each number is used once in a shuffled order.
+        final int step = 7919;
+        String[] lines = new String[persons];
+        String[] expected = new String[persons];
+        for (int i = 0; i < persons; i++) {
+            String last = "Name" + ((i * step) % persons);
+            expected[i] = "First " + last;
+            lines[i] = "a.jpg,A," + expected[i] + ",First," + last;
+        }
+        Arrays.sort(expected, Collator.getInstance(Locale.ENGLISH));
+        assertArrayEquals(expected, sort(SortStrategy.forOrder(SortOrder.AlphabeticalByFullName), lines));
+    }
+
+    @Test
+    void testStrategyEquality() {
+        SortStrategy named = new SortStrategy("Another name", "", 0, SortStrategy.ascending(SortKey.FullName));
+        assertEquals(SortStrategy.forOrder(SortOrder.AlphabeticalByFullName), named);
+        assertEquals(SortStrategy.forOrder(SortOrder.AlphabeticalByFullName).hashCode(), named.hashCode());
+        assertNotEquals(SortStrategy.forOrder(SortOrder.AlphabeticalByFullNameReverse), named);
+        assertNotEquals(SortStrategy.shuffle(1), SortStrategy.shuffle(2));
+    }
+
+    @Test
+    void testStrategyRequiresCriteria() {
+        assertThrows(IllegalArgumentException.class, () -> new SortStrategy("None", "", 0));
+    }
+}
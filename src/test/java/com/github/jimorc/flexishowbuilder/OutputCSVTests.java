@@ -21,4 +21,22 @@ public class OutputCSVTests {
         c = csv.toString();
         assertEquals(header + "\n" + header + "\n", c);
     }
+
+    @Test
+    void testIterateLines() {
+        final int lineCount = 1000;
+        OutputCSV csv = new OutputCSV();
+        for (int i = 0; i < lineCount; i++) {
+            csv.appendLine(new TitleImageLine("image" + i + ".jpg"));
+        }
+        assertEquals(lineCount, csv.length());
+        int i = 0;
+        for (CSVLine line : csv) {
+            assertEquals("image" + i + ".jpg", line.field(0));
+            i++;
+        }
+        assertEquals(lineCount, i);
+        assertEquals("image1.jpg", csv.getLine(1).field(0));
+        assertEquals(lineCount, csv.getLines().length);
+    }
 }
@@ -0,0 +1,100 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * ParallelCSVParserTests contains tests for the ParallelCSVParser class.
+ */
+public class ParallelCSVParserTests {
+    private static final int ROWS = 500;
+    private static final int PERSONS = 7;
+    private static final int CHUNK_SIZE = 64;
+
+    @Test
+    void testParseMatchesSequentialParse() {
+        checkParseMatchesSequentialParse(false);
+    }
+
+    @Test
+    void testMappedParseMatchesSequentialParse() {
+        checkParseMatchesSequentialParse(true);
+    }
+
+    private static void checkParseMatchesSequentialParse(boolean mapped) {
+        Path path = Path.of("testing/data/parallel.csv");
+        try {
+            Files.writeString(path, buildCSV());
+            ParallelCSVParser.Result result = ParallelCSVParser.parse(path, "parallel.csv", CHUNK_SIZE, mapped);
+            List<String> expected = new ArrayList<>();
+            try (CSVReader reader = new CSVReader(path)) {
+                String[] fields = reader.readRecord();
+                while (fields != null) {
+                    expected.add(new ImageAndPersonLine(fields).toString());
+                    fields = reader.readRecord();
+                }
+            }
+            assertEquals(ROWS + 1, result.lines().size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), result.lines().get(i).toString());
+            }
+            assertEquals(PERSONS, result.persons().size());
+            List<String> names = new ArrayList<>(result.persons().names());
+            for (int p = 0; p < PERSONS; p++) {
+                assertEquals("Person, " + p, names.get(p));
+            }
+            assertEquals((ROWS + PERSONS - 1) / PERSONS, result.persons().rowCount("Person, 0"));
+            for (int i = 0; i < result.persons().rowCount("Person, 0"); i++) {
+                int row = result.persons().row("Person, 0", i);
+                assertEquals("Person, 0", result.lines().get(row).getPersonFullName());
+                assertEquals(PERSONS * i + 1, row);
+            }
+        } catch (IOException | CSVException e) {
+            fail(e.getMessage());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    @Test
+    void testParseReportsInvalidLineNumber() {
+        final int invalidLine = 401;
+        Path path = Path.of("testing/data/parallelinvalid.csv");
+        try {
+            String csv = buildCSV();
+            int pos = 0;
+            for (int i = 0; i < invalidLine - 1; i++) {
+                pos = csv.indexOf("\nimage", pos + 1);
+            }
+            csv = csv.substring(0, pos) + "\nimage,Person,Person" + csv.substring(pos);
+            Files.writeString(path, csv);
+            ParallelCSVParser.parse(path, "parallelinvalid.csv", CHUNK_SIZE, true);
+            fail("CSVException not thrown");
+        } catch (CSVException csve) {
+            assertEquals("Invalid line number " + invalidLine + " found in CSV file parallelinvalid.csv"
+                + "\nLine does not contain at least 5 fields.", csve.getMessage());
+        } catch (IOException ioe) {
+            fail(ioe.getMessage());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    // Builds a CSV file whose titles contain quoted commas, quotes and line breaks.
+    private static String buildCSV() {
+        StringBuilder sb = new StringBuilder("Filename,Title,Full Name,First Name,Last Name\n");
+        for (int i = 0; i < ROWS; i++) {
+            int p = i % PERSONS;
+            sb.append("image").append(i).append(".jpg,\"Title, \"\"").append(i).append("\"\"\nline 2\",")
+                .append("\"Person, ").append(p).append("\",Person,").append(p).append("\r\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PersonIndexTests contains tests for the PersonIndex class.
+ */
+public class PersonIndexTests {
+    @Test
+    void testAddKeepsInsertionOrder() {
+        final int rows = 20;
+        PersonIndex index = new PersonIndex();
+        for (int row = 1; row <= rows; row++) {
+            index.add(row % 2 == 0 ? "Zoe Adams" : "Adam Zane", row);
+        }
+        assertEquals(2, index.size());
+        assertEquals(List.of("Adam Zane", "Zoe Adams"), new ArrayList<>(index.names()));
+        assertEquals(rows / 2, index.rowCount("Zoe Adams"));
+        assertEquals(2, index.row("Zoe Adams", 0));
+        assertEquals(rows, index.row("Zoe Adams", rows / 2 - 1));
+        assertTrue(index.contains("Adam Zane"));
+        assertFalse(index.contains("Nobody"));
+        assertEquals(0, index.rowCount("Nobody"));
+    }
+
+    @Test
+    void testAddAll() {
+        final int row3 = 3;
+        final int row4 = 4;
+        PersonIndex first = new PersonIndex();
+        first.add("Jane Doe", 1);
+        first.add("John Doe", 2);
+        PersonIndex second = new PersonIndex();
+        second.add("Bob Brown", row3);
+        second.add("Jane Doe", row4);
+        first.addAll(second);
+        assertEquals(List.of("Jane Doe", "John Doe", "Bob Brown"), new ArrayList<>(first.names()));
+        assertEquals(2, first.rowCount("Jane Doe"));
+        assertEquals(row4, first.row("Jane Doe", 1));
+        assertEquals(row3, first.row("Bob Brown", 0));
+    }
+}
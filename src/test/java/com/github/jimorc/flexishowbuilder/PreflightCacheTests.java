@@ -0,0 +1,134 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * PreflightCacheTests contains tests for the PreflightCache class.
+ * The tests write their cache files to a JUnit temporary folder.
+ */
+public class PreflightCacheTests {
+    private static final long SIZE = 1234;
+    private static final long MODIFIED = 1_700_000_000_000L;
+    private static final int WIDTH = 1400;
+    private static final int HEIGHT = 1050;
+    private static final ImagePreflight.Result OK = new ImagePreflight.Result("a.jpg",
+        ImagePreflight.Format.Jpeg, WIDTH, HEIGHT, false, ImagePreflight.Severity.None, null);
+    private static final ImagePreflight.Result BAD = new ImagePreflight.Result("b.jpg",
+        ImagePreflight.Format.Png, 1, 1, true, ImagePreflight.Severity.Error,
+        "truncated: no IEND chunk at end of file");
+    private static final ImagePreflight.Result RENAMED = new ImagePreflight.Result("c.jpg",
+        ImagePreflight.Format.Png, 1, 1, false, ImagePreflight.Severity.Warning, "is a PNG file with a .jpg extension");
+
+    @TempDir
+    private Path dir;
+
+    private Path cacheFile() {
+        return PreflightCache.forCSVFile(dir.resolve("temp.csv"));
+    }
+
+    @Test
+    void testForCSVFile() {
+        assertEquals(Path.of("testing/data/.temp.csv.preflight"),
+            PreflightCache.forCSVFile(Path.of("testing/data/temp.csv")));
+    }
+
+    @Test
+    void testSaveAndLoad() {
+        Path file = cacheFile();
+        try {
+            PreflightCache cache = PreflightCache.load(file);
+            assertNull(cache.get("a.jpg", SIZE, MODIFIED));
+            cache.put(SIZE, MODIFIED, OK);
+            cache.put(SIZE, MODIFIED, BAD);
+            cache.put(SIZE, MODIFIED, RENAMED);
+            cache.save();
+
+            PreflightCache reloaded = PreflightCache.load(file);
+            assertEquals(OK, reloaded.get("a.jpg", SIZE, MODIFIED));
+            assertEquals(BAD, reloaded.get("b.jpg", SIZE, MODIFIED));
+            assertEquals(ImagePreflight.Severity.Warning, reloaded.get("c.jpg", SIZE, MODIFIED).severity());
+            assertNull(reloaded.get("a.jpg", SIZE + 1, MODIFIED));
+            assertNull(reloaded.get("a.jpg", SIZE, MODIFIED + 1));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testUnusedEntriesAreDropped() {
+        Path file = cacheFile();
+        try {
+            PreflightCache cache = PreflightCache.load(file);
+            cache.put(SIZE, MODIFIED, OK);
+            cache.put(SIZE, MODIFIED, BAD);
+            cache.save();
+            // the cache file is written through a temporary file, which is not left behind.
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(List.of(file), files.toList());
+            }
+            PreflightCache reloaded = PreflightCache.load(file);
+            assertEquals(OK, reloaded.get("a.jpg", SIZE, MODIFIED));
+            reloaded.save();
+            assertNull(PreflightCache.load(file).get("b.jpg", SIZE, MODIFIED));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testInvalidCacheFileIsIgnored() {
+        Path file = cacheFile();
+        try {
+            Files.writeString(file, "flexishowbuilder preflight cache 3\na.jpg\tnot a number\n");
+            assertNull(PreflightCache.load(file).get("a.jpg", SIZE, MODIFIED));
+            // a cache file written before the severity was stored.
+            Files.writeString(file, "flexishowbuilder preflight cache 2\na.jpg\t" + SIZE + "\t" + MODIFIED
+                + "\tJpeg\t1\t1\tfalse\t\n");
+            assertNull(PreflightCache.load(file).get("a.jpg", SIZE, MODIFIED));
+            Files.writeString(file, "some other file\n");
+            assertNull(PreflightCache.load(file).get("a.jpg", SIZE, MODIFIED));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testInspectUsesCache() {
+        Path file = cacheFile();
+        Path data = Path.of("testing/data");
+        try {
+            PreflightCache cache = PreflightCache.load(file);
+            List<ImagePreflight.Result> results = ImagePreflight.inspect(data, List.of("test_image.jpg"), cache);
+            assertTrue(results.get(0).isOk());
+            cache.save();
+            assertTrue(Files.readString(file).contains("test_image.jpg\t"));
+
+            // a cached result is returned without inspecting the file again.
+            long size = Files.size(data.resolve("test_image.jpg"));
+            long modified = Files.getLastModifiedTime(data.resolve("test_image.jpg")).toMillis();
+            String cached = Files.readString(file).replace("\t" + WIDTH + "\t", "\t1\t");
+            Files.writeString(file, cached);
+            PreflightCache reloaded = PreflightCache.load(file);
+            assertEquals(1, reloaded.get("test_image.jpg", size, modified).width());
+            assertEquals(1, ImagePreflight.inspect(data, List.of("test_image.jpg"),
+                PreflightCache.load(file)).get(0).width());
+            assertFalse(ImagePreflight.inspect(data, List.of("image1.jpg"), reloaded).get(0).isOk());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        } catch (CSVException ce) {
+            fail("CSVException thrown: " + ce.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RoundRobinSchedulerTests contains tests for the RoundRobinScheduler class.
+ */
+public class RoundRobinSchedulerTests {
+    // Returns "round:rank:entry" for each scheduled entry.
+    private static List<String> schedule(int... counts) {
+        List<String> entries = new ArrayList<>();
+        RoundRobinScheduler scheduler = new RoundRobinScheduler(counts);
+        while (scheduler.next()) {
+            entries.add(scheduler.getRound() + ":" + scheduler.getRank() + ":" + scheduler.getEntry());
+        }
+        assertFalse(scheduler.next());
+        return entries;
+    }
+
+    @Test
+    void testRoundsInRankOrder() {
+        assertEquals(List.of("0:0:0", "0:1:0", "0:2:0", "1:0:1", "1:2:1", "2:2:2"), schedule(2, 1, 3));
+    }
+
+    @Test
+    void testPersonsWithoutEntriesAreSkipped() {
+        assertEquals(List.of("0:1:0", "1:1:1"), schedule(0, 2, 0));
+        assertEquals(List.of(), schedule());
+        assertEquals(List.of(), schedule(0, 0));
+    }
+
+    @Test
+    void testManyPersons() {
+        final int persons = 5000;
+        final int maxEntries = 4;
+        int[] counts = new int[persons];
+        int total = 0;
+        for (int i = 0; i < persons; i++) {
+            counts[i] = 1 + i % maxEntries;
+            total += counts[i];
+        }
+        RoundRobinScheduler scheduler = new RoundRobinScheduler(counts);
+        int scheduled = 0;
+        long previous = -1;
+        while (scheduler.next()) {
+            long current = (long) scheduler.getRound() * persons + scheduler.getRank();
+            assertTrue(current > previous);
+            assertTrue(scheduler.getEntry() < counts[scheduler.getRank()]);
+            previous = current;
+            scheduled++;
+        }
+        assertEquals(total, scheduled);
+    }
+
+    @Test
+    void testNegativeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new RoundRobinScheduler(new int[] {1, -1}));
+    }
+}
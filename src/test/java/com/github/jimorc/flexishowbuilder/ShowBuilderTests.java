@@ -0,0 +1,75 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * ShowBuilderTests contains tests for the ShowBuilder class.
+ * The tests write a CSV file to a temporary folder, and build the show's slides there. Jane
+ * Smith has two images and John Doe has one.
+ */
+public class ShowBuilderTests {
+    private static final String CSV = "Filename,Title,Full Name,First Name,Last Name\n"
+        + "a.jpg,A,Jane Smith,Jane,Smith\n"
+        + "b.jpg,B,Jane Smith,Jane,Smith\n"
+        + "c.jpg,C,John Doe,John,Doe\n";
+
+    // Builds the show with a layout, and returns the first field of each line of the show.
+    private static List<String> build(Path dir, ShowLayout layout) throws CSVException, IOException {
+        InputCSV csv = new InputCSV(Files.writeString(dir.resolve("show.csv"), CSV).toFile());
+        TitleAndSortData data = new TitleAndSortData("Show", SortStrategy.getStrategies().get(0), layout, false,
+            List.of(OutputProfile.Standard), null);
+        OutputCSV show = new OutputCSV();
+        try (ShowResources resources = new ShowResources(new JpegEncoder(JpegEncoder.DEFAULT_QUALITY), null)) {
+            ShowBuilder.build(csv, data, show, resources);
+        }
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < show.length(); i++) {
+            files.add(show.getLine(i).field(0));
+        }
+        return files;
+    }
+
+    @Test
+    void testGrouped(@TempDir Path dir) {
+        try {
+            assertEquals(List.of("Filename", "title.jpg", "Jane_Smith.jpg", "a.jpg", "b.jpg", "John_Doe.jpg",
+                "c.jpg", "title.jpg"), build(dir, ShowLayout.Grouped));
+        } catch (CSVException | IOException e) {
+            fail(e.getClass().getSimpleName() + " thrown: " + e.getMessage());
+        }
+    }
+
+    @Test
+    void testInterleaved(@TempDir Path dir) {
+        try {
+            assertEquals(List.of("Filename", "title.jpg", "Jane_Smith.jpg", "a.jpg", "John_Doe.jpg", "c.jpg",
+                "Jane_Smith.jpg", "b.jpg", "title.jpg"), build(dir, ShowLayout.Interleaved));
+        } catch (CSVException | IOException e) {
+            fail(e.getClass().getSimpleName() + " thrown: " + e.getMessage());
+        }
+    }
+
+    @Test
+    void testInterleavedWithRoundTitles(@TempDir Path dir) {
+        try {
+            assertEquals(List.of("Filename", "title.jpg", "round_1.jpg", "Jane_Smith.jpg", "a.jpg", "John_Doe.jpg",
+                "c.jpg", "round_2.jpg", "Jane_Smith.jpg", "b.jpg", "title.jpg"),
+                build(dir, ShowLayout.InterleavedWithRoundTitles));
+            assertTrue(Files.isRegularFile(dir.resolve("round_1.jpg")));
+            assertTrue(Files.isRegularFile(dir.resolve("round_2.jpg")));
+            assertTrue(Files.isRegularFile(dir.resolve("Jane_Smith.jpg")));
+        } catch (CSVException | IOException e) {
+            fail(e.getClass().getSimpleName() + " thrown: " + e.getMessage());
+        }
+    }
+}
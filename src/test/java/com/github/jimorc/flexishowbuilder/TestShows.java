@@ -0,0 +1,44 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * TestShows creates the small show that the command line, batch and watch build tests build:
+ * two copies of "testing/data/test_image.jpg", named a.jpg and b.jpg, and a CSV file that
+ * lists them for Jane Smith and John Doe.
+ */
+final class TestShows {
+    /** The contents of the show's CSV file. */
+    static final String CSV = "Filename,Title,Full Name,First Name,Last Name\n"
+        + "a.jpg,A,Jane Smith,Jane,Smith\n"
+        + "b.jpg,B,John Doe,John,Doe\n";
+    private static final Path IMAGE = Path.of("testing/data/test_image.jpg");
+
+    private TestShows() {}
+
+    /**
+     * Creates a folder that holds the show's images, but not its CSV file.
+     * @param folder the folder. It and its parent folders are created if they do not exist.
+     * @return the folder.
+     * @throws IOException if the folder or the images cannot be written.
+     */
+    static Path createImages(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        Files.copy(IMAGE, folder.resolve("a.jpg"), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(IMAGE, folder.resolve("b.jpg"), StandardCopyOption.REPLACE_EXISTING);
+        return folder;
+    }
+
+    /**
+     * Creates a folder that holds the show's images and its CSV file, show.csv.
+     * @param folder the folder. It and its parent folders are created if they do not exist.
+     * @return the CSV file.
+     * @throws IOException if the folder, the images or the CSV file cannot be written.
+     */
+    static Path createShow(Path folder) throws IOException {
+        return Files.writeString(createImages(folder).resolve("show.csv"), CSV);
+    }
+}
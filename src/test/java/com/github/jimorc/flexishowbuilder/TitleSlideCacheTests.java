@@ -0,0 +1,116 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * TitleSlideCacheTests contains tests for the TitleSlideCache class.
+ * The tests create a cache in a temporary folder, and copy slides from it to a second
+ * temporary folder.
+ */
+public class TitleSlideCacheTests {
+    private static final String TARGET = "slide.jpg";
+    private static final byte[] SLIDE_A = {1, 2, 3, 4};
+    private static final byte[] SLIDE_B = {5, 6, 7, 8};
+    private static final byte[] SLIDE_C = {9, 10, 11, 12};
+    private static final long MAX_BYTES = 10;
+    @TempDir
+    private Path dir;
+    @TempDir
+    private Path slides;
+
+    // A renderer that only has a style.
+    private static final class StyledRenderer implements TitleRenderer {
+        private final String style;
+
+        StyledRenderer(String rendererStyle) {
+            style = rendererStyle;
+        }
+
+        @Override
+        public BufferedImage render(String caption) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getStyle() {
+            return style;
+        }
+    }
+
+    @Test
+    void testKey() {
+        final int sha256HexLength = 64;
+        final float lowQuality = 0.5f;
+        TitleRenderer one = new StyledRenderer("one");
+        JpegEncoder encoder = new JpegEncoder(JpegEncoder.DEFAULT_QUALITY);
+        String key = TitleSlideCache.key(one, encoder, "Jane Smith");
+        assertEquals(sha256HexLength, key.length());
+        assertEquals(key, TitleSlideCache.key(one, encoder, "Jane Smith"));
+        assertEquals(key, TitleSlideCache.key(one, new JpegEncoder(JpegEncoder.DEFAULT_QUALITY), "Jane Smith"));
+        assertNotEquals(key, TitleSlideCache.key(one, encoder, "Jane S."));
+        assertNotEquals(key, TitleSlideCache.key(new StyledRenderer("two"), encoder, "Jane Smith"));
+        assertNotEquals(key, TitleSlideCache.key(one, new JpegEncoder(lowQuality), "Jane Smith"));
+    }
+
+    @Test
+    void testOpenDefaultWithCacheDir() {
+        String previous = System.getProperty(TitleSlideCache.DIR_PROPERTY);
+        try {
+            System.setProperty(TitleSlideCache.DIR_PROPERTY, dir.toString());
+            TitleSlideCache cache = TitleSlideCache.openDefault();
+            cache.put("a", SLIDE_A);
+            assertTrue(Files.isRegularFile(dir.resolve("a.jpg")));
+        } finally {
+            if (previous == null) {
+                System.clearProperty(TitleSlideCache.DIR_PROPERTY);
+            } else {
+                System.setProperty(TitleSlideCache.DIR_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    void testPutAndCopy() {
+        try {
+            TitleSlideCache cache = new TitleSlideCache(dir, MAX_BYTES);
+            assertFalse(cache.copyTo("a", slides.resolve(TARGET)));
+            cache.put("a", SLIDE_A);
+            assertTrue(cache.copyTo("a", slides.resolve(TARGET)));
+            assertArrayEquals(SLIDE_A, Files.readAllBytes(slides.resolve(TARGET)));
+            assertEquals(1, new TitleSlideCache(dir, MAX_BYTES).getCount());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedSlideIsEvicted() {
+        try {
+            TitleSlideCache cache = new TitleSlideCache(dir, MAX_BYTES);
+            cache.put("a", SLIDE_A);
+            cache.put("b", SLIDE_B);
+            assertTrue(cache.copyTo("a", slides.resolve(TARGET)));
+            cache.put("c", SLIDE_C);
+            assertEquals(2, cache.getCount());
+            assertEquals(SLIDE_A.length + SLIDE_C.length, cache.getSize());
+            assertFalse(cache.copyTo("b", slides.resolve(TARGET)));
+            assertFalse(Files.exists(dir.resolve("b.jpg")));
+            assertTrue(cache.copyTo("c", slides.resolve(TARGET)));
+            assertEquals(1, new TitleSlideCache(dir, SLIDE_C.length).getCount());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+}
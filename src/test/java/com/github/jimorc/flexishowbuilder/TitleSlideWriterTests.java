@@ -0,0 +1,120 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * TitleSlideWriterTests contains tests for the TitleSlideWriter class.
+ * The tests write the slides, and the cache, to a temporary folder.
+ */
+public class TitleSlideWriterTests {
+    @TempDir
+    private Path dir;
+
+    // A Java2DTitleRenderer that counts the slides it renders.
+    private static final class CountingRenderer implements TitleRenderer {
+        private final Java2DTitleRenderer renderer = new Java2DTitleRenderer();
+        private final AtomicInteger rendered = new AtomicInteger();
+
+        @Override
+        public BufferedImage render(String caption) {
+            rendered.incrementAndGet();
+            return renderer.render(caption);
+        }
+
+        @Override
+        public String getStyle() {
+            return "counting";
+        }
+    }
+
+    private static TitleSlideWriter createWriter(TitleRenderer renderer, TitleSlideCache cache) {
+        return new TitleSlideWriter(renderer, new JpegEncoder(JpegEncoder.DEFAULT_QUALITY), cache);
+    }
+
+    @Test
+    void testWriteMoreSlidesThanQueues() {
+        final int slides = TitleSlideWriter.QUEUE_CAPACITY * 4;
+        try (TitleSlideWriter writer = createWriter(new CountingRenderer(), null)) {
+            for (int i = 0; i < slides; i++) {
+                writer.submit("Person " + i, dir.resolve("person_" + i + ".jpg").toString());
+            }
+            assertEquals(slides, writer.await());
+            assertTrue(writer.getSlidesPerSecond() > 0);
+            for (int i = 0; i < slides; i++) {
+                BufferedImage image = ImageIO.read(new File(dir.toFile(), "person_" + i + ".jpg"));
+                assertEquals(TitleRenderer.IMAGE_WIDTH, image.getWidth());
+            }
+            assertEquals(0, writer.await());
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testWriteEveryProfile() {
+        List<TitleSlideWriter.Output> outputs = new ArrayList<>();
+        for (OutputProfile profile : OutputProfile.values()) {
+            outputs.add(new TitleSlideWriter.Output(new Java2DTitleRenderer(profile),
+                dir.resolve(profile.getFolderName())));
+        }
+        try (TitleSlideWriter writer = new TitleSlideWriter(outputs, new JpegEncoder(JpegEncoder.DEFAULT_QUALITY),
+                null)) {
+            for (TitleSlideWriter.Output output : outputs) {
+                Files.createDirectories(output.dir());
+            }
+            writer.submit("Jane Smith", "Jane_Smith.jpg");
+            assertEquals(OutputProfile.values().length, writer.await());
+            for (OutputProfile profile : OutputProfile.values()) {
+                BufferedImage image = ImageIO.read(dir.resolve(profile.getFolderName()).resolve("Jane_Smith.jpg")
+                    .toFile());
+                assertEquals(profile.getWidth(), image.getWidth());
+                assertEquals(profile.getHeight(), image.getHeight());
+            }
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+
+    @Test
+    void testFailureIsThrownByAwait() {
+        try (TitleSlideWriter writer = createWriter(new CountingRenderer(), null)) {
+            writer.submit("Jane Smith", dir.resolve("no/such/folder/Jane_Smith.jpg").toString());
+            assertThrows(IOException.class, writer::await);
+        }
+    }
+
+    @Test
+    void testCachedSlidesAreCopied() {
+        CountingRenderer renderer = new CountingRenderer();
+        Path first = dir.resolve("first.jpg");
+        Path second = dir.resolve("second.jpg");
+        try (TitleSlideWriter writer = createWriter(renderer,
+                new TitleSlideCache(dir.resolve("cache"), TitleSlideCache.DEFAULT_MAX_BYTES))) {
+            writer.submit("Jane S.", first.toString());
+            writer.await();
+            writer.submit("Jane S.", second.toString());
+            writer.submit("John D.", dir.resolve("third.jpg").toString());
+            writer.await();
+            assertEquals(2, renderer.rendered.get());
+            assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.jimorc.flexishowbuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * WatchBuilderTests contains tests for the WatchBuilder class.
+ * The tests watch a temporary folder, and drop the TestShows show into subfolders of it. A
+ * show may be prepared in a second temporary folder and moved into the watched folder.
+ */
+public class WatchBuilderTests {
+    private static final long QUIET_MILLIS = 300;
+    private static final long TIMEOUT_MILLIS = 20_000;
+    private static final long POLL_MILLIS = 50;
+    @TempDir
+    private Path watched;
+    @TempDir
+    private Path tmp;
+
+    // Creates a subfolder that holds the images of the TestShows show, but not its CSV file.
+    private static Path createFolder(Path parent, String name) throws IOException {
+        return TestShows.createImages(parent.resolve(name));
+    }
+
+    private WatchBuilder.Options options() {
+        TitleAndSortData data = new TitleAndSortData("Show", SortStrategy.getStrategies().get(0),
+            ShowLayout.Grouped, true, List.of(OutputProfile.Standard), null);
+        return new WatchBuilder.Options(watched.toAbsolutePath(), QUIET_MILLIS, 2, data);
+    }
+
+    // Waits until the builder has finished a number of builds, then for a quiet period in
+    // which no more builds start.
+    private static void awaitBuilds(WatchBuilder builder, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (builder.getBuildCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        Thread.sleep(QUIET_MILLIS * 2);
+    }
+
+    @Test
+    void testParse() {
+        final long quiet = 500;
+        final int jobs = 3;
+        String folder = watched.toString();
+        WatchBuilder.Options options = WatchBuilder.parse(new String[] {WatchBuilder.OPTION, folder,
+            "--title", "Show", "--quiet", "500", "--jobs", "3", "--profile", "all"});
+        assertEquals(watched.toAbsolutePath(), options.folder());
+        assertEquals(quiet, options.quietMillis());
+        assertEquals(jobs, options.jobs());
+        assertEquals("Show", options.data().getTitle());
+        assertEquals(List.of(OutputProfile.values()), options.data().getProfiles());
+        assertEquals(WatchBuilder.DEFAULT_QUIET_MILLIS,
+            WatchBuilder.parse(new String[] {WatchBuilder.OPTION, folder, "--title", "T"}).quietMillis());
+        assertNull(WatchBuilder.parse(new String[] {WatchBuilder.OPTION, folder, "--help"}));
+
+        assertThrows(IllegalArgumentException.class, () -> WatchBuilder.parse(new String[] {WatchBuilder.OPTION}));
+        assertThrows(IllegalArgumentException.class,
+            () -> WatchBuilder.parse(new String[] {WatchBuilder.OPTION, folder}));
+        assertThrows(IllegalArgumentException.class,
+            () -> WatchBuilder.parse(new String[] {WatchBuilder.OPTION, folder, "--title", "T", "a.csv"}));
+        assertThrows(IllegalArgumentException.class, () -> WatchBuilder.parse(
+            new String[] {WatchBuilder.OPTION, folder, "--title", "T", "--quiet", "soon"}));
+        assertThrows(IllegalArgumentException.class, () -> WatchBuilder.parse(
+            new String[] {WatchBuilder.OPTION, "testing/data/nosuchfolder", "--title", "T"}));
+    }
+
+    @Test
+    void testBuildsDroppedShows() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Path one = createFolder(watched, "one");
+            try (WatchBuilder builder = new WatchBuilder(options(), new PrintStream(out, true,
+                    StandardCharsets.UTF_8))) {
+                Thread watch = new Thread(builder::watch);
+                watch.start();
+                Files.writeString(one.resolve("show.csv"), TestShows.CSV);
+                // a new folder that already holds its CSV file is built too.
+                Path two = createFolder(tmp, "two");
+                Files.writeString(two.resolve("show.csv"), TestShows.CSV);
+                Files.move(two, watched.resolve("two"));
+                awaitBuilds(builder, 2);
+                assertEquals(2, builder.getBuildCount());
+                assertTrue(Files.isRegularFile(one.resolve(XLSWorkbook.FILE_NAME)));
+                assertTrue(Files.isRegularFile(watched.resolve("two").resolve(XLSWorkbook.FILE_NAME)));
+                assertTrue(Files.isRegularFile(one.resolve("Jane_Smith.jpg")));
+            }
+            String results = out.toString(StandardCharsets.UTF_8);
+            assertTrue(results.contains("build status=ok csv=\"" + one.toAbsolutePath().resolve("show.csv") + "\""),
+                results);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        } catch (InterruptedException ie) {
+            fail("InterruptedException thrown");
+        }
+    }
+
+    @Test
+    void testDebouncesWrites() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Path one = createFolder(watched, "one");
+            try (WatchBuilder builder = new WatchBuilder(options(), new PrintStream(out, true,
+                    StandardCharsets.UTF_8))) {
+                Thread watch = new Thread(builder::watch);
+                watch.start();
+                Path csv = one.resolve("show.csv");
+                Files.writeString(csv, "Filename,Title,Full Name,First Name,Last Name\n");
+                Files.writeString(csv, "a.jpg,A,Jane Smith,Jane,Smith\n", StandardOpenOption.APPEND);
+                Files.writeString(csv, TestShows.CSV);
+                awaitBuilds(builder, 1);
+                assertEquals(1, builder.getBuildCount(), out.toString(StandardCharsets.UTF_8));
+
+                Files.writeString(csv, "not a show\n");
+                awaitBuilds(builder, 2);
+                assertEquals(2, builder.getBuildCount());
+            }
+            String results = out.toString(StandardCharsets.UTF_8);
+            assertTrue(results.contains("build status=ok"), results);
+            assertTrue(results.contains("build status=failed"), results);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        } catch (InterruptedException ie) {
+            fail("InterruptedException thrown");
+        }
+    }
+
+    @Test
+    void testSkipsEarlierCsvInFolder() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Path one = createFolder(watched, "one");
+            try (WatchBuilder builder = new WatchBuilder(options(), new PrintStream(out, true,
+                    StandardCharsets.UTF_8))) {
+                Thread watch = new Thread(builder::watch);
+                watch.start();
+                Files.writeString(one.resolve("first.csv"), TestShows.CSV);
+                Files.writeString(one.resolve("second.csv"), TestShows.CSV);
+                awaitBuilds(builder, 1);
+                assertEquals(1, builder.getBuildCount());
+            }
+            String results = out.toString(StandardCharsets.UTF_8);
+            assertTrue(results.contains("build status=skipped csv=\"" + one.toAbsolutePath().resolve("first.csv")
+                + "\""), results);
+            assertTrue(results.contains("build status=ok csv=\"" + one.toAbsolutePath().resolve("second.csv")
+                + "\""), results);
+        } catch (IOException ioe) {
+            fail("IOException thrown: " + ioe.getMessage());
+        } catch (InterruptedException ie) {
+            fail("InterruptedException thrown");
+        }
+    }
+}